@@ -5,6 +5,7 @@ plugins {
     checkstyle                                  // Code style
     id("com.github.spotbugs") version "6.0.7"  // Bug detection
     id("org.owasp.dependencycheck") version "9.0.9"  // Security vulnerabilities
+    id("com.google.protobuf") version "0.9.4"  // Generates Java from src/main/proto
 }
 
 group = "com.ig.tfl"
@@ -25,6 +26,7 @@ val pekkoHttpVersion = "1.3.0"
 val jacksonVersion = "2.17.0"
 val micrometerVersion = "1.12.0"
 val openTelemetryVersion = "1.34.0"
+val protobufVersion = "3.25.3"
 
 dependencies {
     // Metrics (Prometheus)
@@ -52,6 +54,15 @@ dependencies {
     implementation("com.fasterxml.jackson.core:jackson-databind:$jacksonVersion")
     implementation("com.fasterxml.jackson.datatype:jackson-datatype-jsr310:$jacksonVersion")
 
+    // Binary response formats (Accept: application/cbor, application/x-jackson-smile, application/msgpack)
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-cbor:$jacksonVersion")
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-smile:$jacksonVersion")
+    implementation("org.msgpack:jackson-dataformat-msgpack:0.9.8")
+    implementation("com.google.protobuf:protobuf-java:$protobufVersion")  // Accept: application/x-protobuf
+
+    // Local date-range cache (W-TinyLFU eviction)
+    implementation("com.github.ben-manes.caffeine:caffeine:3.1.8")
+
     // Logging
     implementation("org.apache.pekko:pekko-slf4j_2.13:$pekkoVersion")
     implementation("ch.qos.logback:logback-classic:1.5.6")
@@ -79,13 +90,26 @@ application {
     mainClass.set("com.ig.tfl.TflApplication")
 }
 
+// =============================================================================
+// Protobuf - status API schema (src/main/proto)
+// =============================================================================
+
+protobuf {
+    protoc {
+        artifact = "com.google.protobuf:protoc:$protobufVersion"
+    }
+}
+
+// Generated message classes are not ours to cover or lint
+val generatedProtoClasses = listOf("com/ig/tfl/proto/**")
+
 // =============================================================================
 // Testing Configuration
 // =============================================================================
 
 tasks.test {
     useJUnitPlatform {
-        excludeTags("e2e", "container")
+        excludeTags("e2e", "container", "perf")
     }
     finalizedBy(tasks.jacocoTestReport)  // Generate coverage after tests
 }
@@ -116,6 +140,20 @@ tasks.register<Test>("containerTest") {
     }
 }
 
+// Benchmarks and load tests - run separately, results printed to stdout
+tasks.register<Test>("perfTest") {
+    description = "Runs benchmark and load tests"
+    group = "verification"
+    useJUnitPlatform {
+        includeTags("perf")
+    }
+    maxHeapSize = "4g"  // WebSocketFanOutLoadTest holds 10k sockets (both ends) in one JVM
+    testLogging {
+        events("passed", "skipped", "failed", "standardOut")
+        showStandardStreams = true
+    }
+}
+
 // Run all test suites
 tasks.register("allTests") {
     description = "Runs all test suites (unit, container, e2e)"
@@ -133,6 +171,9 @@ jacoco {
 
 tasks.jacocoTestReport {
     dependsOn(tasks.test)
+    classDirectories.setFrom(files(classDirectories.files.map {
+        fileTree(it) { exclude(generatedProtoClasses) }
+    }))
     reports {
         xml.required.set(true)   // For CI integration
         html.required.set(true)  // Human-readable report
@@ -141,6 +182,9 @@ tasks.jacocoTestReport {
 }
 
 tasks.jacocoTestCoverageVerification {
+    classDirectories.setFrom(files(classDirectories.files.map {
+        fileTree(it) { exclude(generatedProtoClasses) }
+    }))
     violationRules {
         rule {
             limit {
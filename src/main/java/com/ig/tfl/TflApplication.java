@@ -1,9 +1,14 @@
 package com.ig.tfl;
 
 import com.ig.tfl.api.TubeStatusRoutes;
+import com.ig.tfl.cache.DateRangeCache;
+import com.ig.tfl.client.DateRangePrefetcher;
 import com.ig.tfl.client.TflApiClient;
 import com.ig.tfl.client.TflGateway;
+import com.ig.tfl.crdt.DateRangeReplicator;
+import com.ig.tfl.crdt.StatusSnapshotHolder;
 import com.ig.tfl.crdt.TubeStatusReplicator;
+import com.ig.tfl.observability.HealthSnapshot;
 import com.ig.tfl.observability.Metrics;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
@@ -14,11 +19,22 @@ import org.apache.pekko.actor.typed.javadsl.AbstractBehavior;
 import org.apache.pekko.actor.typed.javadsl.ActorContext;
 import org.apache.pekko.actor.typed.javadsl.Behaviors;
 import org.apache.pekko.actor.typed.javadsl.Receive;
+import org.apache.pekko.http.javadsl.ConnectionContext;
 import org.apache.pekko.http.javadsl.Http;
+import org.apache.pekko.http.javadsl.HttpsConnectionContext;
 import org.apache.pekko.http.javadsl.ServerBinding;
+import org.apache.pekko.http.javadsl.ServerBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
 import java.time.Duration;
 import java.util.concurrent.CompletionStage;
 
@@ -29,6 +45,7 @@ import java.util.concurrent.CompletionStage;
  * - Pekko Actor System with cluster support
  * - TflGateway actor (TfL API communication)
  * - CRDT-replicated tube status actor
+ * - Date-range cache, with hot ranges shared across the cluster
  * - HTTP server for REST API
  */
 public final class TflApplication {
@@ -66,6 +83,9 @@ public final class TflApplication {
         private final int httpPort;
         private final ActorRef<TflGateway.Command> tflGateway;
         private final ActorRef<TubeStatusReplicator.Command> replicator;
+        private final StatusSnapshotHolder snapshots;
+        private final HealthSnapshot health;
+        private final DateRangeCache dateRangeCache;
         private final Metrics metrics;
 
         public static Behavior<Command> create(String nodeId, int httpPort) {
@@ -79,6 +99,9 @@ public final class TflApplication {
 
             Config config = context.getSystem().settings().config();
 
+            // Latest adopted status for the routes, with recent per-line change versions
+            this.snapshots = new StatusSnapshotHolder(config.getInt("tfl.changes.history-size"));
+
             // Create metrics registry
             this.metrics = new Metrics();
 
@@ -117,9 +140,13 @@ public final class TflApplication {
             // Register data freshness metric
             metrics.registerDataFreshness(nodeId);
 
+            // Readiness reads circuit state and data age from here instead of asking actors
+            this.health = new HealthSnapshot(snapshots);
+            tflApiClient.addCircuitStateListener(health::circuit);
+
             // Create TflGateway actor - single point of contact for TfL API
             this.tflGateway = context.spawn(
-                    TflGateway.create(tflApiClient),
+                    TflGateway.create(tflApiClient, metrics, TflGateway.Settings.fromConfig(config)),
                     "tfl-gateway");
 
             // Create CRDT replicator actor - uses TflGateway for fetches
@@ -132,10 +159,21 @@ public final class TflApplication {
                             nodeId,
                             refreshInterval,
                             recentEnoughThreshold,
-                            backgroundRefreshThreshold
+                            backgroundRefreshThreshold,
+                            snapshots
                     ),
                     "tube-status-replicator");
 
+            // Date-range answers: cached per node, hot ranges shared through an LWWMap
+            this.dateRangeCache = new DateRangeCache(DateRangeCache.Settings.fromConfig(config));
+            context.spawn(
+                    DateRangeReplicator.create(dateRangeCache, DateRangeReplicator.Settings.fromConfig(config)),
+                    "date-range-replicator");
+            context.spawn(
+                    DateRangePrefetcher.create(tflGateway, dateRangeCache, metrics,
+                            DateRangePrefetcher.Settings.fromConfig(config)),
+                    "date-range-prefetcher");
+
             // Start HTTP server
             startHttpServer(context.getSystem());
         }
@@ -152,19 +190,26 @@ public final class TflApplication {
         }
 
         private void startHttpServer(ActorSystem<?> system) {
-            // Routes talk to Replicator (for cached status) and TflGateway (for date-range queries)
-            TubeStatusRoutes routes = new TubeStatusRoutes(system, replicator, tflGateway, metrics);
+            // Routes read the Replicator's published snapshot (asking it only when too stale)
+            // and talk to TflGateway for date-range queries
+            TubeStatusRoutes routes = new TubeStatusRoutes(system, replicator, snapshots, tflGateway, metrics,
+                    TubeStatusRoutes.RoutesConfig.fromConfig(system.settings().config()), health, dateRangeCache);
 
-            CompletionStage<ServerBinding> binding = Http.get(system)
-                    .newServerAt("0.0.0.0", httpPort)
-                    .bind(routes.routes());
+            // HTTP/2 itself is pekko.http.server.enable-http2 (tfl.http.http2); TLS adds ALPN
+            Config httpConfig = system.settings().config().getConfig("tfl.http");
+            ServerBuilder server = Http.get(system).newServerAt("0.0.0.0", httpPort);
+            if (httpConfig.getBoolean("tls.enabled")) {
+                server = server.enableHttps(httpsContext(httpConfig.getConfig("tls")));
+            }
+            CompletionStage<ServerBinding> binding = server.bind(routes.routes());
 
             binding.whenComplete((serverBinding, error) -> {
                 if (error != null) {
                     log.error("Failed to bind HTTP server", error);
                     system.terminate();
                 } else {
-                    log.info("HTTP server bound to {}", serverBinding.localAddress());
+                    log.info("HTTP server bound to {} (http2={}, tls={})", serverBinding.localAddress(),
+                            httpConfig.getBoolean("http2"), httpConfig.getBoolean("tls.enabled"));
 
                     // Shutdown hook: drain connections, then terminate with timeout
                     Runtime.getRuntime().addShutdownHook(new Thread(() -> {
@@ -173,6 +218,7 @@ public final class TflApplication {
                             serverBinding.unbind()
                                     .toCompletableFuture()
                                     .get(10, java.util.concurrent.TimeUnit.SECONDS);
+                            routes.close();
                             log.info("HTTP server unbound, terminating actor system...");
                             system.terminate();
                             system.getWhenTerminated()
@@ -187,5 +233,25 @@ public final class TflApplication {
                 }
             });
         }
+
+        /**
+         * Server TLS context from a PKCS12 keystore (tfl.http.tls). With
+         * enable-http2 on, Pekko offers h2 and http/1.1 over ALPN.
+         */
+        private static HttpsConnectionContext httpsContext(Config tls) {
+            char[] password = tls.getString("keystore-password").toCharArray();
+            try (InputStream in = Files.newInputStream(Path.of(tls.getString("keystore")))) {
+                KeyStore keyStore = KeyStore.getInstance("PKCS12");
+                keyStore.load(in, password);
+                KeyManagerFactory keyManagers =
+                        KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+                keyManagers.init(keyStore, password);
+                SSLContext sslContext = SSLContext.getInstance("TLS");
+                sslContext.init(keyManagers.getKeyManagers(), null, null);
+                return ConnectionContext.httpsServer(sslContext);
+            } catch (IOException | GeneralSecurityException e) {
+                throw new IllegalStateException("Cannot load TLS keystore " + tls.getString("keystore"), e);
+            }
+        }
     }
 }
@@ -0,0 +1,27 @@
+package com.ig.tfl.api;
+
+import com.ig.tfl.model.TubeStatus;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Response contract for the status endpoints.
+ *
+ * The hot paths don't build this record - JsonPayload writes the same JSON
+ * shape from pre-serialized bytes - but it remains the reference for field names.
+ */
+public record ApiResponse(
+        List<TubeStatus.LineStatus> lines,
+        Meta meta
+) {
+    /**
+     * Response metadata with explicit timestamps.
+     * All times are UTC ISO-8601 format (e.g., "2024-01-15T10:30:00.123Z").
+     * Client can compute freshness as: respondedAtUtc - dataAsOfUtc
+     */
+    public record Meta(
+            Instant dataAsOfUtc,      // When TfL was queried for this data
+            Instant respondedAtUtc    // When this response was generated
+    ) {}
+}
@@ -0,0 +1,63 @@
+package com.ig.tfl.api;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.apache.pekko.http.javadsl.model.ContentType;
+import org.apache.pekko.http.javadsl.model.MediaType;
+import org.apache.pekko.http.javadsl.model.MediaTypes;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Binary encodings of ApiResponse offered through Accept, besides JSON.
+ *
+ * CBOR, Smile and MessagePack are written from the JSON document's tree, so field
+ * names and value formats (ISO-8601 timestamps as strings) are identical to the
+ * JSON form. PROTOBUF follows tube_status.proto instead (see StatusProtobuf) and
+ * has no Jackson mapper.
+ */
+enum BinaryFormat {
+    CBOR("application/cbor", List.of(), new CBORFactory()),
+    SMILE("application/x-jackson-smile", List.of("application/smile"), new SmileFactory()),
+    MSGPACK("application/msgpack", List.of("application/x-msgpack"), new MessagePackFactory()),
+    PROTOBUF("application/x-protobuf", List.of("application/protobuf", "application/vnd.google.protobuf"), null);
+
+    private final String mediaType;
+    private final List<String> aliases;
+    private final ContentType contentType;
+    private final ObjectMapper mapper;
+
+    BinaryFormat(String mediaType, List<String> aliases, JsonFactory factory) {
+        this.mediaType = mediaType;
+        this.aliases = aliases;
+        this.contentType = ((MediaType.Binary) MediaTypes.custom(mediaType, true, false)).toContentType();
+        this.mapper = factory != null ? new ObjectMapper(factory) : null;
+    }
+
+    String mediaType() {
+        return mediaType;
+    }
+
+    /** Whether a (lower-cased) media type from Accept names this format. */
+    boolean matches(String requested) {
+        return mediaType.equals(requested) || aliases.contains(requested);
+    }
+
+    ContentType contentType() {
+        return contentType;
+    }
+
+    /** Jackson mapper for the format; null for PROTOBUF. */
+    ObjectMapper mapper() {
+        return mapper;
+    }
+
+    /** ETag suffix, so each format has its own strong validator. */
+    String tagSuffix() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,80 @@
+package com.ig.tfl.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.pekko.http.javadsl.model.HttpEntities;
+import org.apache.pekko.http.javadsl.model.HttpEntity;
+import org.apache.pekko.util.ByteString;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * ApiResponse in a binary format, encoded once and split around respondedAtUtc.
+ *
+ * Binary formats length-prefix strings, so the per-request timestamp has to keep
+ * the length of the placeholder it replaces: the document is encoded with a
+ * 24-character sentinel, which is cut out and replaced per response by the
+ * timestamp at fixed millisecond precision (2026-02-02T14:30:05.456Z).
+ *
+ * PROTOBUF has an empty tail: the whole document is the head, and the
+ * timestamp is appended as a separate meta message (StatusProtobuf.respondedAt).
+ */
+record BinaryPayload(BinaryFormat format, ByteString head, ByteString tail) {
+
+    static final String SENTINEL = "~respondedAtUtc~pending~";
+    private static final byte[] SENTINEL_BYTES = SENTINEL.getBytes(StandardCharsets.US_ASCII);
+    private static final DateTimeFormatter RESPONDED_AT =
+            DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    /**
+     * Encode a complete JSON document whose respondedAtUtc value is SENTINEL.
+     */
+    static BinaryPayload of(BinaryFormat format, String json) {
+        try {
+            JsonNode tree = JSON.readTree(json);
+            if (format == BinaryFormat.PROTOBUF) {
+                return new BinaryPayload(format, StatusProtobuf.encode(tree), ByteString.emptyByteString());
+            }
+            byte[] encoded = format.mapper().writeValueAsBytes(tree);
+            int at = lastIndexOf(encoded, SENTINEL_BYTES);
+            if (at < 0) {
+                throw new IllegalStateException(format + " encoding did not keep the respondedAtUtc sentinel");
+            }
+            ByteString bytes = ByteString.fromArrayUnsafe(encoded);
+            return new BinaryPayload(format, bytes.take(at), bytes.drop(at + SENTINEL_BYTES.length));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Failed to encode status payload as " + format, e);
+        }
+    }
+
+    HttpEntity.Strict toEntity(Instant respondedAtUtc) {
+        ByteString respondedAt = format == BinaryFormat.PROTOBUF
+                ? StatusProtobuf.respondedAt(respondedAtUtc)
+                : ByteString.fromString(RESPONDED_AT.format(respondedAtUtc));
+        return HttpEntities.create(format.contentType(), head.concat(respondedAt).concat(tail));
+    }
+
+    /** Encoded size without the per-request timestamp. */
+    int size() {
+        return head.size() + tail.size();
+    }
+
+    private static int lastIndexOf(byte[] haystack, byte[] needle) {
+        outer:
+        for (int i = haystack.length - needle.length; i >= 0; i--) {
+            for (int j = 0; j < needle.length; j++) {
+                if (haystack[i + j] != needle[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,78 @@
+package com.ig.tfl.api;
+
+import com.ig.tfl.client.TflGateway;
+import com.ig.tfl.model.TubeStatus;
+import com.ig.tfl.observability.HealthSnapshot;
+import org.apache.pekko.http.javadsl.model.HttpHeader;
+import org.apache.pekko.http.javadsl.model.headers.RawHeader;
+
+import java.util.List;
+
+/**
+ * Cache-Control and Age for snapshot-backed responses, so a shared cache (CDN,
+ * reverse proxy) in front of the cluster follows the same freshness rules as
+ * the service.
+ *
+ * Age is the data's age (since TfL was queried), rounded up to whole seconds,
+ * so a cache counts the time the data spent in the cluster. max-age is
+ * Age + minimum-freshness, capped at the freshness budget (the client's
+ * maxAgeMs after the floor, else default-freshness-ms): a cache may add at
+ * most the floor's worth of staleness, and never serves data older than the
+ * budget. Data already past its budget gets max-age &lt;= Age, i.e. stale on arrival.
+ *
+ * Without maxAgeMs a cache may also serve stale while revalidating
+ * (background-refresh-threshold, mirroring the replicator's soft refresh) or
+ * when the cluster errors (default-freshness-ms, or the longer
+ * staleIfErrorCircuitOpen while the TfL circuit is open and the cluster
+ * itself only has its last snapshot). A request with maxAgeMs gets
+ * must-revalidate instead: its cache entry (maxAgeMs is part of the URL) is
+ * never served past its own bound.
+ */
+final class CacheHeaders {
+
+    /** For responses no cache should keep (errors, long polls, deltas). */
+    static final HttpHeader NO_STORE = RawHeader.create("Cache-Control", "no-store");
+
+    private final long minimumFreshnessMs;
+    private final long defaultFreshnessMs;
+    private final long staleWhileRevalidateSeconds;
+    private final long staleIfErrorCircuitOpenSeconds;
+    private final HealthSnapshot health;
+
+    CacheHeaders(TubeStatusRoutes.RoutesConfig config, HealthSnapshot health) {
+        this.minimumFreshnessMs = config.minimumFreshnessMs();
+        this.defaultFreshnessMs = config.defaultFreshnessMs();
+        this.staleWhileRevalidateSeconds = config.backgroundRefreshThreshold().toSeconds();
+        this.staleIfErrorCircuitOpenSeconds = config.staleIfErrorCircuitOpen().toSeconds();
+        this.health = health;
+    }
+
+    /** Headers for status data served under the default freshness budget. */
+    List<HttpHeader> forStatus(TubeStatus status) {
+        return forStatus(status, defaultFreshnessMs, false);
+    }
+
+    /**
+     * Headers for status data served for a request whose freshness budget is
+     * maxAgeMs (floor already applied); clientBounded = the client sent maxAgeMs.
+     */
+    List<HttpHeader> forStatus(TubeStatus status, long maxAgeMs, boolean clientBounded) {
+        long ageSeconds = Math.max(0, (status.ageMs() + 999) / 1000);
+        long maxAge = Math.min(ageSeconds + minimumFreshnessMs / 1000, maxAgeMs / 1000);
+        return List.of(
+                RawHeader.create("Cache-Control", cacheControl(maxAge, clientBounded)),
+                RawHeader.create("Age", String.valueOf(ageSeconds)));
+    }
+
+    private String cacheControl(long maxAge, boolean clientBounded) {
+        if (clientBounded) {
+            return "public, max-age=" + maxAge + ", must-revalidate";
+        }
+        long staleIfError = health.current().circuit() == TflGateway.CircuitState.CLOSED
+                ? defaultFreshnessMs / 1000
+                : staleIfErrorCircuitOpenSeconds;
+        return "public, max-age=" + maxAge
+                + ", stale-while-revalidate=" + staleWhileRevalidateSeconds
+                + ", stale-if-error=" + staleIfError;
+    }
+}
@@ -0,0 +1,19 @@
+package com.ig.tfl.api;
+
+import com.ig.tfl.model.TubeStatus;
+
+import java.util.List;
+
+/**
+ * Response contract for GET /api/v1/tube/status/changes?since=&lt;version&gt;.
+ *
+ * version is the snapshot the lines come from; send it as the next since.
+ * full = since was not retained (or absent), so lines holds every line and
+ * replaces the client's copy rather than patching it.
+ */
+public record ChangesResponse(
+        long version,
+        boolean full,
+        List<TubeStatus.LineStatus> lines,
+        ApiResponse.Meta meta
+) {}
@@ -0,0 +1,69 @@
+package com.ig.tfl.api;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Picks a precompressed content coding from an Accept-Encoding header.
+ *
+ * Follows RFC 9110 q-values: unlisted codings take the "*" weight (or are not
+ * acceptable without one), identity is acceptable unless excluded, and a
+ * compressed coding wins ties. Gzip is preferred over deflate at equal weight.
+ */
+final class ContentCodingNegotiation {
+
+    private ContentCodingNegotiation() {}
+
+    /**
+     * Best coding for the header, or null to send identity.
+     */
+    static Precompressed.Coding select(Optional<String> acceptEncoding) {
+        if (acceptEncoding.isEmpty() || acceptEncoding.get().isBlank()) {
+            return null;
+        }
+
+        double gzip = -1;
+        double deflate = -1;
+        double identity = -1;
+        double wildcard = -1;
+
+        for (String entry : acceptEncoding.get().split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double q = qValue(parts);
+            switch (coding) {
+                case "gzip", "x-gzip" -> gzip = Math.max(gzip, q);
+                case "deflate" -> deflate = q;
+                case "identity" -> identity = q;
+                case "*" -> wildcard = q;
+                default -> {
+                    // Codings we don't precompress (br, zstd, ...) are ignored
+                }
+            }
+        }
+
+        gzip = gzip >= 0 ? gzip : Math.max(wildcard, 0);
+        deflate = deflate >= 0 ? deflate : Math.max(wildcard, 0);
+        identity = identity >= 0 ? identity : (wildcard >= 0 ? wildcard : 1.0);
+
+        double best = Math.max(gzip, deflate);
+        if (best <= 0 || best < identity) {
+            return null;
+        }
+        return gzip >= deflate ? Precompressed.Coding.GZIP : Precompressed.Coding.DEFLATE;
+    }
+
+    private static double qValue(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            if (param.startsWith("q=") || param.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1.0;
+    }
+}
@@ -0,0 +1,199 @@
+package com.ig.tfl.api;
+
+import com.ig.tfl.cache.DateRangeCache;
+import com.ig.tfl.cache.DateRangeKey;
+import com.ig.tfl.cache.DayBuckets;
+import com.ig.tfl.client.TflApiClient;
+import com.ig.tfl.client.TflGateway;
+import com.ig.tfl.crdt.StatusSnapshotHolder;
+import com.ig.tfl.model.TubeStatus;
+import org.apache.pekko.actor.typed.ActorRef;
+import org.apache.pekko.actor.typed.ActorSystem;
+import org.apache.pekko.actor.typed.javadsl.AskPattern;
+import org.apache.pekko.http.javadsl.model.HttpResponse;
+import org.apache.pekko.http.javadsl.model.StatusCodes;
+import org.apache.pekko.http.javadsl.server.AllDirectives;
+import org.apache.pekko.http.javadsl.server.Route;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Historical (date-range) line status. Not snapshot-backed: answers come from
+ * the node's DateRangeCache, or from TflGateway on a miss, and are served
+ * without validators.
+ *
+ * Ranges of up to maxBucketedDays are cached per day (DayBuckets): a range
+ * overlapping ones already asked for only fetches the days it adds. Lines TfL
+ * does not know are answered 404 from the cache's negative entries until a
+ * live snapshot shows them.
+ */
+class DateRangeRoutes extends AllDirectives {
+    private static final Logger log = LoggerFactory.getLogger(DateRangeRoutes.class);
+
+    private final ActorSystem<?> system;
+    private final ActorRef<TflGateway.Command> tflGateway;
+    private final DateRangeCache cache;
+    private final StatusSnapshotHolder snapshots;
+    private final PayloadResponses responses;
+    private final Duration askTimeout;
+
+    DateRangeRoutes(
+            ActorSystem<?> system,
+            ActorRef<TflGateway.Command> tflGateway,
+            DateRangeCache cache,
+            StatusSnapshotHolder snapshots,
+            PayloadResponses responses,
+            Duration askTimeout) {
+        this.system = system;
+        this.tflGateway = tflGateway;
+        this.cache = cache;
+        this.snapshots = snapshots;
+        this.responses = responses;
+        this.askTimeout = askTimeout;
+        // Every line in a live snapshot exists: drop negative answers for it
+        snapshots.subscribe(snapshot -> cache.forgetMissing(
+                snapshot.status().lines().stream().map(TubeStatus.LineStatus::id).toList()));
+    }
+
+    /** GET /api/v1/tube/{lineId}/status/{from}/to/{to}, dates as YYYY-MM-DD. */
+    Route lineStatus(String lineId, String fromStr, String toStr) {
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = LocalDate.parse(fromStr, DateTimeFormatter.ISO_LOCAL_DATE);
+            to = LocalDate.parse(toStr, DateTimeFormatter.ISO_LOCAL_DATE);
+        } catch (DateTimeParseException e) {
+            return complete(JsonErrors.BAD_DATE);
+        }
+
+        if (from.isAfter(to)) {
+            return complete(JsonErrors.START_AFTER_END);
+        }
+
+        if (cache.isMissing(lineId)) {
+            if (!isLive(lineId)) {
+                return complete(notFound(lineId));
+            }
+            cache.forgetMissing(List.of(lineId));
+        }
+
+        DateRangeKey key = new DateRangeKey(lineId, from, to);
+        cache.recordDemand(key);
+        if (cache.bucketsByDay(from, to)) {
+            return byDay(lineId, from, to);
+        }
+
+        TubeStatus cached = cache.get(key);
+        if (cached != null) {
+            return serve(cached);
+        }
+
+        return onSuccess(fetch(key), response -> {
+            Route failed = failure(lineId, response);
+            if (failed != null) {
+                return failed;
+            }
+            cache.putFetched(key, response.status(), response.days());
+            return serve(response.status());
+        });
+    }
+
+    /**
+     * Serve from..to from per-day entries, fetching only the runs of missing
+     * days (one TfL call per run, in parallel) and merging the days back.
+     */
+    private Route byDay(String lineId, LocalDate from, LocalDate to) {
+        Map<LocalDate, TubeStatus> days = new TreeMap<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            TubeStatus cached = cache.get(DayBuckets.day(lineId, day));
+            if (cached != null) {
+                days.put(day, cached);
+            }
+        }
+        List<DateRangeKey> runs = DayBuckets.missingRuns(lineId, from, to, days::containsKey);
+        if (runs.isEmpty()) {
+            return serve(DayBuckets.merge(List.copyOf(days.values())));
+        }
+
+        List<CompletableFuture<TflGateway.FetchResponse>> fetches = runs.stream()
+                .map(run -> fetch(run).toCompletableFuture())
+                .toList();
+        CompletionStage<List<TflGateway.FetchResponse>> all = CompletableFuture
+                .allOf(fetches.toArray(CompletableFuture[]::new))
+                .thenApply(done -> fetches.stream().map(CompletableFuture::join).toList());
+
+        return onSuccess(all, responses -> {
+            for (int i = 0; i < runs.size(); i++) {
+                TflGateway.FetchResponse response = responses.get(i);
+                Route failed = failure(lineId, response);
+                if (failed != null) {
+                    return failed;
+                }
+                days.putAll(cache.putFetched(runs.get(i), response.status(), response.days()));
+            }
+            return serve(DayBuckets.merge(List.copyOf(days.values())));
+        });
+    }
+
+    private CompletionStage<TflGateway.FetchResponse> fetch(DateRangeKey key) {
+        return AskPattern.ask(
+                tflGateway,
+                ref -> new TflGateway.FetchLineWithDateRange(key.lineId(), key.from(), key.to(), ref),
+                askTimeout,
+                system.scheduler());
+    }
+
+    /**
+     * The error response for a failed or empty answer (not cached), or null if
+     * it can be served. TfL's 404 and an answer without lines both mean there is
+     * no such line: remembered in the negative cache unless the live snapshot
+     * has the line.
+     */
+    private Route failure(String lineId, TflGateway.FetchResponse response) {
+        boolean noSuchLine = response.error() != null
+                ? isNotFound(response.error())
+                : response.status() == null || response.status().lines().isEmpty();
+        if (noSuchLine) {
+            if (!isLive(lineId)) {
+                cache.putMissing(lineId);
+            }
+            return complete(notFound(lineId));
+        }
+        if (response.error() != null) {
+            log.warn("TfL fetch failed for date range query: {}", response.error().getMessage());
+            return complete(JsonErrors.TFL_UNAVAILABLE);
+        }
+        return null;
+    }
+
+    private boolean isLive(String lineId) {
+        TubeStatus current = snapshots.current();
+        return current != null && current.lines().stream().anyMatch(line -> lineId.equalsIgnoreCase(line.id()));
+    }
+
+    private static boolean isNotFound(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+        return cause instanceof TflApiClient.HttpStatusException httpError && httpError.getStatusCode() == 404;
+    }
+
+    private static HttpResponse notFound(String lineId) {
+        return JsonErrors.of(StatusCodes.NOT_FOUND, "No status found for line: " + lineId);
+    }
+
+    // Not snapshot-backed: TfL answer for a one-off range, no validators
+    private Route serve(TubeStatus status) {
+        return responses.completeWithoutValidators(JsonPayload.of(status.lines(), status.queriedAt()), List.of());
+    }
+}
@@ -0,0 +1,82 @@
+package com.ig.tfl.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ig.tfl.model.TubeStatus;
+
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A parsed ?fields= value: which LineStatus fields each line keeps.
+ *
+ * Paths are LineStatus fields (id, name, status, statusSeverityDescription,
+ * disruptions) or disruptions.&lt;field&gt; (category, description, isPlanned).
+ * "disruptions" on its own keeps whole disruptions. Fields are always written in
+ * model order, so "status,id" and "id,status" are the same FieldSet and share
+ * cached payloads.
+ */
+record FieldSet(Set<String> lineFields, Set<String> disruptionFields) {
+
+    private static final List<String> LINE_FIELDS = componentNames(TubeStatus.LineStatus.class);
+    private static final List<String> DISRUPTION_FIELDS = componentNames(TubeStatus.Disruption.class);
+    private static final String DISRUPTIONS = "disruptions";
+
+    /** Projections mobile clients use most; serialized once per snapshot. */
+    static final List<FieldSet> COMMON = List.of(
+            parse("id,status"),
+            parse("id,status,disruptions.category"));
+
+    /**
+     * Parse a comma-separated list of field paths.
+     *
+     * @throws IllegalArgumentException if the list is empty or names an unknown field
+     */
+    static FieldSet parse(String fields) {
+        Set<String> requested = new HashSet<>();
+        Set<String> requestedDisruptionFields = new HashSet<>();
+        for (String raw : fields.split(",")) {
+            String field = raw.trim();
+            if (field.isEmpty()) {
+                continue;
+            }
+            if (LINE_FIELDS.contains(field)) {
+                requested.add(field);
+                if (field.equals(DISRUPTIONS)) {
+                    requestedDisruptionFields.addAll(DISRUPTION_FIELDS);
+                }
+            } else if (field.startsWith(DISRUPTIONS + ".")
+                    && DISRUPTION_FIELDS.contains(field.substring(DISRUPTIONS.length() + 1))) {
+                requested.add(DISRUPTIONS);
+                requestedDisruptionFields.add(field.substring(DISRUPTIONS.length() + 1));
+            } else {
+                throw new IllegalArgumentException("Unknown field: " + field);
+            }
+        }
+        if (requested.isEmpty()) {
+            throw new IllegalArgumentException("fields must name at least one field");
+        }
+        return new FieldSet(Set.copyOf(requested), Set.copyOf(requestedDisruptionFields));
+    }
+
+    /**
+     * The line with only the selected fields, named as in the full serialization.
+     */
+    ObjectNode project(ObjectMapper objectMapper, TubeStatus.LineStatus line) {
+        ObjectNode full = objectMapper.valueToTree(line);
+        full.retain(lineFields);
+        JsonNode disruptions = full.get(DISRUPTIONS);
+        if (disruptions != null && disruptions.isArray()) {
+            disruptions.forEach(disruption -> ((ObjectNode) disruption).retain(disruptionFields));
+        }
+        return full;
+    }
+
+    private static List<String> componentNames(Class<? extends Record> type) {
+        return Arrays.stream(type.getRecordComponents()).map(RecordComponent::getName).toList();
+    }
+}
@@ -0,0 +1,69 @@
+package com.ig.tfl.api;
+
+import com.ig.tfl.observability.HealthSnapshot;
+import org.apache.pekko.http.javadsl.model.ContentTypes;
+import org.apache.pekko.http.javadsl.model.HttpEntities;
+import org.apache.pekko.http.javadsl.model.HttpResponse;
+import org.apache.pekko.http.javadsl.model.StatusCode;
+import org.apache.pekko.http.javadsl.model.StatusCodes;
+import org.apache.pekko.http.javadsl.server.AllDirectives;
+import org.apache.pekko.http.javadsl.server.Route;
+import org.apache.pekko.util.ByteString;
+
+/**
+ * Liveness and readiness probes under /api/health.
+ *
+ * Readiness reads the published HealthSnapshot (circuit state, data age) and
+ * never messages an actor, so a saturated replicator or gateway cannot make
+ * the probe time out.
+ */
+class HealthRoutes extends AllDirectives {
+
+    private final HealthSnapshot health;
+
+    HealthRoutes(HealthSnapshot health) {
+        this.health = health;
+    }
+
+    /** Matched inside /api. */
+    Route routes() {
+        return pathPrefix("health", () ->
+                concat(
+                        path("live", () ->
+                                get(() -> complete(StatusCodes.OK, "OK"))
+                        ),
+                        path("ready", () ->
+                                get(this::readinessCheck)
+                        )
+                )
+        );
+    }
+
+    private Route readinessCheck() {
+        HealthSnapshot.State state = health.current();
+
+        if (!state.hasData()) {
+            return json(StatusCodes.SERVICE_UNAVAILABLE, StatusJsonWriter.write(generator -> {
+                generator.writeStartObject();
+                generator.writeStringField("status", "warming_up");
+                generator.writeStringField("reason", "No cached data yet");
+                generator.writeStringField("circuit", state.circuit().name());
+                generator.writeEndObject();
+            }));
+        }
+
+        return json(StatusCodes.OK, StatusJsonWriter.write(generator -> {
+            generator.writeStartObject();
+            generator.writeStringField("status", "ready");
+            generator.writeStringField("circuit", state.circuit().name());
+            generator.writeNumberField("dataAgeMs", state.dataAgeMs());
+            generator.writeEndObject();
+        }));
+    }
+
+    private Route json(StatusCode status, ByteString body) {
+        return complete(HttpResponse.create()
+                .withStatus(status)
+                .withEntity(HttpEntities.create(ContentTypes.APPLICATION_JSON, body)));
+    }
+}
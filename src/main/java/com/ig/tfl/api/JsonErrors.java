@@ -0,0 +1,46 @@
+package com.ig.tfl.api;
+
+import org.apache.pekko.http.javadsl.model.ContentTypes;
+import org.apache.pekko.http.javadsl.model.HttpEntities;
+import org.apache.pekko.http.javadsl.model.HttpResponse;
+import org.apache.pekko.http.javadsl.model.StatusCode;
+import org.apache.pekko.http.javadsl.model.StatusCodes;
+
+/**
+ * {"error":"..."} responses. The fixed messages are encoded once at class load
+ * (HttpResponse is immutable, so one instance serves every request); messages
+ * that carry request input go through StatusJsonWriter.error(). All carry
+ * Cache-Control: no-store, so a shared cache never keeps an error (404 is
+ * otherwise heuristically cacheable).
+ */
+final class JsonErrors {
+
+    static final HttpResponse NO_DATA =
+            of(StatusCodes.SERVICE_UNAVAILABLE, "No data available");
+    static final HttpResponse INTERNAL_ERROR =
+            of(StatusCodes.INTERNAL_SERVER_ERROR, "Internal server error");
+    static final HttpResponse TOO_MANY_PARKED =
+            of(StatusCodes.SERVICE_UNAVAILABLE, "Too many parked requests");
+    static final HttpResponse EMPTY_LINES =
+            of(StatusCodes.BAD_REQUEST, "lines must name at least one line");
+    static final HttpResponse BAD_WAIT_MS =
+            of(StatusCodes.BAD_REQUEST, "waitMs must be a number of milliseconds");
+    static final HttpResponse BAD_SINCE =
+            of(StatusCodes.BAD_REQUEST, "since must be a version number");
+    static final HttpResponse BAD_DATE =
+            of(StatusCodes.BAD_REQUEST, "Invalid date format. Use YYYY-MM-DD");
+    static final HttpResponse START_AFTER_END =
+            of(StatusCodes.BAD_REQUEST, "Start date must be before or equal to end date");
+    static final HttpResponse TFL_UNAVAILABLE =
+            of(StatusCodes.SERVICE_UNAVAILABLE, "Failed to fetch from TfL");
+
+    private JsonErrors() {
+    }
+
+    static HttpResponse of(StatusCode status, String message) {
+        return HttpResponse.create()
+                .withStatus(status)
+                .addHeader(CacheHeaders.NO_STORE)
+                .withEntity(HttpEntities.create(ContentTypes.APPLICATION_JSON, StatusJsonWriter.error(message)));
+    }
+}
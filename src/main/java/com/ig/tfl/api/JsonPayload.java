@@ -0,0 +1,239 @@
+package com.ig.tfl.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ig.tfl.model.TubeStatus.LineStatus;
+import org.apache.pekko.http.javadsl.model.ContentTypes;
+import org.apache.pekko.http.javadsl.model.DateTime;
+import org.apache.pekko.http.javadsl.model.HttpEntities;
+import org.apache.pekko.http.javadsl.model.HttpEntity;
+import org.apache.pekko.http.javadsl.model.HttpHeader;
+import org.apache.pekko.http.javadsl.model.headers.EntityTag;
+import org.apache.pekko.http.javadsl.model.headers.RawHeader;
+import org.apache.pekko.util.ByteString;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * ApiResponse JSON, serialized once up to the per-request respondedAtUtc value.
+ *
+ * head = {"lines":[...],"meta":{"dataAsOfUtc":"...","respondedAtUtc":"
+ * Each response appends only the timestamp and the closing braces, so the
+ * lines are never re-serialized while the snapshot is unchanged.
+ *
+ * Validators identify the data, not the bytes: respondedAtUtc is response
+ * metadata, so two responses for the same snapshot share a strong ETag
+ * ("queriedAt-contentHash") and Last-Modified (queriedAt, truncated to seconds).
+ * Compressed variants get their own ETag ("...-gzip"), since a strong validator
+ * must change with the representation bytes.
+ *
+ * surrogateKey names the lines in the document (Surrogate-Key: tfl-status
+ * line-victoria ...), so a CDN can purge every cached response that shows a line.
+ *
+ * gzip and deflate are null until withCompressedVariants() builds them; binary
+ * (CBOR, Smile, MessagePack, Protobuf) is empty until withBinaryVariants(), and formats
+ * missing from it are encoded on demand.
+ */
+record JsonPayload(
+        ByteString head,
+        String tag,
+        DateTime lastModified,
+        HttpHeader surrogateKey,
+        Precompressed gzip,
+        Precompressed deflate,
+        Map<BinaryFormat, BinaryPayload> binary) {
+
+    private static final SerializedString LINES_FIELD = new SerializedString("{\"lines\":");
+    private static final SerializedString DATA_AS_OF_FIELD = new SerializedString(",\"meta\":{\"dataAsOfUtc\":\"");
+    private static final SerializedString RESPONDED_AT_FIELD = new SerializedString("\",\"respondedAtUtc\":\"");
+    private static final String TAIL = "\"}}";
+
+    /**
+     * Write lines and dataAsOfUtc into a reusable head with StatusJsonWriter
+     * (the same bytes the Jackson marshaller would produce). The whole head is
+     * one StatusJsonWriter document, so its only copy is the exact-size one.
+     */
+    static JsonPayload of(List<LineStatus> lines, Instant dataAsOfUtc) {
+        ByteString head = StatusJsonWriter.write(generator -> {
+            generator.writeRaw(LINES_FIELD);
+            StatusJsonWriter.writeLines(generator, lines);
+            writeMetaPrefix(generator, dataAsOfUtc);
+        });
+        return payload(head, lines, lines, dataAsOfUtc);
+    }
+
+    /**
+     * Same document for projections (?fields=) of lines, serialized with the
+     * given mapper (same settings as the Jackson marshaller).
+     */
+    static JsonPayload ofProjected(ObjectMapper objectMapper, List<LineStatus> lines, List<?> projected,
+                                   Instant dataAsOfUtc) {
+        ByteString head = StatusJsonWriter.write(generator -> {
+            generator.writeRaw(LINES_FIELD);
+            objectMapper.writeValue(generator, projected);
+            writeMetaPrefix(generator, dataAsOfUtc);
+        });
+        return payload(head, projected, lines, dataAsOfUtc);
+    }
+
+    /**
+     * Same document as of(), with each line's JSON taken from already serialized
+     * fragments (one per line, in order) instead of serializing the lines again.
+     */
+    static JsonPayload ofFragments(List<LineStatus> lines, List<ByteString> fragments, Instant dataAsOfUtc) {
+        ByteString head = StatusJsonWriter.write(generator -> {
+            generator.writeRaw(LINES_FIELD);
+            generator.writeRaw('[');
+            for (int i = 0; i < fragments.size(); i++) {
+                if (i > 0) {
+                    generator.writeRaw(',');
+                }
+                StatusJsonWriter.writeRaw(generator, fragments.get(i));
+            }
+            generator.writeRaw(']');
+            writeMetaPrefix(generator, dataAsOfUtc);
+        });
+        return payload(head, lines, lines, dataAsOfUtc);
+    }
+
+    /** Everything after the lines, up to the per-request respondedAtUtc value. */
+    private static void writeMetaPrefix(JsonGenerator generator, Instant dataAsOfUtc) throws IOException {
+        generator.writeRaw(DATA_AS_OF_FIELD);
+        generator.writeRaw(dataAsOfUtc.toString());
+        generator.writeRaw(RESPONDED_AT_FIELD);
+    }
+
+    /** content = what was serialized (hashed into the ETag); lines = the lines it shows. */
+    private static JsonPayload payload(ByteString head, List<?> content, List<LineStatus> lines,
+                                       Instant dataAsOfUtc) {
+        return new JsonPayload(
+                head,
+                entityTag(dataAsOfUtc, content),
+                DateTime.create(dataAsOfUtc.getEpochSecond() * 1000),
+                surrogateKey(lines),
+                null,
+                null,
+                Map.of());
+    }
+
+    /**
+     * Same payload with gzip and deflate copies of the head. Done once per
+     * snapshot for cached payloads; one-off payloads are served as identity.
+     */
+    JsonPayload withCompressedVariants() {
+        byte[] plain = head.toArray();
+        return new JsonPayload(head, tag, lastModified, surrogateKey,
+                Precompressed.of(Precompressed.Coding.GZIP, plain),
+                Precompressed.of(Precompressed.Coding.DEFLATE, plain),
+                binary);
+    }
+
+    /**
+     * Same payload with every BinaryFormat encoded up front. Done once per
+     * snapshot for cached payloads.
+     */
+    JsonPayload withBinaryVariants() {
+        Map<BinaryFormat, BinaryPayload> encoded = new EnumMap<>(BinaryFormat.class);
+        for (BinaryFormat format : BinaryFormat.values()) {
+            encoded.put(format, encodeAs(format));
+        }
+        return new JsonPayload(head, tag, lastModified, surrogateKey, gzip, deflate,
+                Collections.unmodifiableMap(encoded));
+    }
+
+    /**
+     * This document in the given binary format: precomputed if available, else encoded now.
+     */
+    BinaryPayload binary(BinaryFormat format) {
+        BinaryPayload payload = binary.get(format);
+        return payload != null ? payload : encodeAs(format);
+    }
+
+    private BinaryPayload encodeAs(BinaryFormat format) {
+        return BinaryPayload.of(format, head.utf8String() + BinaryPayload.SENTINEL + TAIL);
+    }
+
+    /**
+     * Precompressed variant for the coding, or null if this payload has none
+     * (in which case the response is sent as identity).
+     */
+    Precompressed variant(Precompressed.Coding coding) {
+        if (coding == null) {
+            return null;
+        }
+        return coding == Precompressed.Coding.GZIP ? gzip : deflate;
+    }
+
+    EntityTag etag() {
+        return EntityTag.create(tag, false);
+    }
+
+    /** ETag of the representation sent with the given variant (null = identity). */
+    EntityTag etag(Precompressed variant) {
+        if (variant == null) {
+            return etag();
+        }
+        return EntityTag.create(tag + "-" + variant.coding().name().toLowerCase(Locale.ROOT), false);
+    }
+
+    /** ETag of the representation sent in the given binary format. */
+    EntityTag etag(BinaryFormat format) {
+        return EntityTag.create(tag + "-" + format.tagSuffix(), false);
+    }
+
+    /**
+     * Complete JSON body for a response generated at respondedAtUtc.
+     * Instant.toString() is ISO_INSTANT, the same format Jackson writes.
+     */
+    HttpEntity.Strict toEntity(Instant respondedAtUtc) {
+        return HttpEntities.create(ContentTypes.APPLICATION_JSON,
+                head.concat(ByteString.fromString(respondedAtUtc + TAIL)));
+    }
+
+    /**
+     * Complete JSON document as a string, for transports that frame text
+     * themselves (SSE data, WebSocket text messages).
+     */
+    String toJson(Instant respondedAtUtc) {
+        return head.utf8String() + respondedAtUtc + TAIL;
+    }
+
+    /**
+     * Body encoded with the given variant (null = identity). The caller adds
+     * the matching Content-Encoding header.
+     */
+    HttpEntity.Strict toEntity(Instant respondedAtUtc, Precompressed variant) {
+        if (variant == null) {
+            return toEntity(respondedAtUtc);
+        }
+        byte[] tail = variant.tail((respondedAtUtc + TAIL).getBytes(StandardCharsets.UTF_8));
+        return HttpEntities.create(ContentTypes.APPLICATION_JSON,
+                ByteString.fromArrayUnsafe(variant.head()).concat(ByteString.fromArrayUnsafe(tail)));
+    }
+
+    /** Payload size without the per-request tail. */
+    int size() {
+        return head.size();
+    }
+
+    private static String entityTag(Instant dataAsOfUtc, List<?> lines) {
+        return Long.toHexString(dataAsOfUtc.toEpochMilli())
+                + "-" + Integer.toHexString(lines.hashCode());
+    }
+
+    private static HttpHeader surrogateKey(List<LineStatus> lines) {
+        StringBuilder keys = new StringBuilder("tfl-status");
+        for (LineStatus line : lines) {
+            keys.append(" line-").append(line.id().toLowerCase(Locale.ROOT));
+        }
+        return RawHeader.create("Surrogate-Key", keys.toString());
+    }
+}
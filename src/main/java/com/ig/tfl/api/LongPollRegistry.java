@@ -0,0 +1,133 @@
+package com.ig.tfl.api;
+
+import com.ig.tfl.model.StatusSnapshot;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Parked long-poll requests, waiting for the next published snapshot.
+ *
+ * A hashed timer wheel: one slot per tick, covering maxWait, so the only timer
+ * is the fixed-rate tick() that expires one slot at a time. A parked request
+ * costs one list entry; timeouts are accurate to one tick.
+ *
+ * release() swaps out every slot under the lock and completes the whole batch
+ * in one task on the executor, so the publisher (the replicator's thread) only
+ * pays for the swap. Capacity is bounded: park() refuses once maxParked
+ * requests are waiting.
+ *
+ * park() compares the caller's snapshot with the last one released under the
+ * same lock, so a snapshot published after the caller looked is never missed,
+ * and a request answered that way never takes a slot.
+ */
+final class LongPollRegistry {
+
+    private final long tickMs;
+    private final int maxParked;
+    private final Executor executor;
+
+    // Guarded by this
+    private List<CompletableFuture<StatusSnapshot>>[] slots;
+    private int cursor;
+    private int parked;
+    private StatusSnapshot latest;
+
+    LongPollRegistry(Duration tick, Duration maxWait, int maxParked, Executor executor) {
+        this.tickMs = Math.max(1, tick.toMillis());
+        this.maxParked = maxParked;
+        this.executor = executor;
+        // Deadlines are at most maxWait ahead, so they never wrap past the cursor
+        this.slots = newSlots((int) ((maxWait.toMillis() + tickMs - 1) / tickMs) + 1);
+    }
+
+    /**
+     * Park a request for up to waitMs from a caller that last saw the snapshot
+     * seen (null if none). If a different snapshot has been released since, the
+     * future is already completed with it and nothing is parked. Otherwise it
+     * completes with the next released snapshot, or with null on timeout.
+     * Returns null if the registry is full.
+     */
+    synchronized CompletableFuture<StatusSnapshot> park(long waitMs, StatusSnapshot seen) {
+        if (latest != null && latest != seen) {
+            return CompletableFuture.completedFuture(latest);
+        }
+        if (parked >= maxParked) {
+            return null;
+        }
+        long ticks = Math.min(slots.length - 1, Math.max(1, (waitMs + tickMs - 1) / tickMs));
+        CompletableFuture<StatusSnapshot> future = new CompletableFuture<>();
+        slots[(int) ((cursor + ticks) % slots.length)].add(future);
+        parked++;
+        return future;
+    }
+
+    /**
+     * Complete every parked request with the snapshot, as one batch.
+     */
+    void release(StatusSnapshot snapshot) {
+        List<CompletableFuture<StatusSnapshot>>[] released;
+        synchronized (this) {
+            latest = snapshot;
+            if (parked == 0) {
+                return;
+            }
+            released = slots;
+            slots = newSlots(released.length);
+            parked = 0;
+        }
+        executor.execute(() -> {
+            for (List<CompletableFuture<StatusSnapshot>> slot : released) {
+                slot.forEach(future -> future.complete(snapshot));
+            }
+        });
+    }
+
+    /**
+     * Advance the wheel by one tick, timing out the requests due in the new slot.
+     */
+    void tick() {
+        List<CompletableFuture<StatusSnapshot>> expired;
+        synchronized (this) {
+            cursor = (cursor + 1) % slots.length;
+            expired = slots[cursor];
+            if (expired.isEmpty()) {
+                return;
+            }
+            slots[cursor] = new ArrayList<>();
+            parked -= expired.size();
+        }
+        expired.forEach(future -> future.complete(null));
+    }
+
+    /**
+     * Time out every parked request now (on shutdown).
+     */
+    void expireAll() {
+        List<CompletableFuture<StatusSnapshot>>[] expired;
+        synchronized (this) {
+            expired = slots;
+            slots = newSlots(expired.length);
+            parked = 0;
+        }
+        for (List<CompletableFuture<StatusSnapshot>> slot : expired) {
+            slot.forEach(future -> future.complete(null));
+        }
+    }
+
+    synchronized int parked() {
+        return parked;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<CompletableFuture<StatusSnapshot>>[] newSlots(int size) {
+        List<CompletableFuture<StatusSnapshot>>[] slots = new List[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new ArrayList<>();
+        }
+        return slots;
+    }
+}
@@ -0,0 +1,182 @@
+package com.ig.tfl.api;
+
+import com.ig.tfl.crdt.StatusSnapshotHolder;
+import com.ig.tfl.model.StatusSnapshot;
+import com.ig.tfl.observability.Metrics;
+import org.apache.pekko.actor.Cancellable;
+import org.apache.pekko.actor.typed.ActorSystem;
+import org.apache.pekko.http.javadsl.model.HttpResponse;
+import org.apache.pekko.http.javadsl.model.StatusCodes;
+import org.apache.pekko.http.javadsl.model.headers.RetryAfter;
+import org.apache.pekko.http.javadsl.server.AllDirectives;
+import org.apache.pekko.http.javadsl.server.Route;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Long-poll variant of the status endpoint, for clients that can't use SSE or WebSockets.
+ *
+ * GET /api/v1/tube/status?newerThan=...&waitMs=20000
+ *
+ * newerThan is the queriedAt the client already has (epoch millis or ISO-8601)
+ * or the ETag of its last response. If the current snapshot is already newer it
+ * is returned at once; otherwise the request is parked in a LongPollRegistry
+ * until the replicator publishes a snapshot newer than newerThan (200, same body
+ * and validators as /status) or waitMs elapses (304, no body). A published
+ * snapshot that is still not newer (the token came from a peer ahead of this
+ * node) parks the request again for the rest of its wait. waitMs defaults to
+ * and is capped at tfl.long-poll.max-wait. A full registry answers 503 with
+ * Retry-After.
+ */
+class LongPollRoutes extends AllDirectives {
+
+    private static final HttpResponse NOT_MODIFIED = HttpResponse.create().withStatus(StatusCodes.NOT_MODIFIED);
+
+    private final StatusSnapshotHolder snapshots;
+    private final StatusPayloadCache payloads;
+    private final PayloadResponses responses;
+    private final LongPollRegistry registry;
+    private final long maxWaitMs;
+    private final Consumer<StatusSnapshot> release;
+    private final Cancellable ticks;
+
+    LongPollRoutes(
+            ActorSystem<?> system,
+            StatusSnapshotHolder snapshots,
+            StatusPayloadCache payloads,
+            PayloadResponses responses,
+            Metrics metrics,
+            TubeStatusRoutes.RoutesConfig config) {
+        this.snapshots = snapshots;
+        this.payloads = payloads;
+        this.responses = responses;
+        this.maxWaitMs = config.longPollMaxWait().toMillis();
+        this.registry = new LongPollRegistry(config.longPollTick(), config.longPollMaxWait(),
+                config.longPollMaxParked(), system.executionContext());
+
+        this.release = registry::release;
+        snapshots.subscribe(release);
+        // One timer for all parked requests
+        this.ticks = system.scheduler().scheduleAtFixedRate(config.longPollTick(), config.longPollTick(),
+                registry::tick, system.executionContext());
+        metrics.registerStreamSubscribers("long-poll", registry::parked);
+    }
+
+    /** Stop the timer and stop listening for snapshots; parked requests get 304. */
+    void close() {
+        ticks.cancel();
+        snapshots.unsubscribe(release);
+        registry.expireAll();
+    }
+
+    /**
+     * Matched inside /api/v1/tube, ahead of the plain status route: requests
+     * without newerThan are rejected here and fall through to it. Nothing here
+     * is cacheable: a stored answer would end the next poll at once.
+     */
+    Route route() {
+        return path("status", () ->
+                get(() -> parameter("newerThan", newerThan ->
+                        parameterOptional("waitMs", waitMs ->
+                                respondWithDefaultHeader(CacheHeaders.NO_STORE, () -> longPoll(newerThan, waitMs))))));
+    }
+
+    private Route longPoll(String newerThan, Optional<String> waitMsParam) {
+        long waitMs;
+        try {
+            waitMs = waitMsParam.map(Long::parseLong).orElse(maxWaitMs);
+        } catch (NumberFormatException e) {
+            return complete(JsonErrors.BAD_WAIT_MS);
+        }
+        waitMs = Math.max(0, Math.min(waitMs, maxWaitMs));
+
+        StatusSnapshot current = snapshots.snapshot();
+        if (current != null && isNewer(current, newerThan)) {
+            return respond(current);
+        }
+        if (waitMs == 0) {
+            return complete(NOT_MODIFIED);
+        }
+
+        CompletableFuture<StatusSnapshot> parked = registry.park(waitMs, current);
+        if (parked == null) {
+            return respondWithHeader(RetryAfter.create(1L), () ->
+                    complete(JsonErrors.TOO_MANY_PARKED));
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMs);
+        return onSuccess(untilNewer(parked, newerThan, deadline), released ->
+                released != null ? respond(released) : complete(NOT_MODIFIED));
+    }
+
+    /**
+     * The first released snapshot newer than newerThan, parking again after one
+     * that is not; null once the deadline passes (or the registry is full).
+     */
+    private CompletionStage<StatusSnapshot> untilNewer(
+            CompletableFuture<StatusSnapshot> parked, String newerThan, long deadline) {
+        return parked.thenCompose(released -> {
+            if (released == null || isNewer(released, newerThan)) {
+                return CompletableFuture.completedFuture(released);
+            }
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            CompletableFuture<StatusSnapshot> again = remainingMs > 0 ? registry.park(remainingMs, released) : null;
+            return again == null
+                    ? CompletableFuture.completedFuture(null)
+                    : untilNewer(again, newerThan, deadline);
+        });
+    }
+
+    private boolean isNewer(StatusSnapshot snapshot, String newerThan) {
+        return isNewer(snapshot.status().queriedAt(), payloads.allLines(snapshot.status()).tag(), newerThan);
+    }
+
+    /**
+     * Whether a snapshot (queriedAt, ETag tag) is newer than the client's newerThan token.
+     * Timestamps compare by time; any other token is taken as an ETag and compared
+     * by identity, ignoring weakness, quotes and the content-coding or format suffix.
+     */
+    static boolean isNewer(Instant queriedAt, String tag, String newerThan) {
+        String token = newerThan.trim();
+        try {
+            return queriedAt.toEpochMilli() > Long.parseLong(token);
+        } catch (NumberFormatException notMillis) {
+            try {
+                return queriedAt.isAfter(Instant.parse(token));
+            } catch (DateTimeParseException notInstant) {
+                return !tag.equals(stripEtag(token));
+            }
+        }
+    }
+
+    private static String stripEtag(String etag) {
+        String tag = etag.startsWith("W/") ? etag.substring(2) : etag;
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        for (Precompressed.Coding coding : Precompressed.Coding.values()) {
+            String suffix = "-" + coding.name().toLowerCase(Locale.ROOT);
+            if (tag.endsWith(suffix)) {
+                return tag.substring(0, tag.length() - suffix.length());
+            }
+        }
+        for (BinaryFormat format : BinaryFormat.values()) {
+            String suffix = "-" + format.tagSuffix();
+            if (tag.endsWith(suffix)) {
+                return tag.substring(0, tag.length() - suffix.length());
+            }
+        }
+        return tag;
+    }
+
+    private Route respond(StatusSnapshot snapshot) {
+        return responses.completeWithValidators(payloads.allLines(snapshot.status()));
+    }
+}
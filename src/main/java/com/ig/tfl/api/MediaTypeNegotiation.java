@@ -0,0 +1,83 @@
+package com.ig.tfl.api;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Picks the response format for status payloads from an Accept header.
+ *
+ * Each candidate (JSON and the BinaryFormats) takes the q-value of the most
+ * specific media range matching it (exact, then application/*, then *&#47;*).
+ * A binary format is chosen only when it is strictly preferred over JSON, so
+ * browsers and generic clients sending *&#47;* keep getting JSON. A header that
+ * accepts nothing we offer also gets JSON rather than a 406.
+ */
+final class MediaTypeNegotiation {
+
+    private static final String JSON = "application/json";
+
+    private MediaTypeNegotiation() {}
+
+    /**
+     * Best binary format for the header, or null to send JSON.
+     */
+    static BinaryFormat select(Optional<String> accept) {
+        if (accept.isEmpty() || accept.get().isBlank()) {
+            return null;
+        }
+        String[] ranges = accept.get().split(",");
+
+        double json = quality(ranges, null);
+        BinaryFormat best = null;
+        double bestQ = 0;
+        for (BinaryFormat format : BinaryFormat.values()) {
+            double q = quality(ranges, format);
+            if (q > bestQ) {
+                best = format;
+                bestQ = q;
+            }
+        }
+        return best != null && bestQ > json ? best : null;
+    }
+
+    /** q-value for the format (null = JSON): from its most specific matching range, 0 if none. */
+    private static double quality(String[] ranges, BinaryFormat format) {
+        int bestSpecificity = 0;
+        double q = 0;
+        for (String range : ranges) {
+            String[] parts = range.split(";");
+            String mediaRange = parts[0].trim().toLowerCase(Locale.ROOT);
+            int specificity = specificity(mediaRange, format);
+            if (specificity > bestSpecificity) {
+                bestSpecificity = specificity;
+                q = qValue(parts);
+            }
+        }
+        return q;
+    }
+
+    private static int specificity(String mediaRange, BinaryFormat format) {
+        boolean exact = format == null ? mediaRange.equals(JSON) : format.matches(mediaRange);
+        if (exact) {
+            return 3;
+        }
+        if (mediaRange.equals("application/*")) {
+            return 2;
+        }
+        return mediaRange.equals("*/*") ? 1 : 0;
+    }
+
+    private static double qValue(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            if (param.startsWith("q=") || param.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1.0;
+    }
+}
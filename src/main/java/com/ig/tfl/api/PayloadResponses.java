@@ -0,0 +1,87 @@
+package com.ig.tfl.api;
+
+import org.apache.pekko.http.javadsl.model.HttpHeader;
+import org.apache.pekko.http.javadsl.model.HttpResponse;
+import org.apache.pekko.http.javadsl.model.StatusCodes;
+import org.apache.pekko.http.javadsl.model.headers.ContentEncoding;
+import org.apache.pekko.http.javadsl.model.headers.HttpEncodings;
+import org.apache.pekko.http.javadsl.model.headers.RawHeader;
+import org.apache.pekko.http.javadsl.server.AllDirectives;
+import org.apache.pekko.http.javadsl.server.Route;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Completes routes with pre-serialized JsonPayloads.
+ *
+ * Picks the format from Accept (JSON, or a precomputed BinaryFormat) and, for
+ * JSON, the precompressed variant from Accept-Encoding. Then answers either
+ * conditionally (snapshot-backed data, 304 on matching validators) or with a
+ * plain 200. Both add Vary: Accept, Accept-Encoding, since the body depends on them,
+ * and the payload's Surrogate-Key for CDN purges.
+ */
+class PayloadResponses extends AllDirectives {
+
+    private static final HttpHeader VARY = RawHeader.create("Vary", "Accept, Accept-Encoding");
+    private static final HttpHeader GZIP = ContentEncoding.create(HttpEncodings.GZIP);
+    private static final HttpHeader DEFLATE = ContentEncoding.create(HttpEncodings.DEFLATE);
+
+    /**
+     * Complete with a snapshot-backed payload, answering 304 Not Modified
+     * (no body, nothing serialized) when If-None-Match / If-Modified-Since match it.
+     * Pekko's conditional directive also adds ETag and Last-Modified to 200 responses.
+     */
+    Route completeWithValidators(JsonPayload payload) {
+        return negotiated(payload,
+                variant -> conditional(payload.etag(variant), payload.lastModified(),
+                        () -> complete(response(payload, variant, List.of()))),
+                format -> conditional(payload.etag(format), payload.lastModified(),
+                        () -> complete(binaryResponse(payload, format, List.of()))));
+    }
+
+    /**
+     * Complete with a 200 and no validators (stale answers, one-off TfL results).
+     */
+    Route completeWithoutValidators(JsonPayload payload, List<HttpHeader> headers) {
+        return negotiated(payload,
+                variant -> complete(response(payload, variant, headers)),
+                format -> complete(binaryResponse(payload, format, headers)));
+    }
+
+    private Route negotiated(JsonPayload payload, Function<Precompressed, Route> json,
+                             Function<BinaryFormat, Route> binary) {
+        return optionalHeaderValueByName("Accept", accept ->
+                optionalHeaderValueByName("Accept-Encoding", acceptEncoding -> {
+                    BinaryFormat format = MediaTypeNegotiation.select(accept);
+                    List<HttpHeader> headers = List.of(VARY, payload.surrogateKey());
+                    if (format != null) {
+                        // Binary encodings are already compact; sent as identity
+                        return respondWithHeaders(headers, () -> binary.apply(format));
+                    }
+                    Precompressed variant = payload.variant(ContentCodingNegotiation.select(acceptEncoding));
+                    return respondWithHeaders(headers, () -> json.apply(variant));
+                }));
+    }
+
+    private static HttpResponse response(JsonPayload payload, Precompressed variant,
+                                         List<HttpHeader> headers) {
+        HttpResponse response = HttpResponse.create()
+                .withStatus(StatusCodes.OK)
+                .withEntity(payload.toEntity(Instant.now(), variant))
+                .addHeaders(headers);
+        if (variant != null) {
+            response = response.addHeader(variant.coding() == Precompressed.Coding.GZIP ? GZIP : DEFLATE);
+        }
+        return response;
+    }
+
+    private static HttpResponse binaryResponse(JsonPayload payload, BinaryFormat format,
+                                               List<HttpHeader> headers) {
+        return HttpResponse.create()
+                .withStatus(StatusCodes.OK)
+                .withEntity(payload.binary(format).toEntity(Instant.now()))
+                .addHeaders(headers);
+    }
+}
@@ -0,0 +1,163 @@
+package com.ig.tfl.api;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Gzip or zlib ("deflate" content-coding) stream for a payload whose last few
+ * bytes change on every response.
+ *
+ * The shared head is compressed once and flushed to a byte boundary (SYNC_FLUSH).
+ * Each response then appends the per-request tail as a stored (uncompressed)
+ * final deflate block, followed by the trailer checksum continued from the
+ * head's checksum. The result is a single valid gzip/zlib stream, and the
+ * per-request cost is copying ~30 bytes.
+ */
+final class Precompressed {
+
+    /** Supported content codings. */
+    enum Coding { GZIP, DEFLATE }
+
+    // ID1 ID2 CM=deflate FLG=0 MTIME=0 XFL=0 OS=unknown
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    // CMF=deflate/32K window, FLG=max compression (checksum-valid: 0x78DA % 31 == 0)
+    private static final byte[] ZLIB_HEADER = {0x78, (byte) 0xda};
+
+    private static final int MAX_STORED_BLOCK = 0xffff;
+    private static final int ADLER_MOD = 65521;
+    private static final int[] CRC_TABLE = crcTable();
+
+    private final Coding coding;
+    private final byte[] compressedHead;
+    private final int headChecksum;   // CRC-32 (gzip) or Adler-32 (zlib) of the plain head
+    private final int headLength;
+
+    private Precompressed(Coding coding, byte[] compressedHead, int headChecksum, int headLength) {
+        this.coding = coding;
+        this.compressedHead = compressedHead;
+        this.headChecksum = headChecksum;
+        this.headLength = headLength;
+    }
+
+    /**
+     * Compress the shared head of a payload.
+     */
+    static Precompressed of(Coding coding, byte[] plainHead) {
+        var out = new ByteArrayOutputStream(plainHead.length / 4 + 64);
+        out.writeBytes(coding == Coding.GZIP ? GZIP_HEADER : ZLIB_HEADER);
+
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        try {
+            deflater.setInput(plainHead);
+            byte[] buffer = new byte[8192];
+            int written;
+            do {
+                written = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                out.write(buffer, 0, written);
+            } while (written == buffer.length);
+        } finally {
+            deflater.end();
+        }
+
+        int checksum;
+        if (coding == Coding.GZIP) {
+            var crc = new CRC32();
+            crc.update(plainHead);
+            checksum = (int) crc.getValue();
+        } else {
+            var adler = new Adler32();
+            adler.update(plainHead);
+            checksum = (int) adler.getValue();
+        }
+        return new Precompressed(coding, out.toByteArray(), checksum, plainHead.length);
+    }
+
+    Coding coding() {
+        return coding;
+    }
+
+    /**
+     * Compressed bytes sent before the tail: stream header plus the flushed head.
+     * Callers must not modify the returned array.
+     */
+    byte[] head() {
+        return compressedHead;
+    }
+
+    /**
+     * Stored final block carrying plainTail, followed by the stream trailer.
+     */
+    byte[] tail(byte[] plainTail) {
+        int len = plainTail.length;
+        if (len > MAX_STORED_BLOCK) {
+            throw new IllegalArgumentException("Tail too long for a single stored block: " + len);
+        }
+        int trailerLength = coding == Coding.GZIP ? 8 : 4;
+        byte[] out = new byte[5 + len + trailerLength];
+
+        // BFINAL=1, BTYPE=00 (stored), then LEN and NLEN little-endian
+        out[0] = 1;
+        out[1] = (byte) len;
+        out[2] = (byte) (len >>> 8);
+        out[3] = (byte) ~len;
+        out[4] = (byte) (~len >>> 8);
+        System.arraycopy(plainTail, 0, out, 5, len);
+
+        int pos = 5 + len;
+        if (coding == Coding.GZIP) {
+            writeIntLittleEndian(out, pos, continueCrc32(headChecksum, plainTail));
+            writeIntLittleEndian(out, pos + 4, headLength + len);  // ISIZE mod 2^32
+        } else {
+            int adler = continueAdler32(headChecksum, plainTail);
+            out[pos] = (byte) (adler >>> 24);
+            out[pos + 1] = (byte) (adler >>> 16);
+            out[pos + 2] = (byte) (adler >>> 8);
+            out[pos + 3] = (byte) adler;
+        }
+        return out;
+    }
+
+    /** Compressed size for a tail of the given length. */
+    int size(int plainTailLength) {
+        return compressedHead.length + 5 + plainTailLength + (coding == Coding.GZIP ? 8 : 4);
+    }
+
+    private static int continueCrc32(int crc, byte[] data) {
+        int c = ~crc;
+        for (byte b : data) {
+            c = CRC_TABLE[(c ^ b) & 0xff] ^ (c >>> 8);
+        }
+        return ~c;
+    }
+
+    private static int continueAdler32(int adler, byte[] data) {
+        int a = adler & 0xffff;
+        int b = adler >>> 16;
+        for (byte value : data) {
+            a = (a + (value & 0xff)) % ADLER_MOD;
+            b = (b + a) % ADLER_MOD;
+        }
+        return (b << 16) | a;
+    }
+
+    private static void writeIntLittleEndian(byte[] out, int pos, int value) {
+        out[pos] = (byte) value;
+        out[pos + 1] = (byte) (value >>> 8);
+        out[pos + 2] = (byte) (value >>> 16);
+        out[pos + 3] = (byte) (value >>> 24);
+    }
+
+    private static int[] crcTable() {
+        int[] table = new int[256];
+        for (int n = 0; n < 256; n++) {
+            int c = n;
+            for (int k = 0; k < 8; k++) {
+                c = (c & 1) != 0 ? 0xedb88320 ^ (c >>> 1) : c >>> 1;
+            }
+            table[n] = c;
+        }
+        return table;
+    }
+}
@@ -0,0 +1,77 @@
+package com.ig.tfl.api;
+
+import com.ig.tfl.crdt.StatusSnapshotHolder;
+import com.ig.tfl.model.StatusSnapshot;
+import org.apache.pekko.NotUsed;
+import org.apache.pekko.actor.typed.ActorSystem;
+import org.apache.pekko.japi.Pair;
+import org.apache.pekko.stream.BoundedSourceQueue;
+import org.apache.pekko.stream.OverflowStrategy;
+import org.apache.pekko.stream.QueueOfferResult;
+import org.apache.pekko.stream.javadsl.BroadcastHub;
+import org.apache.pekko.stream.javadsl.Keep;
+import org.apache.pekko.stream.javadsl.Sink;
+import org.apache.pekko.stream.javadsl.Source;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.Function;
+
+/**
+ * Fans published snapshots out to streaming clients (SSE, WebSocket).
+ *
+ * Each snapshot is mapped to the element type T once, in the holder's listener,
+ * so whatever encoding a transport needs happens once per change rather than
+ * once per subscriber. One BroadcastHub is fed through a bounded,
+ * non-blocking queue, so the replicator never waits on subscribers. Each
+ * subscriber gets its own small buffer that fails the subscription when it
+ * overflows: a slow consumer is disconnected rather than holding back the
+ * hub (BroadcastHub moves at the pace of its slowest consumer) or buffering
+ * without limit. Idle subscribers cost only their materialized stages.
+ */
+final class SnapshotBroadcast<T> {
+    private static final Logger log = LoggerFactory.getLogger(SnapshotBroadcast.class);
+
+    // Snapshots arrive a few times a minute at most; these only absorb bursts
+    private static final int QUEUE_SIZE = 16;
+    private static final int HUB_BUFFER = 16;  // must be a power of two
+
+    private final Source<T, NotUsed> hub;
+    private final int subscriberBuffer;
+
+    SnapshotBroadcast(
+            ActorSystem<?> system,
+            StatusSnapshotHolder snapshots,
+            Class<T> elementType,
+            Function<StatusSnapshot, T> encode,
+            int subscriberBuffer) {
+        this.subscriberBuffer = subscriberBuffer;
+
+        Pair<BoundedSourceQueue<T>, Source<T, NotUsed>> materialized =
+                Source.<T>queue(QUEUE_SIZE)
+                        .toMat(BroadcastHub.of(elementType, HUB_BUFFER), Keep.both())
+                        .run(system);
+        this.hub = materialized.second();
+
+        // Without consumers the hub backpressures; keep it draining so the
+        // first subscriber doesn't receive a backlog of old snapshots
+        hub.runWith(Sink.ignore(), system);
+
+        BoundedSourceQueue<T> queue = materialized.first();
+        snapshots.subscribe(snapshot -> {
+            QueueOfferResult result = queue.offer(encode.apply(snapshot));
+            if (result != QueueOfferResult.enqueued()) {
+                log.warn("Snapshot broadcast did not accept snapshot {}: {}",
+                        snapshot.status().queriedAt(), result);
+            }
+        });
+    }
+
+    /**
+     * Elements for snapshots published from now on. Fails with BufferOverflowException
+     * if the subscriber falls more than subscriberBuffer snapshots behind.
+     */
+    Source<T, NotUsed> subscribe() {
+        return hub.buffer(subscriberBuffer, OverflowStrategy.fail());
+    }
+}
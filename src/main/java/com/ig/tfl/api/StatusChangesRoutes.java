@@ -0,0 +1,57 @@
+package com.ig.tfl.api;
+
+import com.ig.tfl.crdt.LineChangeHistory;
+import com.ig.tfl.crdt.StatusSnapshotHolder;
+import com.ig.tfl.model.StatusSnapshot;
+import org.apache.pekko.http.javadsl.model.ContentTypes;
+import org.apache.pekko.http.javadsl.model.HttpEntities;
+import org.apache.pekko.http.javadsl.model.HttpResponse;
+import org.apache.pekko.http.javadsl.server.AllDirectives;
+import org.apache.pekko.http.javadsl.server.PathMatchers;
+import org.apache.pekko.http.javadsl.server.Route;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Delta endpoint for clients that keep their own copy of the network status.
+ *
+ * GET /api/v1/tube/status/changes?since=&lt;version&gt;
+ *
+ * Returns only the lines that changed after since, plus the current version.
+ * Without since, or with a version this node no longer retains, every line is
+ * returned with full=true (see LineChangeHistory).
+ */
+class StatusChangesRoutes extends AllDirectives {
+
+    private final StatusSnapshotHolder snapshots;
+
+    StatusChangesRoutes(StatusSnapshotHolder snapshots) {
+        this.snapshots = snapshots;
+    }
+
+    Route route() {
+        return path(PathMatchers.segment("status").slash("changes"), () ->
+                get(() -> parameterOptional("since", since ->
+                        // The answer for a given since changes with every snapshot
+                        respondWithDefaultHeader(CacheHeaders.NO_STORE, () -> changes(since)))));
+    }
+
+    private Route changes(Optional<String> sinceParam) {
+        long since;
+        try {
+            since = sinceParam.map(Long::parseLong).orElse(-1L);
+        } catch (NumberFormatException e) {
+            return complete(JsonErrors.BAD_SINCE);
+        }
+        LineChangeHistory.Changes changes = snapshots.changesSince(since);
+        if (changes == null) {
+            return complete(JsonErrors.NO_DATA);
+        }
+        StatusSnapshot snapshot = changes.snapshot();
+        ChangesResponse response = new ChangesResponse(snapshot.version(), changes.full(), changes.lines(),
+                new ApiResponse.Meta(snapshot.status().queriedAt(), Instant.now()));
+        return complete(HttpResponse.create()
+                .withEntity(HttpEntities.create(ContentTypes.APPLICATION_JSON, StatusJsonWriter.changes(response))));
+    }
+}
@@ -0,0 +1,188 @@
+package com.ig.tfl.api;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.ig.tfl.model.TubeStatus.Disruption;
+import com.ig.tfl.model.TubeStatus.LineStatus;
+import org.apache.pekko.util.ByteString;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streaming JSON for the response types, written field by field with a
+ * JsonGenerator instead of reflective ObjectMapper serialization or Map bodies.
+ *
+ * Output is byte-for-byte what the routes' ObjectMapper writes for the same
+ * values (record component order, nulls written, Instants as ISO_INSTANT).
+ *
+ * Each thread writes into its own reusable buffer (the generator's encoding
+ * buffer is recycled by Jackson as well), so a document costs one exact-size
+ * array, which the ByteString then wraps. The pooled buffer itself is never
+ * handed out: a ByteString must not change under its reader.
+ */
+final class StatusJsonWriter {
+
+    /** Writes one JSON value to the generator. */
+    @FunctionalInterface
+    interface Body {
+        void writeTo(JsonGenerator generator) throws IOException;
+    }
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    // A buffer that grew past this (a very large document) is dropped instead of kept
+    private static final int MAX_POOLED_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<Buffer> BUFFERS = ThreadLocal.withInitial(Buffer::new);
+
+    private StatusJsonWriter() {
+    }
+
+    /** JSON array of lines. */
+    static ByteString lines(List<LineStatus> lines) {
+        return write(generator -> writeLines(generator, lines));
+    }
+
+    /** One line object. */
+    static ByteString line(LineStatus line) {
+        return write(generator -> writeLine(generator, line));
+    }
+
+    /** A full ApiResponse document. */
+    static ByteString response(ApiResponse response) {
+        return write(generator -> {
+            generator.writeStartObject();
+            generator.writeFieldName("lines");
+            writeLines(generator, response.lines());
+            generator.writeFieldName("meta");
+            writeMeta(generator, response.meta());
+            generator.writeEndObject();
+        });
+    }
+
+    /** A ChangesResponse document. */
+    static ByteString changes(ChangesResponse response) {
+        return write(generator -> {
+            generator.writeStartObject();
+            generator.writeNumberField("version", response.version());
+            generator.writeBooleanField("full", response.full());
+            generator.writeFieldName("lines");
+            writeLines(generator, response.lines());
+            generator.writeFieldName("meta");
+            writeMeta(generator, response.meta());
+            generator.writeEndObject();
+        });
+    }
+
+    /** {"error":"..."} */
+    static ByteString error(String message) {
+        return write(generator -> {
+            generator.writeStartObject();
+            generator.writeStringField("error", message);
+            generator.writeEndObject();
+        });
+    }
+
+    /** Any other document, written by the caller. */
+    static ByteString write(Body body) {
+        Buffer buffer = BUFFERS.get();
+        buffer.reset();
+        try (JsonGenerator generator = FACTORY.createGenerator(buffer)) {
+            body.writeTo(generator);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write JSON", e);
+        }
+        ByteString result = buffer.toByteString();
+        if (buffer.capacity() > MAX_POOLED_SIZE) {
+            BUFFERS.remove();
+        }
+        return result;
+    }
+
+    /**
+     * Append already serialized JSON (a cached fragment) to the document being
+     * written, straight into the pooled buffer. Only for generators handed to
+     * a Body by write().
+     */
+    static void writeRaw(JsonGenerator generator, ByteString json) throws IOException {
+        generator.flush();
+        ((Buffer) generator.getOutputTarget()).append(json);
+    }
+
+    static void writeLines(JsonGenerator generator, List<LineStatus> lines) throws IOException {
+        if (lines == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartArray();
+        for (LineStatus line : lines) {
+            writeLine(generator, line);
+        }
+        generator.writeEndArray();
+    }
+
+    static void writeLine(JsonGenerator generator, LineStatus line) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("id", line.id());
+        generator.writeStringField("name", line.name());
+        generator.writeStringField("status", line.status());
+        generator.writeStringField("statusSeverityDescription", line.statusSeverityDescription());
+        generator.writeFieldName("disruptions");
+        if (line.disruptions() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeStartArray();
+            for (Disruption disruption : line.disruptions()) {
+                generator.writeStartObject();
+                generator.writeStringField("category", disruption.category());
+                generator.writeStringField("description", disruption.description());
+                generator.writeBooleanField("isPlanned", disruption.isPlanned());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+    }
+
+    static void writeMeta(JsonGenerator generator, ApiResponse.Meta meta) throws IOException {
+        generator.writeStartObject();
+        writeInstantField(generator, "dataAsOfUtc", meta.dataAsOfUtc());
+        writeInstantField(generator, "respondedAtUtc", meta.respondedAtUtc());
+        generator.writeEndObject();
+    }
+
+    /** Instant.toString() is ISO_INSTANT, the format JavaTimeModule writes. */
+    static void writeInstantField(JsonGenerator generator, String name, Instant value) throws IOException {
+        generator.writeStringField(name, value == null ? null : value.toString());
+    }
+
+    /** ByteArrayOutputStream that exposes its capacity and copies out exactly once. */
+    private static final class Buffer extends ByteArrayOutputStream {
+
+        Buffer() {
+            super(1024);
+        }
+
+        ByteString toByteString() {
+            return ByteString.fromArray(buf, 0, count);
+        }
+
+        void append(ByteString bytes) {
+            int size = bytes.size();
+            if (count + size > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, count + size));
+            }
+            bytes.asByteBuffer().get(buf, count, size);
+            count += size;
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package com.ig.tfl.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ig.tfl.crdt.StatusSnapshotHolder;
+import com.ig.tfl.model.StatusSnapshot;
+import com.ig.tfl.model.TubeStatus;
+import com.ig.tfl.observability.Metrics;
+import org.apache.pekko.util.ByteString;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Serialized response payloads for the current snapshot.
+ *
+ * Built once when the replicator publishes a snapshot and replaced (dropping the
+ * old bytes) on the next publish. Lookups are keyed on snapshot identity: any other
+ * TubeStatus is serialized on demand and not cached.
+ *
+ * Cached payloads carry gzip and deflate copies, so compressed responses cost a
+ * ~30-byte splice instead of a per-request Deflater run (what encodeResponse does),
+ * and CBOR / Smile / MessagePack / Protobuf encodings, so binary clients cost no
+ * encoding either.
+ *
+ * Each line is serialized once per snapshot into a fragment; per-line payloads
+ * and ad-hoc multi-line selections are spliced from those fragments.
+ *
+ * ?fields= projections: FieldSet.COMMON over all lines is built with the
+ * snapshot; any other (view, fields) pair is built on first use and kept in a
+ * per-snapshot LRU of PROJECTION_CACHE_SIZE entries.
+ */
+final class StatusPayloadCache {
+
+    private static final String[] ENCODINGS = {"identity", "gzip", "deflate", "cbor", "smile", "msgpack", "protobuf"};
+
+    // A few dozen distinct projections covers the clients we know of
+    private static final int PROJECTION_CACHE_SIZE = 64;
+
+    private final ObjectMapper objectMapper;
+    private final Metrics metrics;
+    private final AtomicReference<Entry> current = new AtomicReference<>();
+
+    /**
+     * Payloads for one snapshot. lines and fragments are keyed by line id
+     * lower-cased with Locale.ROOT, bySeverity by StatusSnapshot.severityKey();
+     * noLines answers severities no line currently has.
+     */
+    private record Entry(StatusSnapshot snapshot, JsonPayload allLines, JsonPayload disruptions,
+                         JsonPayload plannedDisruptions, Map<String, JsonPayload> bySeverity,
+                         JsonPayload noLines, Map<String, JsonPayload> lines,
+                         Map<String, LineFragment> fragments, Map<FieldSet, JsonPayload> projections,
+                         ProjectionCache projectionCache) {}
+
+    /** A line and its serialized JSON object. */
+    private record LineFragment(TubeStatus.LineStatus line, ByteString json) {}
+
+    /** view names the line selection: "status", "lines:a,b" or "line:a". */
+    private record ProjectionKey(String view, FieldSet fields) {}
+
+    /** Bounded LRU of projections built on demand for one snapshot. */
+    private static final class ProjectionCache {
+        private final Map<ProjectionKey, JsonPayload> payloads = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ProjectionKey, JsonPayload> eldest) {
+                return size() > PROJECTION_CACHE_SIZE;
+            }
+        };
+
+        synchronized JsonPayload get(ProjectionKey key) {
+            return payloads.get(key);
+        }
+
+        synchronized void put(ProjectionKey key, JsonPayload payload) {
+            payloads.put(key, payload);
+        }
+    }
+
+    StatusPayloadCache(ObjectMapper objectMapper, StatusSnapshotHolder snapshots, Metrics metrics) {
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        snapshots.subscribe(snapshot -> current.set(build(snapshot)));
+
+        // Snapshot may already have been published before we subscribed
+        StatusSnapshot initial = snapshots.snapshot();
+        if (initial != null) {
+            current.compareAndSet(null, build(initial));
+        }
+    }
+
+    /**
+     * Payload for all lines of the given status.
+     */
+    JsonPayload allLines(TubeStatus status) {
+        Entry entry = current.get();
+        if (entry != null && entry.snapshot().status() == status) {
+            return entry.allLines();
+        }
+        return JsonPayload.of(status.lines(), status.queriedAt());
+    }
+
+    /**
+     * Payload for lines with unplanned disruptions.
+     */
+    JsonPayload disruptions(StatusSnapshot snapshot) {
+        Entry entry = entryFor(snapshot);
+        return entry != null ? entry.disruptions() : uncached(snapshot, snapshot.unplannedDisruptions());
+    }
+
+    /**
+     * Payload for lines with planned disruptions (engineering works, closures).
+     */
+    JsonPayload plannedDisruptions(StatusSnapshot snapshot) {
+        Entry entry = entryFor(snapshot);
+        return entry != null ? entry.plannedDisruptions() : uncached(snapshot, snapshot.plannedDisruptions());
+    }
+
+    /**
+     * Payload for lines whose status matches the severity; empty lines if none do.
+     */
+    JsonPayload severity(StatusSnapshot snapshot, String severity) {
+        Entry entry = entryFor(snapshot);
+        if (entry == null) {
+            return uncached(snapshot, snapshot.withSeverity(severity));
+        }
+        JsonPayload payload = entry.bySeverity().get(StatusSnapshot.severityKey(severity));
+        return payload != null ? payload : entry.noLines();
+    }
+
+    /**
+     * Payload for a single line (case-insensitive id), or null if the status has no such line.
+     * For the published snapshot this is one hash lookup; unknown ids never scan the lines.
+     */
+    JsonPayload line(TubeStatus status, String lineId) {
+        Entry entry = current.get();
+        if (entry != null && entry.snapshot().status() == status) {
+            return entry.lines().get(key(lineId));
+        }
+        for (TubeStatus.LineStatus line : status.lines()) {
+            if (line.id().equalsIgnoreCase(lineId)) {
+                return JsonPayload.of(List.of(line), status.queriedAt());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Payload for the given lines (case-insensitive ids) in request order, duplicates
+     * dropped. Ids the status has no line for are skipped; check unknownLines() first.
+     * For the published snapshot nothing is re-serialized.
+     */
+    JsonPayload lines(TubeStatus status, Collection<String> lineIds) {
+        Entry entry = current.get();
+        Set<String> keys = keys(lineIds);
+        if (entry != null && entry.snapshot().status() == status) {
+            List<TubeStatus.LineStatus> lines = new ArrayList<>(keys.size());
+            List<ByteString> fragments = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                LineFragment fragment = entry.fragments().get(key);
+                if (fragment != null) {
+                    lines.add(fragment.line());
+                    fragments.add(fragment.json());
+                }
+            }
+            return JsonPayload.ofFragments(lines, fragments, status.queriedAt());
+        }
+        return JsonPayload.of(select(status, keys), status.queriedAt());
+    }
+
+    /**
+     * The requested ids (as given) that the status has no line for.
+     */
+    List<String> unknownLines(TubeStatus status, Collection<String> lineIds) {
+        Entry entry = current.get();
+        Set<String> known;
+        if (entry != null && entry.snapshot().status() == status) {
+            known = entry.fragments().keySet();
+        } else {
+            known = new HashSet<>();
+            status.lines().forEach(line -> known.add(key(line.id())));
+        }
+        return lineIds.stream().filter(id -> !known.contains(key(id))).toList();
+    }
+
+    /**
+     * allLines() with only the given fields per line (null = all fields).
+     */
+    JsonPayload allLines(TubeStatus status, FieldSet fields) {
+        if (fields == null) {
+            return allLines(status);
+        }
+        Entry entry = current.get();
+        if (entry != null && entry.snapshot().status() == status && entry.projections().containsKey(fields)) {
+            return entry.projections().get(fields);
+        }
+        return projected(status, "status", status.lines(), fields);
+    }
+
+    /**
+     * lines() with only the given fields per line (null = all fields).
+     */
+    JsonPayload lines(TubeStatus status, Collection<String> lineIds, FieldSet fields) {
+        if (fields == null) {
+            return lines(status, lineIds);
+        }
+        Set<String> keys = keys(lineIds);
+        return projected(status, "lines:" + String.join(",", keys), select(status, keys), fields);
+    }
+
+    /**
+     * line() with only the given fields (null = all fields); null if the status has no such line.
+     */
+    JsonPayload line(TubeStatus status, String lineId, FieldSet fields) {
+        if (fields == null) {
+            return line(status, lineId);
+        }
+        return status.lines().stream()
+                .filter(line -> line.id().equalsIgnoreCase(lineId))
+                .findFirst()
+                .map(line -> projected(status, "line:" + key(lineId), List.of(line), fields))
+                .orElse(null);
+    }
+
+    private JsonPayload projected(TubeStatus status, String view, List<TubeStatus.LineStatus> lines,
+                                  FieldSet fields) {
+        Entry entry = current.get();
+        if (entry == null || entry.snapshot().status() != status) {
+            return project(lines, fields, status);
+        }
+        ProjectionKey key = new ProjectionKey(view, fields);
+        JsonPayload payload = entry.projectionCache().get(key);
+        if (payload == null) {
+            // Concurrent misses may both build; the payloads are identical
+            payload = precomputed(project(lines, fields, status));
+            entry.projectionCache().put(key, payload);
+        }
+        return payload;
+    }
+
+    private JsonPayload project(List<TubeStatus.LineStatus> lines, FieldSet fields, TubeStatus status) {
+        List<ObjectNode> projected = lines.stream().map(line -> fields.project(objectMapper, line)).toList();
+        return JsonPayload.ofProjected(objectMapper, lines, projected, status.queriedAt());
+    }
+
+    private Entry entryFor(StatusSnapshot snapshot) {
+        Entry entry = current.get();
+        return entry != null && entry.snapshot() == snapshot ? entry : null;
+    }
+
+    private JsonPayload uncached(StatusSnapshot snapshot, List<TubeStatus.LineStatus> lines) {
+        return JsonPayload.of(lines, snapshot.status().queriedAt());
+    }
+
+    private Entry build(StatusSnapshot snapshot) {
+        long start = System.nanoTime();
+        TubeStatus status = snapshot.status();
+
+        JsonPayload allLines = precompressed(status.lines(), status);
+        JsonPayload disruptions = precompressed(snapshot.unplannedDisruptions(), status);
+        JsonPayload planned = precompressed(snapshot.plannedDisruptions(), status);
+        JsonPayload noLines = precompressed(List.of(), status);
+        Map<String, JsonPayload> bySeverity = new HashMap<>();
+        snapshot.bySeverity().forEach((severity, lines) ->
+                bySeverity.put(severity, precompressed(lines, status)));
+        Map<String, LineFragment> fragments = new HashMap<>();
+        Map<String, JsonPayload> lines = new HashMap<>();
+        for (TubeStatus.LineStatus line : status.lines()) {
+            LineFragment fragment = new LineFragment(line, StatusJsonWriter.line(line));
+            fragments.put(key(line.id()), fragment);
+            lines.put(key(line.id()), precomputed(JsonPayload.ofFragments(List.of(line),
+                    List.of(fragment.json()), status.queriedAt())));
+        }
+
+        Map<FieldSet, JsonPayload> projections = new HashMap<>();
+        for (FieldSet fields : FieldSet.COMMON) {
+            projections.put(fields, precomputed(project(status.lines(), fields, status)));
+        }
+
+        metrics.recordPayloadBuild(Duration.ofNanos(System.nanoTime() - start));
+        recordSizes("status", List.of(allLines));
+        recordSizes("disruptions", List.of(disruptions));
+        recordSizes("planned", List.of(planned));
+        recordSizes("severity", bySeverity.values());
+        recordSizes("lines", lines.values());
+        recordSizes("projections", projections.values());
+
+        return new Entry(snapshot, allLines, disruptions, planned, Map.copyOf(bySeverity),
+                noLines, Map.copyOf(lines), Map.copyOf(fragments), Map.copyOf(projections),
+                new ProjectionCache());
+    }
+
+    private JsonPayload precompressed(List<TubeStatus.LineStatus> lines, TubeStatus status) {
+        return precomputed(JsonPayload.of(lines, status.queriedAt()));
+    }
+
+    private static JsonPayload precomputed(JsonPayload payload) {
+        return payload.withCompressedVariants().withBinaryVariants();
+    }
+
+    /**
+     * Sizes exclude the per-request tail; "lines" and "severity" are totals
+     * across their per-key payloads.
+     */
+    private void recordSizes(String view, Collection<JsonPayload> payloads) {
+        long[] sizes = new long[ENCODINGS.length];
+        for (JsonPayload payload : payloads) {
+            sizes[0] += payload.size();
+            sizes[1] += payload.gzip().head().length;
+            sizes[2] += payload.deflate().head().length;
+            sizes[3] += payload.binary(BinaryFormat.CBOR).size();
+            sizes[4] += payload.binary(BinaryFormat.SMILE).size();
+            sizes[5] += payload.binary(BinaryFormat.MSGPACK).size();
+            sizes[6] += payload.binary(BinaryFormat.PROTOBUF).size();
+        }
+        for (int i = 0; i < ENCODINGS.length; i++) {
+            metrics.updatePayloadSize(view, ENCODINGS[i], sizes[i]);
+        }
+    }
+
+    /** Lines of the status with the given keys, in key order. */
+    private static List<TubeStatus.LineStatus> select(TubeStatus status, Set<String> keys) {
+        Map<String, TubeStatus.LineStatus> byKey = new HashMap<>();
+        status.lines().forEach(line -> byKey.put(key(line.id()), line));
+        return keys.stream()
+                .filter(byKey::containsKey)
+                .map(byKey::get)
+                .toList();
+    }
+
+    private static String key(String lineId) {
+        return lineId.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> keys(Collection<String> lineIds) {
+        Set<String> keys = new LinkedHashSet<>();
+        lineIds.forEach(id -> keys.add(key(id)));
+        return keys;
+    }
+}
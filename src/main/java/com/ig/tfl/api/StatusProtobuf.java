@@ -0,0 +1,134 @@
+package com.ig.tfl.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.protobuf.Timestamp;
+import com.ig.tfl.model.StatusSnapshot;
+import com.ig.tfl.proto.StatusProto;
+import org.apache.pekko.util.ByteString;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Writes the ApiResponse document as StatusProto.ApiResponse (tube_status.proto).
+ *
+ * Input is the JSON tree BinaryPayload already builds, so ?fields= projections
+ * need no separate path: fields missing from the tree stay unset. Line ids and
+ * severities become enum codes, with the string fields as fallback.
+ *
+ * respondedAtUtc is not part of the encoded document. Protobuf merges repeated
+ * occurrences of a message field, so each response appends a second, tiny
+ * ApiResponse holding only meta.responded_at_utc (see respondedAt()).
+ */
+final class StatusProtobuf {
+
+    private static final Map<String, StatusProto.LineId> LINE_IDS = codes(
+            StatusProto.LineId.values(), "LINE_ID_", StatusProto.LineId.LINE_ID_UNSPECIFIED);
+    private static final Map<String, StatusProto.Severity> SEVERITIES = codes(
+            StatusProto.Severity.values(), "SEVERITY_", StatusProto.Severity.SEVERITY_UNSPECIFIED);
+
+    private StatusProtobuf() {}
+
+    /**
+     * Encode an ApiResponse JSON tree, leaving out meta.respondedAtUtc.
+     */
+    static ByteString encode(JsonNode document) {
+        StatusProto.ApiResponse.Builder response = StatusProto.ApiResponse.newBuilder();
+        for (JsonNode line : document.path("lines")) {
+            response.addLines(line(line));
+        }
+        JsonNode dataAsOf = document.path("meta").path("dataAsOfUtc");
+        if (dataAsOf.isTextual()) {
+            response.setMeta(StatusProto.Meta.newBuilder()
+                    .setDataAsOfUtc(timestamp(Instant.parse(dataAsOf.asText()))));
+        }
+        return ByteString.fromArrayUnsafe(response.build().toByteArray());
+    }
+
+    /**
+     * Bytes that, appended to an encoded document, set meta.responded_at_utc.
+     */
+    static ByteString respondedAt(Instant respondedAtUtc) {
+        return ByteString.fromArrayUnsafe(StatusProto.ApiResponse.newBuilder()
+                .setMeta(StatusProto.Meta.newBuilder().setRespondedAtUtc(timestamp(respondedAtUtc)))
+                .build()
+                .toByteArray());
+    }
+
+    private static StatusProto.LineStatus line(JsonNode line) {
+        StatusProto.LineStatus.Builder builder = StatusProto.LineStatus.newBuilder();
+        if (line.hasNonNull("id")) {
+            String id = line.get("id").asText();
+            StatusProto.LineId code = LINE_IDS.get(id.toLowerCase(Locale.ROOT));
+            if (code != null) {
+                builder.setLineId(code);
+            } else {
+                builder.setId(id);
+            }
+        }
+        if (line.hasNonNull("name")) {
+            builder.setName(line.get("name").asText());
+        }
+        if (line.hasNonNull("status")) {
+            String status = line.get("status").asText();
+            StatusProto.Severity code = SEVERITIES.get(StatusSnapshot.severityKey(status));
+            if (code != null) {
+                builder.setStatus(code);
+            } else {
+                builder.setStatusText(status);
+            }
+        }
+        if (line.hasNonNull("statusSeverityDescription")) {
+            String description = line.get("statusSeverityDescription").asText();
+            StatusProto.Severity code = SEVERITIES.get(StatusSnapshot.severityKey(description));
+            if (code != null) {
+                builder.setStatusSeverityDescription(code);
+            } else {
+                builder.setStatusSeverityDescriptionText(description);
+            }
+        }
+        for (JsonNode disruption : line.path("disruptions")) {
+            builder.addDisruptions(disruption(disruption));
+        }
+        return builder.build();
+    }
+
+    private static StatusProto.Disruption disruption(JsonNode disruption) {
+        StatusProto.Disruption.Builder builder = StatusProto.Disruption.newBuilder();
+        if (disruption.hasNonNull("category")) {
+            builder.setCategory(disruption.get("category").asText());
+        }
+        if (disruption.hasNonNull("description")) {
+            builder.setDescription(disruption.get("description").asText());
+        }
+        if (disruption.hasNonNull("isPlanned")) {
+            builder.setIsPlanned(disruption.get("isPlanned").asBoolean());
+        }
+        return builder.build();
+    }
+
+    private static Timestamp timestamp(Instant instant) {
+        return Timestamp.newBuilder()
+                .setSeconds(instant.getEpochSecond())
+                .setNanos(instant.getNano())
+                .build();
+    }
+
+    /**
+     * Enum values keyed the way the schema documents them: the value name without
+     * its prefix, lower-cased, '_' as '-' ("hammersmith-city", "minor-delays";
+     * the latter is also StatusSnapshot.severityKey() of "Minor Delays").
+     */
+    private static <E extends Enum<E>> Map<String, E> codes(E[] values, String prefix, E unspecified) {
+        Map<String, E> codes = new HashMap<>();
+        for (E value : values) {
+            if (value != unspecified && value.name().startsWith(prefix)) {
+                codes.put(value.name().substring(prefix.length()).toLowerCase(Locale.ROOT).replace('_', '-'),
+                        value);
+            }
+        }
+        return Map.copyOf(codes);
+    }
+}
@@ -0,0 +1,186 @@
+package com.ig.tfl.api;
+
+import com.ig.tfl.crdt.StatusSnapshotHolder;
+import com.ig.tfl.model.StatusSnapshot;
+import com.ig.tfl.model.TubeStatus;
+import com.ig.tfl.observability.Metrics;
+import org.apache.pekko.NotUsed;
+import org.apache.pekko.http.javadsl.marshalling.sse.EventStreamMarshalling;
+import org.apache.pekko.http.javadsl.model.sse.ServerSentEvent;
+import org.apache.pekko.http.javadsl.server.AllDirectives;
+import org.apache.pekko.http.javadsl.server.PathMatchers;
+import org.apache.pekko.http.javadsl.server.Route;
+import org.apache.pekko.stream.BufferOverflowException;
+import org.apache.pekko.stream.javadsl.Source;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Server-Sent Events stream of status changes.
+ *
+ * GET /api/v1/tube/status/stream?lines=central,victoria
+ *
+ * Sends the current snapshot on connect, then one "status" event per adopted
+ * snapshot whose (filtered) lines differ from the last one sent. The event id
+ * is the snapshot's queriedAt in epoch millis; a reconnecting client sending
+ * Last-Event-ID skips the current snapshot if it has already seen it. Idle
+ * connections get comment heartbeats so proxies don't close them.
+ *
+ * Unfiltered events are encoded once per snapshot and shared by all
+ * subscribers; their meta.respondedAtUtc is when the event was first encoded.
+ */
+class StatusStreamRoutes extends AllDirectives {
+
+    private static final String EVENT_TYPE = "status";
+
+    private final StatusSnapshotHolder snapshots;
+    private final SnapshotBroadcast<StatusSnapshot> broadcast;
+    private final StatusPayloadCache payloads;
+    private final Metrics metrics;
+    private final Duration heartbeat;
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final AtomicReference<SharedEvent> lastShared = new AtomicReference<>();
+
+    private record SharedEvent(StatusSnapshot snapshot, ServerSentEvent event) {}
+
+    StatusStreamRoutes(
+            StatusSnapshotHolder snapshots,
+            SnapshotBroadcast<StatusSnapshot> broadcast,
+            StatusPayloadCache payloads,
+            Metrics metrics,
+            Duration heartbeat) {
+        this.snapshots = snapshots;
+        this.broadcast = broadcast;
+        this.payloads = payloads;
+        this.metrics = metrics;
+        this.heartbeat = heartbeat;
+        metrics.registerStreamSubscribers("sse", subscribers::get);
+    }
+
+    /** Matched inside /api/v1/tube. */
+    Route route() {
+        return path(PathMatchers.segment("status").slash("stream"), () ->
+                get(() -> parameterOptional("lines", lines ->
+                        optionalHeaderValueByName("Last-Event-ID", lastEventId ->
+                                completeOK(events(lineFilter(lines), eventId(lastEventId)),
+                                        EventStreamMarshalling.toEventStream())))));
+    }
+
+    private Source<ServerSentEvent, NotUsed> events(Set<String> lines, long lastEventId) {
+        var changes = new ChangeDetector(lines, lastEventId);
+
+        // A snapshot published while the hub subscription is being set up can arrive
+        // twice (here and from the hub) or, rarely, only with the next change;
+        // ChangeDetector drops the duplicate.
+        StatusSnapshot current = snapshots.snapshot();
+        Source<StatusSnapshot, NotUsed> initial = current == null ? Source.empty() : Source.single(current);
+
+        return initial.concat(broadcast.subscribe())
+                .filter(changes::isChange)
+                .map(snapshot -> lines.isEmpty()
+                        ? shared(snapshot)
+                        : encode(snapshot, changes.lastLines()))
+                .keepAlive(heartbeat, ServerSentEvent::heartbeat)
+                .watchTermination((notUsed, done) -> {
+                    subscribers.incrementAndGet();
+                    done.whenComplete((ok, error) -> {
+                        subscribers.decrementAndGet();
+                        if (error instanceof BufferOverflowException) {
+                            metrics.recordStreamSubscriberDropped("sse");
+                        }
+                    });
+                    return notUsed;
+                });
+    }
+
+    private ServerSentEvent shared(StatusSnapshot snapshot) {
+        SharedEvent last = lastShared.get();
+        if (last != null && last.snapshot() == snapshot) {
+            return last.event();
+        }
+        ServerSentEvent event = encode(snapshot, snapshot.status().lines());
+        lastShared.set(new SharedEvent(snapshot, event));
+        return event;
+    }
+
+    private ServerSentEvent encode(StatusSnapshot snapshot, List<TubeStatus.LineStatus> lines) {
+        TubeStatus status = snapshot.status();
+        JsonPayload payload = lines == status.lines()
+                ? payloads.allLines(status)
+                : JsonPayload.of(lines, status.queriedAt());
+        return ServerSentEvent.create(payload.toJson(Instant.now()), EVENT_TYPE,
+                String.valueOf(status.queriedAt().toEpochMilli()));
+    }
+
+    private static Set<String> lineFilter(Optional<String> lines) {
+        return lines.map(value -> Arrays.stream(value.split(","))
+                        .map(id -> id.trim().toLowerCase(Locale.ROOT))
+                        .filter(id -> !id.isEmpty())
+                        .collect(Collectors.toUnmodifiableSet()))
+                .orElse(Set.of());
+    }
+
+    private static long eventId(Optional<String> lastEventId) {
+        try {
+            return lastEventId.map(id -> Long.parseLong(id.trim())).orElse(0L);
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    /**
+     * Per-subscriber state: passes a snapshot only if it is newer than the last
+     * one seen and its selected lines differ from the last ones sent.
+     * Used from a single stream stage, so needs no synchronization.
+     */
+    private static final class ChangeDetector {
+        private final Set<String> lines;
+        private long lastId;
+        private List<TubeStatus.LineStatus> lastLines;
+
+        ChangeDetector(Set<String> lines, long lastEventId) {
+            this.lines = lines;
+            this.lastId = lastEventId;
+        }
+
+        boolean isChange(StatusSnapshot snapshot) {
+            long id = snapshot.status().queriedAt().toEpochMilli();
+            if (id <= lastId) {
+                if (id == lastId && lastLines == null) {
+                    // Resumed at this snapshot (Last-Event-ID): the client has its lines
+                    lastLines = select(snapshot.status());
+                }
+                return false;
+            }
+            lastId = id;
+            List<TubeStatus.LineStatus> selected = select(snapshot.status());
+            if (selected.equals(lastLines)) {
+                return false;
+            }
+            lastLines = selected;
+            return true;
+        }
+
+        List<TubeStatus.LineStatus> lastLines() {
+            return lastLines;
+        }
+
+        private List<TubeStatus.LineStatus> select(TubeStatus status) {
+            if (lines.isEmpty()) {
+                return status.lines();
+            }
+            return status.lines().stream()
+                    .filter(line -> lines.contains(line.id().toLowerCase(Locale.ROOT)))
+                    .toList();
+        }
+    }
+}
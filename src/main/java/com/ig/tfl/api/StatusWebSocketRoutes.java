@@ -0,0 +1,297 @@
+package com.ig.tfl.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ig.tfl.crdt.StatusSnapshotHolder;
+import com.ig.tfl.model.StatusSnapshot;
+import com.ig.tfl.model.TubeStatus;
+import com.ig.tfl.observability.Metrics;
+import org.apache.pekko.NotUsed;
+import org.apache.pekko.actor.typed.ActorSystem;
+import org.apache.pekko.http.javadsl.model.ws.Message;
+import org.apache.pekko.http.javadsl.model.ws.TextMessage;
+import org.apache.pekko.http.javadsl.server.AllDirectives;
+import org.apache.pekko.http.javadsl.server.PathMatchers;
+import org.apache.pekko.http.javadsl.server.Route;
+import org.apache.pekko.stream.BufferOverflowException;
+import org.apache.pekko.stream.Materializer;
+import org.apache.pekko.stream.javadsl.Flow;
+import org.apache.pekko.stream.javadsl.Sink;
+import org.apache.pekko.stream.javadsl.Source;
+
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * WebSocket subscriptions to per-line status changes.
+ *
+ * GET /api/v1/tube/status/ws, then send text frames:
+ *   {"op":"subscribe","lines":["central","victoria"]}
+ *   {"op":"unsubscribe","lines":["central"]}
+ *
+ * Subscribing immediately sends the current state of each line; afterwards a
+ * line message is pushed only when that line changes:
+ *   {"type":"line","line":{...},"observedAtUtc":"..."}
+ * observedAtUtc is the queriedAt of the snapshot in which the line first had
+ * this state. Unknown ids and malformed frames get {"type":"error",...}.
+ *
+ * Line messages are encoded once per changed line per snapshot (LineUpdateEncoder)
+ * and the same TextMessage instance is pushed to every subscriber; sockets only
+ * select which of them to forward.
+ */
+class StatusWebSocketRoutes extends AllDirectives {
+
+    private static final long CLIENT_FRAME_TIMEOUT_MS = 5000;
+
+    private final ObjectMapper objectMapper;
+    private final Materializer materializer;
+    private final Metrics metrics;
+    private final LineUpdateEncoder encoder;
+    private final SnapshotBroadcast<LineUpdates> broadcast;
+    private final AtomicInteger subscribers = new AtomicInteger();
+
+    StatusWebSocketRoutes(
+            ActorSystem<?> system,
+            StatusSnapshotHolder snapshots,
+            ObjectMapper objectMapper,
+            Metrics metrics,
+            int subscriberBuffer) {
+        this.objectMapper = objectMapper;
+        this.materializer = Materializer.matFromSystem(system);
+        this.metrics = metrics;
+        this.encoder = new LineUpdateEncoder(objectMapper);
+        if (snapshots.snapshot() != null) {
+            encoder.apply(snapshots.snapshot());
+        }
+        this.broadcast = new SnapshotBroadcast<>(system, snapshots, LineUpdates.class,
+                encoder, subscriberBuffer);
+        metrics.registerStreamSubscribers("websocket", subscribers::get);
+    }
+
+    /** Matched inside /api/v1/tube. */
+    Route route() {
+        return path(PathMatchers.segment("status").slash("ws"), () ->
+                handleWebSocketMessages(connection()));
+    }
+
+    private Flow<Message, Message, NotUsed> connection() {
+        LineUpdates current = encoder.latest();
+        Source<SessionInput, NotUsed> updates = (current == null
+                ? Source.<LineUpdates>empty()
+                : Source.single(current))
+                .concat(broadcast.subscribe())
+                .<SessionInput>map(update -> update);
+
+        return Flow.of(Message.class)
+                .mapAsync(1, this::parse)
+                // Completes when the client closes, even though updates never end
+                .merge(updates, true)
+                .statefulMapConcat(() -> new Session()::handle)
+                .watchTermination((notUsed, done) -> {
+                    subscribers.incrementAndGet();
+                    done.whenComplete((ok, error) -> {
+                        subscribers.decrementAndGet();
+                        if (error instanceof BufferOverflowException) {
+                            metrics.recordStreamSubscriberDropped("websocket");
+                        }
+                    });
+                    return notUsed;
+                });
+    }
+
+    private CompletionStage<SessionInput> parse(Message message) {
+        if (!message.isText()) {
+            // Binary frames must still be drained, or the connection stalls
+            message.asBinaryMessage().getStreamedData().runWith(Sink.ignore(), materializer);
+            return CompletableFuture.completedFuture(new InvalidFrame("Binary frames are not supported"));
+        }
+        return message.asTextMessage()
+                .toStrict(CLIENT_FRAME_TIMEOUT_MS, materializer)
+                .thenApply(text -> {
+                    try {
+                        ClientCommand command = objectMapper.readValue(text.getStrictText(), ClientCommand.class);
+                        if (command.op() == null || command.lines() == null
+                                || command.lines().stream().anyMatch(id -> id == null || id.isBlank())) {
+                            return new InvalidFrame("Expected {\"op\":..., \"lines\":[...]}");
+                        }
+                        return command;
+                    } catch (JsonProcessingException e) {
+                        return new InvalidFrame("Malformed JSON");
+                    }
+                });
+    }
+
+    private TextMessage error(String message) {
+        return TextMessage.create(json(new ErrorMessage("error", message)));
+    }
+
+    private String json(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Failed to serialize WebSocket message", e);
+        }
+    }
+
+    /** Inputs to a socket's session: client frames and snapshot updates, in arrival order. */
+    sealed interface SessionInput permits ClientCommand, InvalidFrame, LineUpdates {}
+
+    record ClientCommand(String op, List<String> lines) implements SessionInput {}
+
+    record InvalidFrame(String reason) implements SessionInput {}
+
+    /**
+     * Encoded line messages for one snapshot. lines holds every line's message
+     * (keyed by lower-cased id); changed lists the ids that differ from the
+     * previous snapshot the encoder saw (sessions diff against their own).
+     */
+    record LineUpdates(Instant queriedAt, Map<String, TextMessage> lines, Set<String> changed)
+            implements SessionInput {}
+
+    record LineMessage(String type, TubeStatus.LineStatus line, Instant observedAtUtc) {}
+
+    record ErrorMessage(String type, String message) {}
+
+    /**
+     * Turns each published snapshot into LineUpdates, re-encoding only lines whose
+     * status differs from the previous snapshot. Runs in the snapshot listener.
+     */
+    static final class LineUpdateEncoder implements Function<StatusSnapshot, LineUpdates> {
+        private final ObjectMapper objectMapper;
+        private final Map<String, TubeStatus.LineStatus> previousLines = new HashMap<>();
+        private volatile LineUpdates latest;
+
+        LineUpdateEncoder(ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+        }
+
+        LineUpdates latest() {
+            return latest;
+        }
+
+        @Override
+        public synchronized LineUpdates apply(StatusSnapshot snapshot) {
+            TubeStatus status = snapshot.status();
+            LineUpdates previous = latest;
+            Map<String, TextMessage> lines = new HashMap<>();
+            Set<String> changed = new HashSet<>();
+
+            for (TubeStatus.LineStatus line : status.lines()) {
+                String id = line.id().toLowerCase(Locale.ROOT);
+                if (previous != null && line.equals(previousLines.get(id))) {
+                    lines.put(id, previous.lines().get(id));
+                } else {
+                    lines.put(id, encode(line, status.queriedAt()));
+                    changed.add(id);
+                }
+                previousLines.put(id, line);
+            }
+
+            latest = new LineUpdates(status.queriedAt(), Map.copyOf(lines), Set.copyOf(changed));
+            return latest;
+        }
+
+        private TextMessage encode(TubeStatus.LineStatus line, Instant observedAt) {
+            try {
+                return TextMessage.create(objectMapper.writeValueAsString(
+                        new LineMessage("line", line, observedAt)));
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException("Failed to serialize line update", e);
+            }
+        }
+    }
+
+    /**
+     * Per-socket state. Inputs arrive one at a time from a single stream stage,
+     * so subscription changes and updates are applied in order without locking.
+     *
+     * Lines to push are found by diffing each update against the last one this
+     * socket saw, not from LineUpdates.changed: a snapshot published between
+     * the upgrade and the hub subscription (or dropped as out of order) would
+     * otherwise hide its changes from the socket for good. Unchanged lines
+     * keep the same TextMessage instance, so the diff is by identity.
+     */
+    final class Session {
+        private final Set<String> subscribed = new HashSet<>();
+        // Ids subscribed before the first snapshot, as requested, to validate against it
+        private final Map<String, String> unvalidated = new LinkedHashMap<>();
+        private LineUpdates latest;
+
+        Iterable<Message> handle(SessionInput input) {
+            return switch (input) {
+                case LineUpdates update -> onUpdate(update);
+                case ClientCommand command -> onCommand(command);
+                case InvalidFrame invalid -> List.of(error(invalid.reason()));
+            };
+        }
+
+        private List<Message> onUpdate(LineUpdates update) {
+            if (latest != null && !update.queriedAt().isAfter(latest.queriedAt())) {
+                return List.of();  // already seen (initial snapshot raced with the hub)
+            }
+            List<Message> out = new ArrayList<>();
+            unvalidated.forEach((id, requested) -> {
+                if (!update.lines().containsKey(id)) {
+                    subscribed.remove(id);
+                    out.add(error("Unknown line: " + requested));
+                }
+            });
+            unvalidated.clear();
+
+            for (String id : subscribed) {
+                TextMessage message = update.lines().get(id);
+                if (message != null && (latest == null || message != latest.lines().get(id))) {
+                    out.add(message);
+                }
+            }
+            latest = update;
+            return out;
+        }
+
+        private List<Message> onCommand(ClientCommand command) {
+            boolean subscribe = command.op().equals("subscribe");
+            if (!subscribe && !command.op().equals("unsubscribe")) {
+                return List.of(error("Unknown op: " + command.op()));
+            }
+            List<Message> out = new ArrayList<>();
+            for (String requested : command.lines()) {
+                String id = requested.toLowerCase(Locale.ROOT);
+                if (subscribe) {
+                    subscribe(id, requested, out);
+                } else {
+                    subscribed.remove(id);
+                    unvalidated.remove(id);
+                }
+            }
+            return out;
+        }
+
+        private void subscribe(String id, String requested, List<Message> out) {
+            if (latest == null) {
+                // Validated and sent with the first snapshot
+                if (subscribed.add(id)) {
+                    unvalidated.put(id, requested);
+                }
+                return;
+            }
+            TextMessage current = latest.lines().get(id);
+            if (current == null) {
+                out.add(error("Unknown line: " + requested));
+            } else if (subscribed.add(id)) {
+                out.add(current);
+            }
+        }
+    }
+}
@@ -3,17 +3,23 @@ package com.ig.tfl.api;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.ig.tfl.cache.DateRangeCache;
 import com.ig.tfl.client.TflGateway;
+import com.ig.tfl.crdt.StatusSnapshotHolder;
 import com.ig.tfl.crdt.TubeStatusReplicator;
-import com.ig.tfl.crdt.TubeStatusReplicator.GetStatus;
 import com.ig.tfl.crdt.TubeStatusReplicator.GetStatusWithFreshness;
 import com.ig.tfl.crdt.TubeStatusReplicator.StatusResponse;
+import com.ig.tfl.crdt.TubeStatusReplicator.TriggerBackgroundRefresh;
+import com.ig.tfl.model.StatusSnapshot;
 import com.ig.tfl.model.TubeStatus;
+import com.ig.tfl.observability.HealthSnapshot;
 import com.ig.tfl.observability.Metrics;
+import com.typesafe.config.Config;
 import org.apache.pekko.actor.typed.ActorRef;
 import org.apache.pekko.actor.typed.ActorSystem;
 import org.apache.pekko.actor.typed.javadsl.AskPattern;
 import org.apache.pekko.http.javadsl.marshallers.jackson.Jackson;
+import org.apache.pekko.http.javadsl.model.HttpHeader;
 import org.apache.pekko.http.javadsl.model.StatusCodes;
 import org.apache.pekko.http.javadsl.model.headers.RawHeader;
 import org.apache.pekko.http.javadsl.server.AllDirectives;
@@ -25,12 +31,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
-import java.time.Instant;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
@@ -38,14 +42,26 @@ import java.util.function.Supplier;
  *
  * Thin layer: delegates caching decisions to TubeStatusReplicator,
  * date-range queries to TflGateway.
+ *
+ * Reads are served from the replicator's published snapshot; the actor is only
+ * asked when the snapshot is missing or too old for the client's maxAgeMs.
  */
 public class TubeStatusRoutes extends AllDirectives {
     private static final Logger log = LoggerFactory.getLogger(TubeStatusRoutes.class);
 
     private final ActorSystem<?> system;
     private final ActorRef<TubeStatusReplicator.Command> replicator;
-    private final ActorRef<TflGateway.Command> tflGateway;
+    private final StatusSnapshotHolder snapshots;
     private final ObjectMapper objectMapper;
+    private final StatusPayloadCache payloads;
+    private final PayloadResponses responses = new PayloadResponses();
+    private final CacheHeaders cacheHeaders;
+    private final StatusStreamRoutes streams;
+    private final StatusWebSocketRoutes webSockets;
+    private final LongPollRoutes longPoll;
+    private final StatusChangesRoutes changes;
+    private final HealthRoutes health;
+    private final DateRangeRoutes dateRanges;
     private final Duration askTimeout;
     private final Metrics metrics;
 
@@ -54,46 +70,130 @@ public class TubeStatusRoutes extends AllDirectives {
     private final long minimumFreshnessMs;
     private final long defaultFreshnessMs;
 
+    // Snapshot reads older than this nudge the replicator to refresh in the background
+    private final long backgroundRefreshThresholdMs;
+
+    /** POST body for a multi-line query; maxAgeMs is optional. */
+    record LinesQuery(List<String> lines, Long maxAgeMs) {}
+
+    /**
+     * Route configuration, read from the tfl.* config tree in production.
+     */
+    public record RoutesConfig(
+            Duration askTimeout,
+            long minimumFreshnessMs,
+            long defaultFreshnessMs,
+            Duration backgroundRefreshThreshold,
+            int streamSubscriberBuffer,
+            Duration streamHeartbeat,
+            Duration longPollMaxWait,
+            Duration longPollTick,
+            int longPollMaxParked,
+            Duration staleIfErrorCircuitOpen,
+            DateRangeCache.Settings dateRangeCache
+    ) {
+        public static RoutesConfig fromConfig(Config config) {
+            return new RoutesConfig(
+                    config.getDuration("tfl.http.ask-timeout"),
+                    config.getLong("tfl.refresh.minimum-freshness-ms"),
+                    config.getLong("tfl.refresh.default-freshness-ms"),
+                    config.getDuration("tfl.refresh.background-refresh-threshold"),
+                    config.getInt("tfl.stream.subscriber-buffer"),
+                    config.getDuration("tfl.stream.heartbeat"),
+                    config.getDuration("tfl.long-poll.max-wait"),
+                    config.getDuration("tfl.long-poll.tick"),
+                    config.getInt("tfl.long-poll.max-parked"),
+                    config.getDuration("tfl.http.cache.stale-if-error-circuit-open"),
+                    DateRangeCache.Settings.fromConfig(config));
+        }
+
+        /** Default freshness settings with the given ask timeout (for testing). */
+        public static RoutesConfig defaults(Duration askTimeout) {
+            return new RoutesConfig(askTimeout, 5000L, 60000L, Duration.ofSeconds(5),
+                    16, Duration.ofSeconds(15), Duration.ofSeconds(25), Duration.ofMillis(100), 10_000,
+                    Duration.ofMinutes(10), DateRangeCache.Settings.defaults());
+        }
+    }
+
+    /**
+     * Constructor reading RoutesConfig from the system's config. healthSnapshot
+     * must be wired to the TfL client's breaker (addCircuitStateListener) for
+     * readiness and stale-if-error to see the circuit state.
+     */
     public TubeStatusRoutes(
             ActorSystem<?> system,
             ActorRef<TubeStatusReplicator.Command> replicator,
+            StatusSnapshotHolder snapshots,
             ActorRef<TflGateway.Command> tflGateway,
-            Metrics metrics) {
-        this(system, replicator, tflGateway, metrics,
-                system.settings().config().getDuration("tfl.http.ask-timeout"),
-                system.settings().config().getLong("tfl.refresh.minimum-freshness-ms"),
-                system.settings().config().getLong("tfl.refresh.default-freshness-ms"));
+            Metrics metrics,
+            HealthSnapshot healthSnapshot) {
+        this(system, replicator, snapshots, tflGateway, metrics,
+                RoutesConfig.fromConfig(system.settings().config()), healthSnapshot);
     }
 
     /** Constructor for testing with default freshness settings. */
     public TubeStatusRoutes(
             ActorSystem<?> system,
             ActorRef<TubeStatusReplicator.Command> replicator,
+            StatusSnapshotHolder snapshots,
             ActorRef<TflGateway.Command> tflGateway,
             Metrics metrics,
-            Duration askTimeout) {
-        this(system, replicator, tflGateway, metrics, askTimeout, 5000L, 60000L);
+            Duration askTimeout,
+            HealthSnapshot healthSnapshot) {
+        this(system, replicator, snapshots, tflGateway, metrics, RoutesConfig.defaults(askTimeout), healthSnapshot);
     }
 
-    /** Constructor with all parameters including freshness configuration. */
+    /** Constructor with freshness configuration and a cache of its own (for testing). */
     public TubeStatusRoutes(
             ActorSystem<?> system,
             ActorRef<TubeStatusReplicator.Command> replicator,
+            StatusSnapshotHolder snapshots,
             ActorRef<TflGateway.Command> tflGateway,
             Metrics metrics,
-            Duration askTimeout,
-            long minimumFreshnessMs,
-            long defaultFreshnessMs) {
+            RoutesConfig config,
+            HealthSnapshot healthSnapshot) {
+        this(system, replicator, snapshots, tflGateway, metrics, config, healthSnapshot,
+                new DateRangeCache(config.dateRangeCache()));
+    }
+
+    /**
+     * Constructor with all parameters, including the published health state and
+     * the node's date-range cache (shared with DateRangeReplicator).
+     */
+    public TubeStatusRoutes(
+            ActorSystem<?> system,
+            ActorRef<TubeStatusReplicator.Command> replicator,
+            StatusSnapshotHolder snapshots,
+            ActorRef<TflGateway.Command> tflGateway,
+            Metrics metrics,
+            RoutesConfig config,
+            HealthSnapshot healthSnapshot,
+            DateRangeCache dateRangeCache) {
         this.system = system;
         this.replicator = replicator;
-        this.tflGateway = tflGateway;
+        this.snapshots = snapshots;
         this.metrics = metrics;
-        this.askTimeout = askTimeout;
-        this.minimumFreshnessMs = minimumFreshnessMs;
-        this.defaultFreshnessMs = defaultFreshnessMs;
+        this.askTimeout = config.askTimeout();
+        this.minimumFreshnessMs = config.minimumFreshnessMs();
+        this.defaultFreshnessMs = config.defaultFreshnessMs();
+        this.backgroundRefreshThresholdMs = config.backgroundRefreshThreshold().toMillis();
         this.objectMapper = new ObjectMapper()
                 .registerModule(new JavaTimeModule())
                 .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        this.payloads = new StatusPayloadCache(objectMapper, snapshots, metrics);
+        this.cacheHeaders = new CacheHeaders(config, healthSnapshot);
+        this.streams = new StatusStreamRoutes(snapshots,
+                new SnapshotBroadcast<>(system, snapshots, StatusSnapshot.class,
+                        snapshot -> snapshot, config.streamSubscriberBuffer()),
+                payloads, metrics, config.streamHeartbeat());
+        this.longPoll = new LongPollRoutes(system, snapshots, payloads, responses, metrics, config);
+        this.changes = new StatusChangesRoutes(snapshots);
+        this.health = new HealthRoutes(healthSnapshot);
+        metrics.registerCache("date_range", dateRangeCache.asCache());
+        metrics.registerCache("date_range_negative", dateRangeCache.asNegativeCache());
+        this.dateRanges = new DateRangeRoutes(system, tflGateway, dateRangeCache, snapshots, responses, askTimeout);
+        this.webSockets = new StatusWebSocketRoutes(system, snapshots, objectMapper, metrics,
+                config.streamSubscriberBuffer());
     }
 
     /** Defines all HTTP routes for the tube status API. */
@@ -112,7 +212,7 @@ public class TubeStatusRoutes extends AllDirectives {
                                                         request.getUri().path(),
                                                         () -> concat(
                                                                 statusRoutes(),
-                                                                healthRoutes()
+                                                                health.routes()
                                                         ))
                                         )
                                 )
@@ -121,6 +221,11 @@ public class TubeStatusRoutes extends AllDirectives {
         );
     }
 
+    /** Stop the long-poll timer and snapshot listener; call once the server is unbound. */
+    public void close() {
+        longPoll.close();
+    }
+
     /**
      * Wrap route to record request metrics.
      */
@@ -138,33 +243,59 @@ public class TubeStatusRoutes extends AllDirectives {
         return pathPrefix("v1", () ->
                 pathPrefix("tube", () ->
                         concat(
-                                // GET /api/v1/tube/status?maxAgeMs=60000
-                                path("status", () ->
-                                        get(() -> parameterOptional("maxAgeMs", maxAgeStr -> {
-                                            Long requestedMaxAgeMs = maxAgeStr.map(s -> {
-                                                try {
-                                                    return Long.parseLong(s);
-                                                } catch (NumberFormatException e) {
-                                                    return null;
-                                                }
-                                            }).orElse(null);
-                                            return getAllStatusWithFreshnessFloor(requestedMaxAgeMs);
-                                        }))
+                                // GET /api/v1/tube/status/stream?lines=... (Server-Sent Events)
+                                streams.route(),
+                                // GET /api/v1/tube/status/ws (WebSocket, per-line subscriptions)
+                                webSockets.route(),
+                                // GET /api/v1/tube/status?newerThan=...&waitMs=20000 (long poll)
+                                longPoll.route(),
+                                // GET /api/v1/tube/status/changes?since=<version>
+                                changes.route(),
+                                // GET /api/v1/tube/status?maxAgeMs=60000&lines=central,victoria&fields=id,status
+                                // POST /api/v1/tube/status {"lines":[...],"maxAgeMs":60000}
+                                path("status", () -> withFields(fields -> concat(
+                                        get(() -> parameterOptional("maxAgeMs", maxAgeStr ->
+                                                parameterOptional("lines", lines -> {
+                                                    Long requestedMaxAgeMs = maxAgeStr.map(s -> {
+                                                        try {
+                                                            return Long.parseLong(s);
+                                                        } catch (NumberFormatException e) {
+                                                            return null;
+                                                        }
+                                                    }).orElse(null);
+                                                    return lines.isPresent()
+                                                            ? getLinesStatus(Arrays.asList(lines.get().split(",")),
+                                                                    requestedMaxAgeMs, fields)
+                                                            : getAllStatusWithFreshnessFloor(requestedMaxAgeMs,
+                                                                    status -> payloads.allLines(status, fields));
+                                                }))),
+                                        post(() -> entity(Jackson.unmarshaller(objectMapper, LinesQuery.class),
+                                                query -> getLinesStatus(
+                                                        query.lines() == null ? List.of() : query.lines(),
+                                                        query.maxAgeMs(), fields)))
+                                ))),
+                                // GET /api/v1/tube/status/severity/{severity}
+                                path(PathMatchers.segment("status").slash("severity").slash(PathMatchers.segment()),
+                                        severity -> get(() -> getStatusBySeverity(severity))
                                 ),
                                 // GET /api/v1/tube/disruptions
                                 path("disruptions", () ->
                                         get(this::getDisruptions)
                                 ),
+                                // GET /api/v1/tube/disruptions/planned
+                                path(PathMatchers.segment("disruptions").slash("planned"), () ->
+                                        get(this::getPlannedDisruptions)
+                                ),
                                 // GET /api/v1/tube/{lineId}/status
                                 pathPrefix(PathMatchers.segment(), lineId ->
                                         concat(
                                                 path("status", () ->
-                                                        get(() -> getLineStatus(lineId))
+                                                        get(() -> withFields(fields -> getLineStatus(lineId, fields)))
                                                 ),
                                                 // GET /api/v1/tube/{lineId}/status/{from}/to/{to}
                                                 pathPrefix("status", () ->
                                                         path(PathMatchers.segment().slash("to").slash(PathMatchers.segment()), (from, to) ->
-                                                                get(() -> getLineStatusWithDateRange(lineId, from, to))
+                                                                get(() -> dateRanges.lineStatus(lineId, from, to))
                                                         )
                                                 )
                                         )
@@ -174,63 +305,6 @@ public class TubeStatusRoutes extends AllDirectives {
         );
     }
 
-    private Route healthRoutes() {
-        return pathPrefix("health", () ->
-                concat(
-                        path("live", () ->
-                                get(() -> complete(StatusCodes.OK, "OK"))
-                        ),
-                        path("ready", () ->
-                                get(this::readinessCheck)
-                        )
-                )
-        );
-    }
-
-    private Route readinessCheck() {
-        // Ask replicator for status and gateway for circuit state in parallel
-        CompletionStage<StatusResponse> statusFuture = AskPattern.ask(
-                replicator,
-                GetStatus::new,
-                askTimeout,
-                system.scheduler());
-
-        CompletionStage<TflGateway.CircuitStateResponse> circuitFuture = AskPattern.ask(
-                tflGateway,
-                TflGateway.GetCircuitState::new,
-                askTimeout,
-                system.scheduler());
-
-        return onSuccess(statusFuture.thenCombine(circuitFuture, (status, circuit) ->
-                Map.of("status", status, "circuit", circuit)
-        ), combined -> {
-            @SuppressWarnings("unchecked")
-            var statusResp = (StatusResponse) combined.get("status");
-            @SuppressWarnings("unchecked")
-            var circuitResp = (TflGateway.CircuitStateResponse) combined.get("circuit");
-
-            boolean hasData = statusResp.status() != null;
-
-            if (!hasData) {
-                return complete(StatusCodes.SERVICE_UNAVAILABLE,
-                        Map.of(
-                                "status", "warming_up",
-                                "reason", "No cached data yet",
-                                "circuit", circuitResp.state().name()
-                        ),
-                        Jackson.marshaller(objectMapper));
-            }
-
-            return complete(StatusCodes.OK,
-                    Map.of(
-                            "status", "ready",
-                            "circuit", circuitResp.state().name(),
-                            "dataAgeMs", statusResp.status().ageMs()
-                    ),
-                    Jackson.marshaller(objectMapper));
-        });
-    }
-
     /**
      * Apply freshness floor and default, then delegate to getAllStatus.
      *
@@ -240,8 +314,11 @@ public class TubeStatusRoutes extends AllDirectives {
      * - Potential abuse (one client exhausting TfL quota for everyone)
      *
      * We transparently upgrade to floor and tell the client what we did.
+     *
+     * view picks the payload served from whichever status is chosen (all lines, a selection).
      */
-    private Route getAllStatusWithFreshnessFloor(Long requestedMaxAgeMs) {
+    private Route getAllStatusWithFreshnessFloor(Long requestedMaxAgeMs,
+                                                 Function<TubeStatus, JsonPayload> view) {
         // Apply default if not specified
         Long effectiveMaxAgeMs = requestedMaxAgeMs != null ? requestedMaxAgeMs : defaultFreshnessMs;
 
@@ -256,7 +333,7 @@ public class TubeStatusRoutes extends AllDirectives {
         }
 
         // Delegate to actual status fetch
-        Route innerRoute = getAllStatus(effectiveMaxAgeMs);
+        Route innerRoute = getAllStatus(effectiveMaxAgeMs, requestedMaxAgeMs != null, view);
 
         // Add transparency headers if floor was applied
         if (floorApplied) {
@@ -270,163 +347,141 @@ public class TubeStatusRoutes extends AllDirectives {
         return innerRoute;
     }
 
-    private Route getAllStatus(Long maxAgeMs) {
-        // Delegate freshness decision to Replicator
+    /**
+     * Multi-line query: one snapshot read for all requested lines, so they share a
+     * dataAsOfUtc. Same freshness floor and staleness handling as the full status.
+     * Ids are checked against the current snapshot (the set of lines is static).
+     */
+    private Route getLinesStatus(List<String> requested, Long requestedMaxAgeMs, FieldSet fields) {
+        List<String> lineIds = requested.stream().map(String::trim).filter(id -> !id.isEmpty()).toList();
+        if (lineIds.isEmpty()) {
+            return complete(JsonErrors.EMPTY_LINES);
+        }
+        TubeStatus current = snapshots.current();
+        List<String> unknown = current == null ? List.of() : payloads.unknownLines(current, lineIds);
+        if (!unknown.isEmpty()) {
+            return complete(JsonErrors.of(StatusCodes.NOT_FOUND, "Line not found: " + String.join(",", unknown)));
+        }
+        return getAllStatusWithFreshnessFloor(requestedMaxAgeMs, status -> payloads.lines(status, lineIds, fields));
+    }
+
+    /** clientBounded = maxAgeMs came from the client, so shared caches must not stretch it. */
+    private Route getAllStatus(Long maxAgeMs, boolean clientBounded, Function<TubeStatus, JsonPayload> view) {
+        // Fast path: the published snapshot already satisfies the client - no actor involved
+        TubeStatus snapshot = snapshots.current();
+        if (snapshot != null && snapshot.ageMs() <= maxAgeMs) {
+            if (snapshot.ageMs() > backgroundRefreshThresholdMs
+                    && snapshots.claimBackgroundRefresh(snapshot)) {
+                log.debug("Snapshot is {}ms old (> {}ms soft threshold) - triggering background refresh",
+                        snapshot.ageMs(), backgroundRefreshThresholdMs);
+                replicator.tell(new TriggerBackgroundRefresh());
+            }
+            return completeStatus(new StatusResponse(snapshot, false, maxAgeMs), maxAgeMs, clientBounded, view);
+        }
+
+        // Slow path: no data yet or too stale for this client - Replicator decides whether to hit TfL
         CompletionStage<StatusResponse> future = AskPattern.ask(
                 replicator,
                 ref -> new GetStatusWithFreshness(maxAgeMs, ref),
                 askTimeout,
                 system.scheduler());
 
-        return onSuccess(future, response -> {
-            TubeStatus status = response.status();
+        return onSuccess(future, response -> completeStatus(response, maxAgeMs, clientBounded, view));
+    }
 
-            if (status == null) {
-                return complete(StatusCodes.SERVICE_UNAVAILABLE,
-                        Map.of("error", "No data available"),
-                        Jackson.marshaller(objectMapper));
-            }
+    private Route completeStatus(StatusResponse response, long maxAgeMs, boolean clientBounded,
+                                 Function<TubeStatus, JsonPayload> view) {
+        TubeStatus status = response.status();
 
-            // Record data freshness metric
-            metrics.updateDataFreshness(status.ageMs());
+        if (status == null) {
+            return noDataAvailable();
+        }
 
-            Route result = complete(StatusCodes.OK,
-                    toApiResponse(status),
-                    Jackson.marshaller(objectMapper));
+        // Record data freshness metric
+        metrics.updateDataFreshness(status.ageMs());
 
-            // Add staleness headers if data is older than requested
-            if (response.isStale()) {
-                return respondWithHeader(RawHeader.create("X-Data-Stale", "true"), () ->
-                        respondWithHeader(RawHeader.create("X-Requested-Max-Age-Ms",
-                                String.valueOf(response.requestedMaxAgeMs())), () ->
-                                respondWithHeader(RawHeader.create("X-Actual-Age-Ms",
-                                        String.valueOf(status.ageMs())), () -> result)));
-            }
+        List<HttpHeader> cacheControl = cacheHeaders.forStatus(status, maxAgeMs, clientBounded);
 
-            return result;
-        });
+        // Stale answers never get a 304: the client's copy doesn't meet its own maxAgeMs
+        if (!response.isStale()) {
+            return respondWithHeaders(cacheControl, () -> responses.completeWithValidators(view.apply(status)));
+        }
+
+        // Add staleness headers since data is older than requested
+        List<HttpHeader> stale = List.of(
+                RawHeader.create("X-Data-Stale", "true"),
+                RawHeader.create("X-Requested-Max-Age-Ms", String.valueOf(response.requestedMaxAgeMs())),
+                RawHeader.create("X-Actual-Age-Ms", String.valueOf(status.ageMs())));
+        return respondWithHeaders(cacheControl, () -> responses.completeWithoutValidators(view.apply(status), stale));
     }
 
     private Route getDisruptions() {
-        CompletionStage<StatusResponse> future = AskPattern.ask(
-                replicator,
-                GetStatus::new,
-                askTimeout,
-                system.scheduler());
-
-        return onSuccess(future, response -> {
-            if (response.status() == null) {
-                return complete(StatusCodes.SERVICE_UNAVAILABLE,
-                        Map.of("error", "No data available"),
-                        Jackson.marshaller(objectMapper));
-            }
-            var disrupted = response.status().lines().stream()
-                    .filter(line -> line.disruptions() != null &&
-                            line.disruptions().stream().anyMatch(d -> !d.isPlanned()))
-                    .toList();
-            var filtered = new TubeStatus(disrupted,
-                    response.status().queriedAt(),
-                    response.status().queriedBy());
-            return complete(StatusCodes.OK,
-                    toApiResponse(filtered),
-                    Jackson.marshaller(objectMapper));
-        });
+        StatusSnapshot snapshot = snapshots.snapshot();
+        if (snapshot == null) {
+            return noDataAvailable();
+        }
+        return respondWithHeaders(cacheHeaders.forStatus(snapshot.status()), () ->
+                responses.completeWithValidators(payloads.disruptions(snapshot)));
     }
 
-    private Route getLineStatus(String lineId) {
-        CompletionStage<StatusResponse> future = AskPattern.ask(
-                replicator,
-                GetStatus::new,
-                askTimeout,
-                system.scheduler());
-
-        return onSuccess(future, response -> {
-            if (response.status() == null) {
-                return complete(StatusCodes.SERVICE_UNAVAILABLE,
-                        Map.of("error", "No data available"),
-                        Jackson.marshaller(objectMapper));
-            }
-            var lineStatus = response.status().lines().stream()
-                    .filter(line -> line.id().equalsIgnoreCase(lineId))
-                    .findFirst();
-
-            if (lineStatus.isEmpty()) {
-                return complete(StatusCodes.NOT_FOUND,
-                        Map.of("error", "Line not found: " + lineId),
-                        Jackson.marshaller(objectMapper));
-            }
-
-            var filtered = new TubeStatus(
-                    java.util.List.of(lineStatus.get()),
-                    response.status().queriedAt(),
-                    response.status().queriedBy());
-            return complete(StatusCodes.OK,
-                    toApiResponse(filtered),
-                    Jackson.marshaller(objectMapper));
-        });
+    private Route getPlannedDisruptions() {
+        StatusSnapshot snapshot = snapshots.snapshot();
+        if (snapshot == null) {
+            return noDataAvailable();
+        }
+        return respondWithHeaders(cacheHeaders.forStatus(snapshot.status()), () ->
+                responses.completeWithValidators(payloads.plannedDisruptions(snapshot)));
     }
 
-    private Route getLineStatusWithDateRange(String lineId, String fromStr, String toStr) {
-        LocalDate from;
-        LocalDate to;
-        try {
-            from = LocalDate.parse(fromStr, DateTimeFormatter.ISO_LOCAL_DATE);
-            to = LocalDate.parse(toStr, DateTimeFormatter.ISO_LOCAL_DATE);
-        } catch (DateTimeParseException e) {
-            return complete(StatusCodes.BAD_REQUEST,
-                    Map.of("error", "Invalid date format. Use YYYY-MM-DD"),
-                    Jackson.marshaller(objectMapper));
+    private Route getStatusBySeverity(String severity) {
+        StatusSnapshot snapshot = snapshots.snapshot();
+        if (snapshot == null) {
+            return noDataAvailable();
         }
+        return respondWithHeaders(cacheHeaders.forStatus(snapshot.status()), () ->
+                responses.completeWithValidators(payloads.severity(snapshot, severity)));
+    }
 
-        if (from.isAfter(to)) {
-            return complete(StatusCodes.BAD_REQUEST,
-                    Map.of("error", "Start date must be before or equal to end date"),
-                    Jackson.marshaller(objectMapper));
+    private Route getLineStatus(String lineId, FieldSet fields) {
+        TubeStatus status = snapshots.current();
+        if (status == null) {
+            return noDataAvailable();
+        }
+        JsonPayload payload = payloads.line(status, lineId, fields);
+        if (payload == null) {
+            return complete(JsonErrors.of(StatusCodes.NOT_FOUND, "Line not found: " + lineId));
         }
 
-        // Date range queries bypass cache - ask TflGateway directly
-        CompletionStage<TflGateway.FetchResponse> future = AskPattern.ask(
-                tflGateway,
-                ref -> new TflGateway.FetchLineWithDateRange(lineId, from, to, ref),
-                askTimeout,
-                system.scheduler());
+        return respondWithHeaders(cacheHeaders.forStatus(status), () -> responses.completeWithValidators(payload));
+    }
 
-        return onSuccess(future, response -> {
-            if (response.error() != null) {
-                log.warn("TfL fetch failed for date range query: {}", response.error().getMessage());
-                return complete(StatusCodes.SERVICE_UNAVAILABLE,
-                        Map.of("error", "Failed to fetch from TfL"),
-                        Jackson.marshaller(objectMapper));
+    /**
+     * Parse ?fields= (sparse fieldsets); absent means every field. Unknown fields are a 400.
+     */
+    private Route withFields(Function<FieldSet, Route> inner) {
+        return parameterOptional("fields", fields -> {
+            if (fields.isEmpty()) {
+                return inner.apply(null);
             }
-
-            if (response.status() == null || response.status().lines().isEmpty()) {
-                return complete(StatusCodes.NOT_FOUND,
-                        Map.of("error", "No status found for line: " + lineId),
-                        Jackson.marshaller(objectMapper));
+            FieldSet fieldSet;
+            try {
+                fieldSet = FieldSet.parse(fields.get());
+            } catch (IllegalArgumentException e) {
+                return complete(JsonErrors.of(StatusCodes.BAD_REQUEST, e.getMessage()));
             }
-            return complete(StatusCodes.OK,
-                    toApiResponse(response.status()),
-                    Jackson.marshaller(objectMapper));
+            return inner.apply(fieldSet);
         });
     }
 
-    private ApiResponse toApiResponse(TubeStatus status) {
-        return new ApiResponse(
-                status.lines(),
-                new ApiResponse.Meta(
-                        status.queriedAt(),      // dataAsOfUtc
-                        Instant.now()            // respondedAtUtc
-                )
-        );
+    private Route noDataAvailable() {
+        return complete(JsonErrors.NO_DATA);
     }
 
     private ExceptionHandler exceptionHandler() {
         return ExceptionHandler.newBuilder()
                 .match(Exception.class, e -> {
                     log.error("Unhandled exception", e);
-                    return complete(StatusCodes.INTERNAL_SERVER_ERROR,
-                            Map.of("error", "Internal server error"),
-                            Jackson.marshaller(objectMapper));
+                    return complete(JsonErrors.INTERNAL_ERROR);
                 })
                 .build();
     }
@@ -434,19 +489,4 @@ public class TubeStatusRoutes extends AllDirectives {
     private RejectionHandler rejectionHandler() {
         return RejectionHandler.defaultHandler();
     }
-
-    public record ApiResponse(
-            java.util.List<TubeStatus.LineStatus> lines,
-            Meta meta
-    ) {
-        /**
-         * Response metadata with explicit timestamps.
-         * All times are UTC ISO-8601 format (e.g., "2024-01-15T10:30:00.123Z").
-         * Client can compute freshness as: respondedAtUtc - dataAsOfUtc
-         */
-        public record Meta(
-                java.time.Instant dataAsOfUtc,      // When TfL was queried for this data
-                java.time.Instant respondedAtUtc    // When this response was generated
-        ) {}
-    }
 }
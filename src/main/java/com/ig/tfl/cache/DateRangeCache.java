@@ -0,0 +1,314 @@
+package com.ig.tfl.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.ig.tfl.model.TubeStatus;
+import com.typesafe.config.Config;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-node cache of TfL date-range answers (DATE_RANGE_CACHING.md, option A).
+ *
+ * Caffeine with W-TinyLFU eviction: a range asked for once does not push out
+ * the weekend everyone is asking about. Bounded by estimated retained bytes
+ * rather than entry count, since a range with many disruptions weighs far more
+ * than a Good Service one.
+ *
+ * Each entry expires ttl after TfL was queried for it (its queriedAt, so an
+ * answer fetched by another node expires when the original would), or pastTtl
+ * if the whole range is already in the past (TfL's answer for it no longer
+ * changes). Only successful, non-empty answers should be put here: errors and
+ * empty results must reach TfL again.
+ *
+ * Lookups are also counted per key, so DateRangeReplicator can share only the
+ * ranges this node is actually asked for repeatedly.
+ *
+ * Separately, line ids TfL has no line for are kept for a short negativeTtl,
+ * so repeated queries for an unknown line are answered 404 without a TfL
+ * call. Callers drop them when a live snapshot shows the line exists.
+ *
+ * Demand per requested range is tracked in a bounded Space-Saving sketch, so
+ * DateRangePrefetcher can keep the most requested ranges warm.
+ */
+public final class DateRangeCache {
+
+    /**
+     * Cache bounds, read from tfl.date-range-cache in production. Ranges of up
+     * to maxBucketedDays days are cached as one entry per day (see DayBuckets).
+     * Lines TfL does not know are remembered for negativeTtl, for up to
+     * negativeMaxEntries line ids. Demand is tracked for up to trackedRanges
+     * requested ranges.
+     */
+    public record Settings(long maxBytes, Duration ttl, Duration pastTtl, int maxBucketedDays,
+                           Duration negativeTtl, long negativeMaxEntries, int trackedRanges) {
+
+        public static Settings fromConfig(Config config) {
+            return new Settings(
+                    config.getBytes("tfl.date-range-cache.max-bytes"),
+                    config.getDuration("tfl.date-range-cache.ttl"),
+                    config.getDuration("tfl.date-range-cache.past-ttl"),
+                    config.getInt("tfl.date-range-cache.max-bucketed-days"),
+                    config.getDuration("tfl.date-range-cache.negative.ttl"),
+                    config.getLong("tfl.date-range-cache.negative.max-entries"),
+                    config.getInt("tfl.date-range-cache.prefetch.tracked-ranges"));
+        }
+
+        /** 16 MiB, 5 minutes, 6 hours, 31 days; negative: 1 minute, 10,000 lines; 1,024 ranges (for testing). */
+        public static Settings defaults() {
+            return new Settings(16L * 1024 * 1024, Duration.ofMinutes(5), Duration.ofHours(6), 31,
+                    Duration.ofMinutes(1), 10_000, 1024);
+        }
+    }
+
+    // Keys whose lookups are counted; beyond this the least recently asked lose their counts
+    private static final int MAX_COUNTED_KEYS = 10_000;
+
+    // Rough per-object costs for the weigher: header + fields, and a String's own header + array header
+    private static final int OBJECT_BYTES = 32;
+    private static final int STRING_BYTES = 56;
+
+    private final Cache<DateRangeKey, TubeStatus> cache;
+    private final Cache<DateRangeKey, AtomicInteger> requests;
+    private final Cache<String, Boolean> missingLines;
+    private final SpaceSaving<DateRangeKey> demand;
+    private final Duration ttl;
+    private final Duration pastTtl;
+    private final int maxBucketedDays;
+    private final Clock clock;
+
+    public DateRangeCache(Settings settings) {
+        this(settings, Ticker.systemTicker(), Clock.systemUTC(), ForkJoinPool.commonPool());
+    }
+
+    /** Constructor with an explicit time source and maintenance executor (for testing). */
+    DateRangeCache(Settings settings, Ticker ticker, Clock clock, Executor executor) {
+        this.ttl = settings.ttl();
+        this.pastTtl = settings.pastTtl();
+        this.maxBucketedDays = settings.maxBucketedDays();
+        this.clock = clock;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(settings.maxBytes())
+                .weigher(DateRangeCache::estimateBytes)
+                .expireAfter(new RangeExpiry(this))
+                .ticker(ticker)
+                .executor(executor)
+                .recordStats()
+                .build();
+        this.requests = Caffeine.newBuilder()
+                .maximumSize(MAX_COUNTED_KEYS)
+                .expireAfterAccess(settings.ttl())
+                .ticker(ticker)
+                .executor(executor)
+                .build();
+        this.missingLines = Caffeine.newBuilder()
+                .maximumSize(settings.negativeMaxEntries())
+                .expireAfterWrite(settings.negativeTtl())
+                .ticker(ticker)
+                .executor(executor)
+                .recordStats()
+                .build();
+        this.demand = new SpaceSaving<>(settings.trackedRanges());
+    }
+
+    /** The cached answer for key, or null. Counts as a request for key. */
+    public TubeStatus get(DateRangeKey key) {
+        requests.get(key, k -> new AtomicInteger()).incrementAndGet();
+        return cache.getIfPresent(key);
+    }
+
+    public void put(DateRangeKey key, TubeStatus status) {
+        cache.put(key, status);
+    }
+
+    /**
+     * Cache TfL's answer for range: one entry per day if the range is short
+     * enough (from days, or status on every day if TfL's answer was not split),
+     * else one entry for the whole range. Returns the per-day entries written,
+     * empty for a whole-range entry.
+     */
+    public Map<LocalDate, TubeStatus> putFetched(DateRangeKey range, TubeStatus status,
+                                                 Map<LocalDate, TubeStatus> days) {
+        if (!bucketsByDay(range.from(), range.to())) {
+            put(range, status);
+            return Map.of();
+        }
+        Map<LocalDate, TubeStatus> byDay = days.isEmpty()
+                ? DayBuckets.spread(status, range.from(), range.to())
+                : days;
+        Map<LocalDate, TubeStatus> written = new TreeMap<>();
+        byDay.forEach((day, onDay) -> {
+            if (!day.isBefore(range.from()) && !day.isAfter(range.to())) {
+                put(DayBuckets.day(range.lineId(), day), onDay);
+                written.put(day, onDay);
+            }
+        });
+        return written;
+    }
+
+    /** Put unless the cache already holds an answer queried at or after status's. */
+    public void putIfNewer(DateRangeKey key, TubeStatus status) {
+        cache.asMap().merge(key, status,
+                (current, offered) -> offered.isFresherThan(current) ? offered : current);
+    }
+
+    /** Lookups of key since it was last asked for more than ttl ago. */
+    public int requests(DateRangeKey key) {
+        AtomicInteger count = requests.getIfPresent(key);
+        return count == null ? 0 : count.get();
+    }
+
+    /** Live view of the unexpired entries (reading it does not count as requests). */
+    public Map<DateRangeKey, TubeStatus> entries() {
+        return cache.asMap();
+    }
+
+    /** How long an answer for key is reused after TfL was queried. */
+    public Duration lifetime(DateRangeKey key) {
+        return key.isPast(LocalDate.now(clock)) ? pastTtl : ttl;
+    }
+
+    /** Lifetime left for status, from its queriedAt; negative once expired. */
+    public Duration remaining(DateRangeKey key, TubeStatus status) {
+        return lifetime(key).minus(Duration.between(status.queriedAt(), clock.instant()));
+    }
+
+    /**
+     * Lifetime left for the cached answer to a requested range: that of its
+     * first-expiring day if bucketed, zero if any part is not cached. Does not
+     * count as a request.
+     */
+    public Duration remaining(DateRangeKey range) {
+        if (!bucketsByDay(range.from(), range.to())) {
+            TubeStatus status = cache.asMap().get(range);
+            return status == null ? Duration.ZERO : remaining(range, status);
+        }
+        Duration least = null;
+        for (LocalDate day = range.from(); !day.isAfter(range.to()); day = day.plusDays(1)) {
+            DateRangeKey key = DayBuckets.day(range.lineId(), day);
+            TubeStatus status = cache.asMap().get(key);
+            if (status == null) {
+                return Duration.ZERO;
+            }
+            Duration left = remaining(key, status);
+            if (least == null || left.compareTo(least) < 0) {
+                least = left;
+            }
+        }
+        return least;
+    }
+
+    /** Count one request for range as asked (before per-day decomposition), for prefetching. */
+    public void recordDemand(DateRangeKey range) {
+        demand.offer(range);
+    }
+
+    /** The k most requested ranges, most requested first. */
+    public List<SpaceSaving.Estimate<DateRangeKey>> hottest(int k) {
+        return demand.top(k);
+    }
+
+    /** Halve all demand counts, so ranges no longer asked for drop out. */
+    public void decayDemand() {
+        demand.decay();
+    }
+
+    /** True if from..to is short enough to be cached one day per entry. */
+    public boolean bucketsByDay(LocalDate from, LocalDate to) {
+        return ChronoUnit.DAYS.between(from, to) < maxBucketedDays;
+    }
+
+    public void invalidate(DateRangeKey key) {
+        cache.invalidate(key);
+    }
+
+    /** True if TfL recently answered that it has no line lineId (404, or no lines). */
+    public boolean isMissing(String lineId) {
+        return missingLines.getIfPresent(lineId.toLowerCase(Locale.ROOT)) != null;
+    }
+
+    /** Remember that TfL has no line lineId, for negativeTtl. */
+    public void putMissing(String lineId) {
+        missingLines.put(lineId.toLowerCase(Locale.ROOT), Boolean.TRUE);
+    }
+
+    /** Forget negative answers for lines known to exist, e.g. those in a live snapshot. */
+    public void forgetMissing(Collection<String> lineIds) {
+        if (missingLines.estimatedSize() == 0) {
+            return;
+        }
+        missingLines.invalidateAll(lineIds.stream().map(id -> id.toLowerCase(Locale.ROOT)).toList());
+    }
+
+    /** The underlying cache, for metrics binding. */
+    public Cache<DateRangeKey, TubeStatus> asCache() {
+        return cache;
+    }
+
+    /** The negative (missing line) cache, for metrics binding. */
+    public Cache<String, Boolean> asNegativeCache() {
+        return missingLines;
+    }
+
+    /**
+     * Approximate heap retained by one entry: strings at one byte per char
+     * (compact strings; TfL text is almost all Latin-1) plus per-object overheads.
+     */
+    static int estimateBytes(DateRangeKey key, TubeStatus status) {
+        long bytes = OBJECT_BYTES * 3L + STRING_BYTES + key.lineId().length();
+        bytes += OBJECT_BYTES + STRING_BYTES + length(status.queriedBy());
+        for (TubeStatus.LineStatus line : status.lines()) {
+            bytes += OBJECT_BYTES + 4L * STRING_BYTES
+                    + length(line.id()) + length(line.name())
+                    + length(line.status()) + length(line.statusSeverityDescription());
+            if (line.disruptions() != null) {
+                for (TubeStatus.Disruption disruption : line.disruptions()) {
+                    bytes += OBJECT_BYTES + 2L * STRING_BYTES
+                            + length(disruption.category()) + length(disruption.description());
+                }
+            }
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    /** Lifetime counted from the answer's queriedAt; reads do not extend it. */
+    private static final class RangeExpiry implements Expiry<DateRangeKey, TubeStatus> {
+        private final DateRangeCache owner;
+
+        RangeExpiry(DateRangeCache owner) {
+            this.owner = owner;
+        }
+
+        @Override
+        public long expireAfterCreate(DateRangeKey key, TubeStatus value, long currentTime) {
+            return Math.max(0, owner.remaining(key, value).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(DateRangeKey key, TubeStatus value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(DateRangeKey key, TubeStatus value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
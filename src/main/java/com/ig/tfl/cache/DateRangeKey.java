@@ -0,0 +1,37 @@
+package com.ig.tfl.cache;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Identity of a date-range query: one line, inclusive from/to dates.
+ *
+ * Line ids are case-insensitive in TfL's API, so the id is lowercased here
+ * and /tube/Victoria/... and /tube/victoria/... share an entry.
+ */
+public record DateRangeKey(String lineId, LocalDate from, LocalDate to) {
+
+    public DateRangeKey {
+        lineId = lineId.toLowerCase(Locale.ROOT);
+    }
+
+    /** Inverse of toString(). */
+    public static DateRangeKey parse(String key) {
+        String[] parts = key.split(":", 3);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Not a date-range key: " + key);
+        }
+        return new DateRangeKey(parts[0], LocalDate.parse(parts[1]), LocalDate.parse(parts[2]));
+    }
+
+    /** True if the whole range is before today: TfL's answer for it no longer changes. */
+    public boolean isPast(LocalDate today) {
+        return to.isBefore(today);
+    }
+
+    /** "line:from:to", e.g. "victoria:2026-02-14:2026-02-15". */
+    @Override
+    public String toString() {
+        return lineId + ":" + from + ":" + to;
+    }
+}
@@ -0,0 +1,114 @@
+package com.ig.tfl.cache;
+
+import com.ig.tfl.model.TubeStatus;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Per-day decomposition of date-range queries (DATE_RANGE_CACHING.md, per-day buckets).
+ *
+ * A range is cached as one entry per day, keyed by the one-day DateRangeKey
+ * (line, day, day), so overlapping ranges share their common days. On a
+ * query, the days not cached are grouped into the fewest contiguous runs and
+ * only those runs are fetched from TfL; the days are then merged back into a
+ * single answer for the whole range.
+ */
+public final class DayBuckets {
+
+    private DayBuckets() {} // Utility class
+
+    /** The cache key for one day of lineId. */
+    public static DateRangeKey day(String lineId, LocalDate day) {
+        return new DateRangeKey(lineId, day, day);
+    }
+
+    /**
+     * The smallest ranges covering the days from..to that are not cached,
+     * in date order: one per contiguous run of missing days.
+     */
+    public static List<DateRangeKey> missingRuns(String lineId, LocalDate from, LocalDate to,
+                                                 Predicate<LocalDate> cached) {
+        List<DateRangeKey> runs = new ArrayList<>();
+        LocalDate runStart = null;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            if (!cached.test(day)) {
+                if (runStart == null) {
+                    runStart = day;
+                }
+            } else if (runStart != null) {
+                runs.add(new DateRangeKey(lineId, runStart, day.minusDays(1)));
+                runStart = null;
+            }
+        }
+        if (runStart != null) {
+            runs.add(new DateRangeKey(lineId, runStart, to));
+        }
+        return runs;
+    }
+
+    /**
+     * The status on each day of from..to for an answer that was not split by
+     * day: the whole answer applies to every day.
+     */
+    public static Map<LocalDate, TubeStatus> spread(TubeStatus status, LocalDate from, LocalDate to) {
+        Map<LocalDate, TubeStatus> days = new LinkedHashMap<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            days.put(day, status);
+        }
+        return days;
+    }
+
+    /**
+     * Merge per-day answers, in date order, into one answer for their range.
+     *
+     * Lines keep the order they first appear in. A line's status is the one on
+     * its first day without Good Service (Good Service only if every day has
+     * it), and its disruptions are those of all days, duplicates dropped.
+     * queriedAt (and queriedBy) come from the oldest day, so the answer never
+     * claims to be fresher than any part of it.
+     */
+    public static TubeStatus merge(List<TubeStatus> days) {
+        if (days.size() == 1) {
+            return days.get(0);
+        }
+        Map<String, TubeStatus.LineStatus> lines = new LinkedHashMap<>();
+        Map<String, Set<TubeStatus.Disruption>> disruptions = new LinkedHashMap<>();
+        TubeStatus oldest = null;
+        for (TubeStatus day : days) {
+            if (oldest == null || day.queriedAt().isBefore(oldest.queriedAt())) {
+                oldest = day;
+            }
+            for (TubeStatus.LineStatus line : day.lines()) {
+                TubeStatus.LineStatus first = lines.get(line.id());
+                if (first == null || (isGoodService(first) && !isGoodService(line))) {
+                    lines.put(line.id(), line);
+                }
+                Set<TubeStatus.Disruption> lineDisruptions =
+                        disruptions.computeIfAbsent(line.id(), id -> new LinkedHashSet<>());
+                if (line.disruptions() != null) {
+                    lineDisruptions.addAll(line.disruptions());
+                }
+            }
+        }
+
+        List<TubeStatus.LineStatus> merged = new ArrayList<>(lines.size());
+        for (TubeStatus.LineStatus line : lines.values()) {
+            merged.add(new TubeStatus.LineStatus(line.id(), line.name(), line.status(),
+                    line.statusSeverityDescription(), List.copyOf(disruptions.get(line.id()))));
+        }
+        Instant queriedAt = oldest == null ? Instant.EPOCH : oldest.queriedAt();
+        return new TubeStatus(merged, queriedAt, oldest == null ? null : oldest.queriedBy());
+    }
+
+    private static boolean isGoodService(TubeStatus.LineStatus line) {
+        return TubeStatus.LineStatus.GOOD_SERVICE.equals(line.status());
+    }
+}
@@ -0,0 +1,115 @@
+package com.ig.tfl.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Space-Saving heavy-hitters sketch (Metwally et al.): approximate counts of
+ * the most frequent keys in a stream, in at most capacity counters.
+ *
+ * A key not being tracked takes over the counter of the least counted key,
+ * inheriting its count as error. Any key occurring more than n / capacity
+ * times in n offers is tracked, and a tracked key's true count lies between
+ * count - error and count.
+ *
+ * Counters are kept in buckets by count, so offer is O(log capacity).
+ * decay() halves every count, so old demand fades. Thread-safe.
+ */
+public final class SpaceSaving<K> {
+
+    /** Estimated count of key: at least guaranteed(), at most count. */
+    public record Estimate<K>(K key, long count, long error) {
+
+        public long guaranteed() {
+            return count - error;
+        }
+    }
+
+    private static final class Counter {
+        long count;
+        long error;
+    }
+
+    private final int capacity;
+    private final Map<K, Counter> counters = new HashMap<>();
+    // Tracked keys by count
+    private final TreeMap<Long, Set<K>> byCount = new TreeMap<>();
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    /** Count one occurrence of key. */
+    public synchronized void offer(K key) {
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            unlink(key, counter.count);
+            counter.count++;
+            link(key, counter.count);
+            return;
+        }
+
+        counter = new Counter();
+        if (counters.size() >= capacity) {
+            Map.Entry<Long, Set<K>> least = byCount.firstEntry();
+            K victim = least.getValue().iterator().next();
+            unlink(victim, least.getKey());
+            counters.remove(victim);
+            counter.error = least.getKey();
+        }
+        counter.count = counter.error + 1;
+        counters.put(key, counter);
+        link(key, counter.count);
+    }
+
+    /** Up to k tracked keys, highest count first. */
+    public synchronized List<Estimate<K>> top(int k) {
+        List<Estimate<K>> top = new ArrayList<>(Math.min(k, counters.size()));
+        for (Set<K> keys : byCount.descendingMap().values()) {
+            for (K key : keys) {
+                if (top.size() >= k) {
+                    return top;
+                }
+                Counter counter = counters.get(key);
+                top.add(new Estimate<>(key, counter.count, counter.error));
+            }
+        }
+        return top;
+    }
+
+    /** Halve every count (and error); keys whose count reaches zero are no longer tracked. */
+    public synchronized void decay() {
+        byCount.clear();
+        counters.entrySet().removeIf(entry -> {
+            Counter counter = entry.getValue();
+            counter.count /= 2;
+            counter.error /= 2;
+            return counter.count == 0;
+        });
+        counters.forEach((key, counter) -> link(key, counter.count));
+    }
+
+    public synchronized int size() {
+        return counters.size();
+    }
+
+    private void link(K key, long count) {
+        byCount.computeIfAbsent(count, c -> new LinkedHashSet<>()).add(key);
+    }
+
+    private void unlink(K key, long count) {
+        Set<K> keys = byCount.get(count);
+        keys.remove(key);
+        if (keys.isEmpty()) {
+            byCount.remove(count);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.ig.tfl.client;
+
+import com.ig.tfl.cache.DateRangeCache;
+import com.ig.tfl.cache.DateRangeKey;
+import com.ig.tfl.cache.SpaceSaving;
+import com.ig.tfl.observability.Metrics;
+import com.typesafe.config.Config;
+import org.apache.pekko.actor.typed.ActorRef;
+import org.apache.pekko.actor.typed.Behavior;
+import org.apache.pekko.actor.typed.javadsl.AbstractBehavior;
+import org.apache.pekko.actor.typed.javadsl.ActorContext;
+import org.apache.pekko.actor.typed.javadsl.Behaviors;
+import org.apache.pekko.actor.typed.javadsl.Receive;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Keeps the most requested date ranges warm, so planned-works lookups (this
+ * weekend, next weekend, next 7 days) hit the cache instead of waiting on TfL.
+ *
+ * Every interval, takes the topK ranges from DateRangeCache's demand sketch
+ * (requested at least minRequests times; counts are halved after each pass) and
+ * refreshes, through TflGateway, those whose cached answer is missing or has
+ * less than refreshAhead left. Refreshed answers are cached exactly as a
+ * user's fetch would be, and share in-flight calls and batches with users.
+ *
+ * TfL quota: at most budgetPerMinute prefetch calls a minute (a token bucket
+ * refilled each interval); ranges beyond the budget wait for the next tick,
+ * hottest first. While the circuit breaker is not CLOSED no prefetching is
+ * done, and the ticks skipped double (up to 32 intervals) for as long as it
+ * stays that way: prefetches must not compete with recovery probes.
+ */
+public class DateRangePrefetcher extends AbstractBehavior<DateRangePrefetcher.Command> {
+    private static final Logger log = LoggerFactory.getLogger(DateRangePrefetcher.class);
+
+    // Longest back-off, in intervals, while the circuit is not closed
+    private static final int MAX_BACKOFF_TICKS = 32;
+
+    /**
+     * Prefetch policy, read from tfl.date-range-cache.prefetch in production.
+     */
+    public record Settings(Duration interval, int topK, int minRequests, Duration refreshAhead,
+                           int budgetPerMinute) {
+
+        public static Settings fromConfig(Config config) {
+            return new Settings(
+                    config.getDuration("tfl.date-range-cache.prefetch.interval"),
+                    config.getInt("tfl.date-range-cache.prefetch.top-k"),
+                    config.getInt("tfl.date-range-cache.prefetch.min-requests"),
+                    config.getDuration("tfl.date-range-cache.prefetch.refresh-ahead"),
+                    config.getInt("tfl.date-range-cache.prefetch.budget-per-minute"));
+        }
+    }
+
+    // Message types
+    public sealed interface Command {}
+
+    private record Tick() implements Command {}
+
+    private record CircuitChecked(TflGateway.CircuitState state) implements Command {}
+
+    private record Prefetched(DateRangeKey range, TflGateway.FetchResponse response) implements Command {}
+
+    private final ActorRef<TflGateway.Command> tflGateway;
+    private final DateRangeCache cache;
+    private final Metrics metrics;
+    private final Settings settings;
+
+    // Ranges with a prefetch in flight, not asked for again until it completes
+    private final Set<DateRangeKey> inFlight = new HashSet<>();
+
+    private double tokens;
+    private int backoffTicks;
+    private int ticksToSkip;
+
+    public static Behavior<Command> create(ActorRef<TflGateway.Command> tflGateway, DateRangeCache cache,
+                                           Metrics metrics, Settings settings) {
+        return Behaviors.setup(context ->
+                Behaviors.withTimers(timers -> {
+                    timers.startTimerWithFixedDelay("prefetch", new Tick(), settings.interval());
+                    return new DateRangePrefetcher(context, tflGateway, cache, metrics, settings);
+                }));
+    }
+
+    private DateRangePrefetcher(ActorContext<Command> context, ActorRef<TflGateway.Command> tflGateway,
+                                DateRangeCache cache, Metrics metrics, Settings settings) {
+        super(context);
+        this.tflGateway = tflGateway;
+        this.cache = cache;
+        this.metrics = metrics;
+        this.settings = settings;
+        log.info("DateRangePrefetcher started (top {} ranges, {} TfL calls/min)",
+                settings.topK(), settings.budgetPerMinute());
+    }
+
+    @Override
+    public Receive<Command> createReceive() {
+        return newReceiveBuilder()
+                .onMessage(Tick.class, this::onTick)
+                .onMessage(CircuitChecked.class, this::onCircuitChecked)
+                .onMessage(Prefetched.class, this::onPrefetched)
+                .build();
+    }
+
+    private Behavior<Command> onTick(Tick msg) {
+        // Refill: budgetPerMinute spread over the minute, never more than a minute's worth
+        double perTick = settings.budgetPerMinute() * (settings.interval().toMillis() / 60_000.0);
+        tokens = Math.min(settings.budgetPerMinute(), tokens + perTick);
+
+        if (ticksToSkip > 0) {
+            ticksToSkip--;
+            return this;
+        }
+        getContext().ask(
+                TflGateway.CircuitStateResponse.class,
+                tflGateway,
+                settings.interval(),
+                TflGateway.GetCircuitState::new,
+                (response, error) -> new CircuitChecked(response == null ? null : response.state()));
+        return this;
+    }
+
+    private Behavior<Command> onCircuitChecked(CircuitChecked msg) {
+        if (msg.state() != TflGateway.CircuitState.CLOSED) {
+            backoffTicks = backoffTicks == 0 ? 1 : Math.min(backoffTicks * 2, MAX_BACKOFF_TICKS);
+            ticksToSkip = backoffTicks - 1;
+            metrics.recordPrefetch("skipped_circuit");
+            log.debug("Circuit {}, prefetching paused for {} intervals", msg.state(), backoffTicks);
+            cache.decayDemand();
+            return this;
+        }
+        backoffTicks = 0;
+
+        for (SpaceSaving.Estimate<DateRangeKey> hot : cache.hottest(settings.topK())) {
+            DateRangeKey range = hot.key();
+            if (hot.guaranteed() < settings.minRequests()
+                    || inFlight.contains(range)
+                    || cache.isMissing(range.lineId())
+                    || cache.remaining(range).compareTo(settings.refreshAhead()) > 0) {
+                continue;
+            }
+            if (tokens < 1) {
+                metrics.recordPrefetch("skipped_budget");
+                continue;
+            }
+            tokens--;
+            inFlight.add(range);
+            getContext().ask(
+                    TflGateway.FetchResponse.class,
+                    tflGateway,
+                    settings.interval(),
+                    ref -> new TflGateway.FetchLineWithDateRange(range.lineId(), range.from(), range.to(), ref),
+                    (response, error) -> new Prefetched(range,
+                            response != null ? response : new TflGateway.FetchResponse(null, error)));
+        }
+        cache.decayDemand();
+        return this;
+    }
+
+    private Behavior<Command> onPrefetched(Prefetched msg) {
+        inFlight.remove(msg.range());
+        TflGateway.FetchResponse response = msg.response();
+        if (response.isSuccess() && !response.status().lines().isEmpty()) {
+            cache.putFetched(msg.range(), response.status(), response.days());
+            metrics.recordPrefetch("refreshed");
+        } else {
+            metrics.recordPrefetch("failed");
+            log.debug("Prefetch of {} failed: {}", msg.range(),
+                    response.error() == null ? "no lines" : response.error().getMessage());
+        }
+        return this;
+    }
+}
@@ -3,6 +3,7 @@ package com.ig.tfl.client;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.ig.tfl.model.RangeStatus;
 import com.ig.tfl.model.TflApiResponse;
 import com.ig.tfl.model.TubeStatus;
 import com.ig.tfl.model.TubeStatus.LineStatus;
@@ -21,9 +22,11 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.function.Consumer;
 
 
 /**
@@ -38,6 +41,7 @@ public class TflApiClient implements TflClient {
 
     private static final String DEFAULT_TFL_BASE_URL = "https://api.tfl.gov.uk";
     private static final Duration DEFAULT_RESPONSE_TIMEOUT = Duration.ofSeconds(10);
+    private static final TypeReference<List<TflApiResponse.LineResponse>> LINE_RESPONSES = new TypeReference<>() {};
 
     private final ActorSystem<?> system;
     private final Http http;
@@ -117,9 +121,7 @@ public class TflApiClient implements TflClient {
         this.retryDelay = config.retryDelay();
     }
 
-    /**
-     * Constructor with pre-built CircuitBreaker (for testing).
-     */
+    /** Constructor with pre-built CircuitBreaker (for testing). */
     public TflApiClient(ActorSystem<?> system, String nodeId, String baseUrl,
                         CircuitBreaker circuitBreaker, int maxRetries, Duration retryDelay,
                         Duration responseTimeout, Tracing tracing) {
@@ -153,19 +155,39 @@ public class TflApiClient implements TflClient {
      */
     @Override
     public CompletionStage<TubeStatus> fetchLineStatusAsync(String lineId, LocalDate from, LocalDate to) {
+        return fetchLineResponses(lineId, from, to).thenApply(this::toTubeStatus);
+    }
+
+    /** The same single TfL call as fetchLineStatusAsync, split by day using TfL's validity periods. */
+    @Override
+    public CompletionStage<RangeStatus> fetchLineStatusByDayAsync(String lineId, LocalDate from, LocalDate to) {
+        return fetchLineResponses(lineId, from, to)
+                .thenApply(responses -> RangeStatus.split(responses, from, to, Instant.now(), nodeId));
+    }
+
+    /** One TfL call for all lineIds (/Line/{id,id,...}/Status/...), split by line and day. */
+    @Override
+    public CompletionStage<Map<String, RangeStatus>> fetchLinesStatusByDayAsync(
+            List<String> lineIds, LocalDate from, LocalDate to) {
+        return fetchLineResponses(String.join(",", lineIds), from, to)
+                .thenApply(responses -> RangeStatus.splitByLine(lineIds, responses, from, to, Instant.now(), nodeId));
+    }
+
+    private CompletionStage<List<TflApiResponse.LineResponse>> fetchLineResponses(
+            String lineId, LocalDate from, LocalDate to) {
         String url = String.format("%s/Line/%s/Status/%s/to/%s",
                 baseUrl, lineId,
                 from.format(DateTimeFormatter.ISO_LOCAL_DATE),
                 to.format(DateTimeFormatter.ISO_LOCAL_DATE));
         return tracing.traceTflCallAsync("fetch-line-" + lineId, url, () ->
-                withRetry(() -> withCircuitBreaker(() -> doFetchLineStatus(lineId, from, to))));
+                withRetry(() -> withCircuitBreaker(() -> fetchAndParse(url, LINE_RESPONSES))));
     }
 
     /**
      * Wrap operation with Pekko's built-in CircuitBreaker.
      */
-    private CompletionStage<TubeStatus> withCircuitBreaker(
-            Callable<CompletionStage<TubeStatus>> operation) {
+    private <T> CompletionStage<T> withCircuitBreaker(
+            Callable<CompletionStage<T>> operation) {
         return circuitBreaker.callWithCircuitBreakerCS(operation);
     }
 
@@ -176,18 +198,18 @@ public class TflApiClient implements TflClient {
      * Retryable: 408, 429, 5xx, network errors (IOException)
      * Not retryable: 4xx client errors
      */
-    private CompletionStage<TubeStatus> withRetry(
-            Callable<CompletionStage<TubeStatus>> operation) {
+    private <T> CompletionStage<T> withRetry(
+            Callable<CompletionStage<T>> operation) {
         return retryWithBackoff(operation, 0);
     }
 
     /**
      * Recursive retry with exponential backoff and Retry-After support.
      */
-    private CompletionStage<TubeStatus> retryWithBackoff(
-            Callable<CompletionStage<TubeStatus>> operation, int attempt) {
+    private <T> CompletionStage<T> retryWithBackoff(
+            Callable<CompletionStage<T>> operation, int attempt) {
 
-        CompletionStage<TubeStatus> result;
+        CompletionStage<T> result;
         try {
             result = operation.call();
         } catch (Exception e) {
@@ -203,7 +225,7 @@ public class TflApiClient implements TflClient {
                 if (attempt >= maxRetries) {
                     log.warn("All {} retry attempts exhausted: {}", maxRetries, error.getMessage());
                 }
-                return CompletableFuture.<TubeStatus>failedFuture(error);
+                return CompletableFuture.<T>failedFuture(error);
             }
 
             // Determine delay: use Retry-After if present, otherwise exponential backoff
@@ -211,7 +233,7 @@ public class TflApiClient implements TflClient {
             log.info("Retry attempt {} after {} ms", attempt + 1, delay.toMillis());
 
             // Schedule retry after delay
-            CompletableFuture<TubeStatus> delayed = new CompletableFuture<>();
+            CompletableFuture<T> delayed = new CompletableFuture<>();
             system.classicSystem().scheduler().scheduleOnce(
                     delay,
                     () -> retryWithBackoff(operation, attempt + 1)
@@ -297,16 +319,7 @@ public class TflApiClient implements TflClient {
 
     private CompletionStage<TubeStatus> doFetchAllLines() {
         String url = baseUrl + "/Line/Mode/tube/Status";
-        return fetchAndParse(url, new TypeReference<List<TflApiResponse.LineResponse>>() {})
-                .thenApply(this::toTubeStatus);
-    }
-
-    private CompletionStage<TubeStatus> doFetchLineStatus(String lineId, LocalDate from, LocalDate to) {
-        String url = String.format("%s/Line/%s/Status/%s/to/%s",
-                baseUrl, lineId,
-                from.format(DateTimeFormatter.ISO_LOCAL_DATE),
-                to.format(DateTimeFormatter.ISO_LOCAL_DATE));
-        return fetchAndParse(url, new TypeReference<List<TflApiResponse.LineResponse>>() {})
+        return fetchAndParse(url, LINE_RESPONSES)
                 .thenApply(this::toTubeStatus);
     }
 
@@ -372,34 +385,44 @@ public class TflApiClient implements TflClient {
         return new TubeStatus(lines, Instant.now(), nodeId);
     }
 
-    /**
-     * Get circuit breaker for health checks and metrics.
-     */
+    /** Get circuit breaker for health checks and metrics. */
     public CircuitBreaker getCircuitBreaker() {
         return circuitBreaker;
     }
 
-    /**
-     * Check if circuit is open.
-     */
+    /** Check if circuit is open. */
     public boolean isCircuitOpen() {
         return circuitBreaker.isOpen();
     }
 
-    /**
-     * Check if circuit is half-open.
-     */
+    /** Check if circuit is half-open. */
     public boolean isCircuitHalfOpen() {
         return circuitBreaker.isHalfOpen();
     }
 
-    /**
-     * Check if circuit is closed (healthy).
-     */
+    /** Check if circuit is closed (healthy). */
     public boolean isCircuitClosed() {
         return circuitBreaker.isClosed();
     }
 
+    /**
+     * Notify the listener of the current circuit state now and of every transition
+     * after, on the breaker's executor. Lets health checks read the state without
+     * asking TflGateway.
+     */
+    public void addCircuitStateListener(Consumer<TflGateway.CircuitState> listener) {
+        circuitBreaker.addOnOpenListener(() -> listener.accept(TflGateway.CircuitState.OPEN))
+                .addOnHalfOpenListener(() -> listener.accept(TflGateway.CircuitState.HALF_OPEN))
+                .addOnCloseListener(() -> listener.accept(TflGateway.CircuitState.CLOSED));
+        if (isCircuitOpen()) {
+            listener.accept(TflGateway.CircuitState.OPEN);
+        } else if (isCircuitHalfOpen()) {
+            listener.accept(TflGateway.CircuitState.HALF_OPEN);
+        } else {
+            listener.accept(TflGateway.CircuitState.CLOSED);
+        }
+    }
+
     /**
      * Determine if an HTTP status code is retryable.
      *
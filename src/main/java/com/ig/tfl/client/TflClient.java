@@ -1,8 +1,14 @@
 package com.ig.tfl.client;
 
+import com.ig.tfl.model.RangeStatus;
 import com.ig.tfl.model.TubeStatus;
 
 import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 
 /**
@@ -21,6 +27,34 @@ public interface TflClient {
      */
     CompletionStage<TubeStatus> fetchLineStatusAsync(String lineId, LocalDate from, LocalDate to);
 
+    /**
+     * Fetch status for a line with date range, split into the status on each day
+     * (async, non-blocking). Clients that cannot split return no days.
+     */
+    default CompletionStage<RangeStatus> fetchLineStatusByDayAsync(String lineId, LocalDate from, LocalDate to) {
+        return fetchLineStatusAsync(lineId, from, to).thenApply(status -> new RangeStatus(status, Map.of()));
+    }
+
+    /**
+     * Fetch status for several lines over the same date range, keyed by
+     * lowercased line id (async, non-blocking). Clients that cannot batch make
+     * one call per line.
+     */
+    default CompletionStage<Map<String, RangeStatus>> fetchLinesStatusByDayAsync(
+            List<String> lineIds, LocalDate from, LocalDate to) {
+        Map<String, CompletableFuture<RangeStatus>> calls = new LinkedHashMap<>();
+        for (String lineId : lineIds) {
+            calls.put(lineId.toLowerCase(Locale.ROOT),
+                    fetchLineStatusByDayAsync(lineId, from, to).toCompletableFuture());
+        }
+        return CompletableFuture.allOf(calls.values().toArray(CompletableFuture[]::new))
+                .thenApply(done -> {
+                    Map<String, RangeStatus> results = new LinkedHashMap<>();
+                    calls.forEach((lineId, call) -> results.put(lineId, call.join()));
+                    return results;
+                });
+    }
+
     /**
      * Check if circuit breaker is open.
      */
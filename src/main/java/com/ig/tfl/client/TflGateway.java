@@ -1,16 +1,32 @@
 package com.ig.tfl.client;
 
+import com.ig.tfl.cache.DateRangeKey;
+import com.ig.tfl.model.RangeStatus;
 import com.ig.tfl.model.TubeStatus;
+import com.ig.tfl.observability.Metrics;
+import com.typesafe.config.Config;
 import org.apache.pekko.actor.typed.ActorRef;
 import org.apache.pekko.actor.typed.Behavior;
 import org.apache.pekko.actor.typed.javadsl.AbstractBehavior;
 import org.apache.pekko.actor.typed.javadsl.ActorContext;
 import org.apache.pekko.actor.typed.javadsl.Behaviors;
 import org.apache.pekko.actor.typed.javadsl.Receive;
+import org.apache.pekko.actor.typed.javadsl.TimerScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
 
 /**
  * Actor gateway for all TfL API communication.
@@ -19,6 +35,13 @@ import java.time.LocalDate;
  * - TfL API calls (via TflApiClient)
  * - Circuit breaker state exposure
  * - Retry logic (handled by TflApiClient)
+ * - Single-flight: a fetch identical to one already in flight (all lines, or
+ *   the same line and date range) does not call TfL again; its reply target
+ *   joins the in-flight call and every target gets the one result
+ * - Batching: new date-range fetches for the same from/to are collected for
+ *   batchWindow and sent as one TfL call for all their lines
+ *   (/Line/{id,id,...}/Status/{from}/to/{to}); the answer is split per line.
+ *   A zero window fetches each line on its own
  *
  * Both TubeStatusReplicator (for cache refresh) and TubeStatusRoutes
  * (for date-range queries) communicate through this gateway.
@@ -37,7 +60,8 @@ public class TflGateway extends AbstractBehavior<TflGateway.Command> {
 
     /**
      * Fetch status for a specific line with date range.
-     * Used by Routes for future/planned disruptions - bypasses cache.
+     * Used by Routes for future/planned disruptions on a DateRangeCache miss;
+     * the response also carries the status on each day of the range.
      */
     public record FetchLineWithDateRange(
             String lineId,
@@ -51,15 +75,36 @@ public class TflGateway extends AbstractBehavior<TflGateway.Command> {
      */
     public record GetCircuitState(ActorRef<CircuitStateResponse> replyTo) implements Command {}
 
-    // Internal message for async completion
+    // Internal message for async completion of the in-flight call for key
     private record FetchComplete(
-            TubeStatus status,
-            Throwable error,
-            ActorRef<FetchResponse> replyTo
+            String key,
+            FetchResponse response
+    ) implements Command {}
+
+    // Internal: the collection window for a from/to batch has closed
+    private record FlushBatch(LocalDate from, LocalDate to) implements Command {}
+
+    // Internal message for async completion of a batched call for lineIds
+    private record BatchComplete(
+            LocalDate from,
+            LocalDate to,
+            List<String> lineIds,
+            Map<String, RangeStatus> results,
+            Throwable error
     ) implements Command {}
 
     // Responses
-    public record FetchResponse(TubeStatus status, Throwable error) {
+
+    /**
+     * status is the whole answer. days holds the status on each day for a date
+     * range split by TfL's validity periods, and is empty otherwise.
+     */
+    public record FetchResponse(TubeStatus status, Throwable error, Map<LocalDate, TubeStatus> days) {
+
+        public FetchResponse(TubeStatus status, Throwable error) {
+            this(status, error, Map.of());
+        }
+
         public boolean isSuccess() {
             return error == null && status != null;
         }
@@ -72,16 +117,65 @@ public class TflGateway extends AbstractBehavior<TflGateway.Command> {
 
     public record CircuitStateResponse(CircuitState state) {}
 
+    /**
+     * Date-range batching, read from tfl.gateway in production. A batch is sent
+     * batchWindow after its first line, or as soon as it has maxBatchLines.
+     */
+    public record Settings(Duration batchWindow, int maxBatchLines) {
+
+        public static Settings fromConfig(Config config) {
+            return new Settings(
+                    config.getDuration("tfl.gateway.batch-window"),
+                    config.getInt("tfl.gateway.max-batch-lines"));
+        }
+
+        /** No batching (for testing). */
+        public static Settings unbatched() {
+            return new Settings(Duration.ZERO, 1);
+        }
+    }
+
+    // In-flight key for FetchAllLines; date ranges use DateRangeKey.toString()
+    private static final String ALL_LINES = "all-lines";
+
     // Dependencies
-    private final TflApiClient client;
+    private final TflClient client;
+    private final Metrics metrics;
+    private final Settings settings;
+    private final TimerScheduler<Command> timers;
+
+    // Reply targets waiting on each in-flight TfL call, first requester first
+    private final Map<String, List<ActorRef<FetchResponse>>> inFlight = new HashMap<>();
+
+    // Lines collected per from/to, waiting for their window to close (already in inFlight)
+    private final Map<DateRange, Set<String>> batches = new HashMap<>();
 
-    public static Behavior<Command> create(TflApiClient client) {
-        return Behaviors.setup(context -> new TflGateway(context, client));
+    private record DateRange(LocalDate from, LocalDate to) {}
+
+    /** Unbatched gateway with its own (unscraped) metrics registry (for testing). */
+    public static Behavior<Command> create(TflClient client) {
+        return create(client, new Metrics());
+    }
+
+    /** Unbatched gateway (for testing). */
+    public static Behavior<Command> create(TflClient client, Metrics metrics) {
+        return create(client, metrics, Settings.unbatched());
     }
 
-    private TflGateway(ActorContext<Command> context, TflApiClient client) {
+    public static Behavior<Command> create(TflClient client, Metrics metrics, Settings settings) {
+        return Behaviors.setup(context ->
+                Behaviors.withTimers(timers -> new TflGateway(context, client, metrics, settings, timers)));
+    }
+
+    private TflGateway(ActorContext<Command> context, TflClient client, Metrics metrics,
+                       Settings settings, TimerScheduler<Command> timers) {
         super(context);
         this.client = client;
+        this.metrics = metrics;
+        this.settings = settings;
+        this.timers = timers;
+        // Read off the actor's thread: the gauge may lag by a message, never more
+        metrics.registerTflInFlight(inFlight::size);
         log.info("TflGateway started");
     }
 
@@ -92,29 +186,153 @@ public class TflGateway extends AbstractBehavior<TflGateway.Command> {
                 .onMessage(FetchLineWithDateRange.class, this::onFetchLineWithDateRange)
                 .onMessage(GetCircuitState.class, this::onGetCircuitState)
                 .onMessage(FetchComplete.class, this::onFetchComplete)
+                .onMessage(FlushBatch.class, this::onFlushBatch)
+                .onMessage(BatchComplete.class, this::onBatchComplete)
                 .build();
     }
 
     private Behavior<Command> onFetchAllLines(FetchAllLines msg) {
-        log.debug("Fetching all lines from TfL");
+        if (join(ALL_LINES, msg.replyTo())) {
+            log.debug("Fetching all lines from TfL");
+            start(ALL_LINES, () -> client.fetchAllLinesAsync()
+                    .thenApply(status -> new FetchResponse(status, null)));
+        }
+        return this;
+    }
 
-        client.fetchAllLinesAsync()
-                .whenComplete((status, error) ->
-                        getContext().getSelf().tell(new FetchComplete(status, error, msg.replyTo())));
+    private Behavior<Command> onFetchLineWithDateRange(FetchLineWithDateRange msg) {
+        DateRangeKey range = new DateRangeKey(msg.lineId(), msg.from(), msg.to());
+        if (!join(range.toString(), msg.replyTo())) {
+            return this;
+        }
+        if (settings.batchWindow().isZero() || settings.maxBatchLines() <= 1) {
+            fetchLine(range);
+            return this;
+        }
 
+        DateRange dates = new DateRange(msg.from(), msg.to());
+        Set<String> lines = batches.get(dates);
+        if (lines == null) {
+            lines = new LinkedHashSet<>();
+            batches.put(dates, lines);
+            timers.startSingleTimer(dates, new FlushBatch(msg.from(), msg.to()), settings.batchWindow());
+        }
+        lines.add(range.lineId());
+        if (lines.size() >= settings.maxBatchLines()) {
+            timers.cancel(dates);
+            flush(dates);
+        }
         return this;
     }
 
-    private Behavior<Command> onFetchLineWithDateRange(FetchLineWithDateRange msg) {
-        log.debug("Fetching line {} status from {} to {}", msg.lineId(), msg.from(), msg.to());
+    private void fetchLine(DateRangeKey range) {
+        log.debug("Fetching line {} status from {} to {}", range.lineId(), range.from(), range.to());
+        metrics.recordTflBatch(1);
+        start(range.toString(), () -> client.fetchLineStatusByDayAsync(range.lineId(), range.from(), range.to())
+                .thenApply(result -> new FetchResponse(result.range(), null, result.days())));
+    }
 
-        client.fetchLineStatusAsync(msg.lineId(), msg.from(), msg.to())
-                .whenComplete((status, error) ->
-                        getContext().getSelf().tell(new FetchComplete(status, error, msg.replyTo())));
+    private Behavior<Command> onFlushBatch(FlushBatch msg) {
+        flush(new DateRange(msg.from(), msg.to()));
+        return this;
+    }
 
+    /** Send the lines collected for dates: alone if there is only one, else as one batched call. */
+    private void flush(DateRange dates) {
+        Set<String> lines = batches.remove(dates);
+        if (lines == null || lines.isEmpty()) {
+            return;
+        }
+        if (lines.size() == 1) {
+            fetchLine(new DateRangeKey(lines.iterator().next(), dates.from(), dates.to()));
+            return;
+        }
+
+        List<String> lineIds = List.copyOf(lines);
+        log.debug("Fetching {} lines in one call from {} to {}", lineIds.size(), dates.from(), dates.to());
+        metrics.recordTflBatch(lineIds.size());
+        CompletionStage<Map<String, RangeStatus>> future;
+        try {
+            future = client.fetchLinesStatusByDayAsync(lineIds, dates.from(), dates.to());
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        ActorRef<Command> self = getContext().getSelf();
+        future.whenComplete((results, error) ->
+                self.tell(new BatchComplete(dates.from(), dates.to(), lineIds, results, error)));
+    }
+
+    /**
+     * Split a batched answer per line. A client error (4xx) on a batch is most
+     * likely one unknown line id failing the whole call, so each line is then
+     * fetched on its own; other errors fail every line, as a single call would.
+     */
+    private Behavior<Command> onBatchComplete(BatchComplete msg) {
+        if (msg.error() != null && isClientError(msg.error())) {
+            log.debug("Batched fetch for {} failed with a client error, fetching each line", msg.lineIds());
+            for (String lineId : msg.lineIds()) {
+                fetchLine(new DateRangeKey(lineId, msg.from(), msg.to()));
+            }
+            return this;
+        }
+        if (msg.error() != null) {
+            log.warn("TfL batched fetch failed: {}", msg.error().getMessage());
+        }
+        for (String lineId : msg.lineIds()) {
+            String key = new DateRangeKey(lineId, msg.from(), msg.to()).toString();
+            RangeStatus result = msg.results() == null ? null : msg.results().get(lineId);
+            FetchResponse response;
+            if (msg.error() != null) {
+                response = new FetchResponse(null, msg.error());
+            } else if (result == null) {
+                response = new FetchResponse(null, null);
+            } else {
+                response = new FetchResponse(result.range(), null, result.days());
+            }
+            complete(key, response);
+        }
         return this;
     }
 
+    private static boolean isClientError(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+        return cause instanceof TflApiClient.HttpStatusException httpError
+                && httpError.getStatusCode() >= 400 && httpError.getStatusCode() < 500
+                && !httpError.isRetryable();
+    }
+
+    /**
+     * Add replyTo to the waiters for key. True if nothing was in flight for key,
+     * i.e. the caller must start the TfL call.
+     */
+    private boolean join(String key, ActorRef<FetchResponse> replyTo) {
+        List<ActorRef<FetchResponse>> waiters = inFlight.get(key);
+        if (waiters != null) {
+            waiters.add(replyTo);
+            metrics.recordTflCoalesced(callType(key));
+            log.debug("Coalesced fetch for {} ({} waiting)", key, waiters.size());
+            return false;
+        }
+        waiters = new ArrayList<>(1);
+        waiters.add(replyTo);
+        inFlight.put(key, waiters);
+        return true;
+    }
+
+    /** Start the TfL call for key; it always ends in a FetchComplete, or key would stay in flight. */
+    private void start(String key, Supplier<CompletionStage<FetchResponse>> call) {
+        CompletionStage<FetchResponse> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        ActorRef<Command> self = getContext().getSelf();
+        future.whenComplete((response, error) -> self.tell(new FetchComplete(key,
+                response != null ? response : new FetchResponse(null, error))));
+    }
+
     private Behavior<Command> onGetCircuitState(GetCircuitState msg) {
         CircuitState state;
         if (client.isCircuitOpen()) {
@@ -129,12 +347,28 @@ public class TflGateway extends AbstractBehavior<TflGateway.Command> {
     }
 
     private Behavior<Command> onFetchComplete(FetchComplete msg) {
-        if (msg.error() != null) {
-            log.warn("TfL fetch failed: {}", msg.error().getMessage());
+        if (msg.response().error() != null) {
+            log.warn("TfL fetch failed: {}", msg.response().error().getMessage());
         } else {
             log.debug("TfL fetch completed successfully");
         }
-        msg.replyTo().tell(new FetchResponse(msg.status(), msg.error()));
+        complete(msg.key(), msg.response());
         return this;
     }
+
+    /** Answer every waiter on key; later requests for the same key start a new call. */
+    private void complete(String key, FetchResponse response) {
+        List<ActorRef<FetchResponse>> waiters = inFlight.remove(key);
+        if (waiters == null) {
+            return;
+        }
+        for (ActorRef<FetchResponse> replyTo : waiters) {
+            replyTo.tell(response);
+        }
+        metrics.recordTflFanOut(callType(key), waiters.size());
+    }
+
+    private static String callType(String key) {
+        return ALL_LINES.equals(key) ? ALL_LINES : "date-range";
+    }
 }
@@ -0,0 +1,247 @@
+package com.ig.tfl.crdt;
+
+import com.ig.tfl.cache.DateRangeCache;
+import com.ig.tfl.cache.DateRangeKey;
+import com.ig.tfl.model.TubeStatus;
+import com.typesafe.config.Config;
+import org.apache.pekko.actor.typed.Behavior;
+import org.apache.pekko.actor.typed.javadsl.AbstractBehavior;
+import org.apache.pekko.actor.typed.javadsl.ActorContext;
+import org.apache.pekko.actor.typed.javadsl.Behaviors;
+import org.apache.pekko.actor.typed.javadsl.Receive;
+import org.apache.pekko.cluster.ddata.Key;
+import org.apache.pekko.cluster.ddata.LWWMap;
+import org.apache.pekko.cluster.ddata.LWWMapKey;
+import org.apache.pekko.cluster.ddata.typed.javadsl.DistributedData;
+import org.apache.pekko.cluster.ddata.typed.javadsl.Replicator;
+import org.apache.pekko.cluster.ddata.typed.javadsl.ReplicatorMessageAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Shares hot date-range answers across the cluster: the local caches of
+ * option A plus an LWWMap for hot ranges only (DATE_RANGE_CACHING.md, option D).
+ *
+ * Uses an LWWMap keyed by "line:from:to" (DateRangeKey.toString()). Every change
+ * to the map, including the full state gossiped to a node that just joined, is
+ * copied into the local DateRangeCache, so a new node answers hot ranges
+ * without going to TfL.
+ *
+ * Admission: each sync interval, cached answers asked for on this node at least
+ * admitAfter times are written to the map (or overwrite an older answer there).
+ * One-off ranges never leave the node.
+ *
+ * Pruning: in the same pass, entries past their lifetime (ttl/pastTtl from
+ * queriedAt, as in DateRangeCache) are removed, then the oldest answers beyond
+ * maxEntries, so the CRDT stays bounded. Every node prunes with the same rules;
+ * removing a key twice is harmless.
+ */
+public class DateRangeReplicator extends AbstractBehavior<DateRangeReplicator.Command> {
+    private static final Logger log = LoggerFactory.getLogger(DateRangeReplicator.class);
+
+    // CRDT key for shared date-range answers
+    static final Key<LWWMap<String, TubeStatus>> RANGES_KEY = LWWMapKey.create("date-ranges");
+
+    /**
+     * Admission and bounds, read from tfl.date-range-cache.replication in production.
+     */
+    public record Settings(int admitAfter, int maxEntries, Duration syncInterval) {
+
+        public static Settings fromConfig(Config config) {
+            return new Settings(
+                    config.getInt("tfl.date-range-cache.replication.admit-after"),
+                    config.getInt("tfl.date-range-cache.replication.max-entries"),
+                    config.getDuration("tfl.date-range-cache.replication.sync-interval"));
+        }
+    }
+
+    // Message types
+    public sealed interface Command {}
+
+    private record SyncTick() implements Command {}
+
+    private record InternalSubscribeResponse(
+            Replicator.SubscribeResponse<LWWMap<String, TubeStatus>> response
+    ) implements Command {}
+
+    private record InternalUpdateResponse(
+            Replicator.UpdateResponse<LWWMap<String, TubeStatus>> response
+    ) implements Command {}
+
+    private final DateRangeCache cache;
+    private final Settings settings;
+    private final ReplicatorMessageAdapter<Command, LWWMap<String, TubeStatus>> replicatorAdapter;
+    private final SelfCluster selfCluster;
+
+    // Latest map contents seen through the subscription
+    private Map<String, TubeStatus> replicated = Map.of();
+
+    public static Behavior<Command> create(DateRangeCache cache, Settings settings) {
+        return Behaviors.setup(context ->
+                Behaviors.withTimers(timers -> {
+                    timers.startTimerWithFixedDelay("sync", new SyncTick(), settings.syncInterval());
+                    return new DateRangeReplicator(context, cache, settings);
+                }));
+    }
+
+    private DateRangeReplicator(ActorContext<Command> context, DateRangeCache cache, Settings settings) {
+        super(context);
+        this.cache = cache;
+        this.settings = settings;
+        this.selfCluster = SelfCluster.get(context.getSystem());
+        this.replicatorAdapter = new ReplicatorMessageAdapter<>(
+                context,
+                DistributedData.get(context.getSystem()).replicator(),
+                Duration.ofSeconds(5));
+        replicatorAdapter.subscribe(RANGES_KEY, InternalSubscribeResponse::new);
+
+        log.info("DateRangeReplicator started (admit after {} requests, max {} entries)",
+                settings.admitAfter(), settings.maxEntries());
+    }
+
+    @Override
+    public Receive<Command> createReceive() {
+        return newReceiveBuilder()
+                .onMessage(SyncTick.class, this::onSyncTick)
+                .onMessage(InternalSubscribeResponse.class, this::onSubscribeResponse)
+                .onMessage(InternalUpdateResponse.class, this::onUpdateResponse)
+                .build();
+    }
+
+    private Behavior<Command> onSubscribeResponse(InternalSubscribeResponse msg) {
+        if (msg.response() instanceof Replicator.Changed<LWWMap<String, TubeStatus>> changed) {
+            replicated = changed.get(RANGES_KEY).getEntries();
+            int seeded = 0;
+            for (Map.Entry<String, TubeStatus> entry : replicated.entrySet()) {
+                DateRangeKey key = DateRangeKey.parse(entry.getKey());
+                if (isLive(key, entry.getValue())) {
+                    cache.putIfNewer(key, entry.getValue());
+                    seeded++;
+                }
+            }
+            log.debug("Shared date ranges changed: {} entries, {} live", replicated.size(), seeded);
+        }
+        return this;
+    }
+
+    private Behavior<Command> onSyncTick(SyncTick msg) {
+        Set<String> removals = expiredOrOldest();
+        Map<String, TubeStatus> admissions = hotAnswers(replicated.size() - removals.size());
+        if (removals.isEmpty() && admissions.isEmpty()) {
+            return this;
+        }
+
+        log.debug("Sharing {} hot date ranges, pruning {}", admissions.size(), removals.size());
+        Map<String, TubeStatus> seen = replicated;
+        replicatorAdapter.askUpdate(
+                askReplyTo -> new Replicator.Update<>(
+                        RANGES_KEY,
+                        LWWMap.create(),
+                        Replicator.writeLocal(),
+                        askReplyTo,
+                        map -> apply(map, seen, removals, admissions)),
+                InternalUpdateResponse::new);
+        return this;
+    }
+
+    /** Entries past their lifetime, then the oldest ones beyond maxEntries. */
+    private Set<String> expiredOrOldest() {
+        Set<String> removals = new HashSet<>();
+        List<Map.Entry<String, TubeStatus>> live = new ArrayList<>();
+        for (Map.Entry<String, TubeStatus> entry : replicated.entrySet()) {
+            if (isLive(DateRangeKey.parse(entry.getKey()), entry.getValue())) {
+                live.add(entry);
+            } else {
+                removals.add(entry.getKey());
+            }
+        }
+        int excess = live.size() - settings.maxEntries();
+        if (excess > 0) {
+            live.sort(Comparator.comparing(entry -> entry.getValue().queriedAt()));
+            live.subList(0, excess).forEach(entry -> removals.add(entry.getKey()));
+        }
+        return removals;
+    }
+
+    /**
+     * Locally cached answers requested at least admitAfter times that the map
+     * lacks or holds an older answer for. New keys only while the map has room
+     * (size = entries left after pruning), most requested first.
+     */
+    private Map<String, TubeStatus> hotAnswers(int size) {
+        List<Map.Entry<DateRangeKey, TubeStatus>> candidates = new ArrayList<>();
+        for (Map.Entry<DateRangeKey, TubeStatus> entry : cache.entries().entrySet()) {
+            DateRangeKey key = entry.getKey();
+            TubeStatus shared = replicated.get(key.toString());
+            if (cache.requests(key) >= settings.admitAfter()
+                    && isLive(key, entry.getValue())
+                    && (shared == null || entry.getValue().isFresherThan(shared))) {
+                candidates.add(Map.entry(key, entry.getValue()));
+            }
+        }
+        candidates.sort(Comparator.comparingInt(
+                (Map.Entry<DateRangeKey, TubeStatus> entry) -> cache.requests(entry.getKey())).reversed());
+
+        Map<String, TubeStatus> admissions = new LinkedHashMap<>();
+        int free = settings.maxEntries() - size;
+        for (Map.Entry<DateRangeKey, TubeStatus> candidate : candidates) {
+            String key = candidate.getKey().toString();
+            boolean isNew = !replicated.containsKey(key);
+            if (isNew && free <= 0) {
+                continue;
+            }
+            if (isNew) {
+                free--;
+            }
+            admissions.put(key, candidate.getValue());
+        }
+        return admissions;
+    }
+
+    /**
+     * Applied (on the Replicator's thread) to the replica's current map, which
+     * may have moved on since seen: a removal is skipped if the entry was
+     * meanwhile replaced by a newer answer, and an admission if the map already
+     * has one at least as new.
+     */
+    private LWWMap<String, TubeStatus> apply(LWWMap<String, TubeStatus> map, Map<String, TubeStatus> seen,
+                                             Set<String> removals, Map<String, TubeStatus> admissions) {
+        Map<String, TubeStatus> current = map.getEntries();
+        LWWMap<String, TubeStatus> result = map;
+        for (String key : removals) {
+            TubeStatus before = seen.get(key);
+            TubeStatus now = current.get(key);
+            if (now != null && (before == null || !now.isFresherThan(before))) {
+                result = result.remove(selfCluster.selfUniqueAddress(), key);
+            }
+        }
+        for (Map.Entry<String, TubeStatus> admission : admissions.entrySet()) {
+            TubeStatus now = current.get(admission.getKey());
+            if (now == null || admission.getValue().isFresherThan(now)) {
+                result = result.put(selfCluster.selfUniqueAddress(), admission.getKey(), admission.getValue());
+            }
+        }
+        return result;
+    }
+
+    private boolean isLive(DateRangeKey key, TubeStatus status) {
+        return cache.remaining(key, status).compareTo(Duration.ZERO) > 0;
+    }
+
+    private Behavior<Command> onUpdateResponse(InternalUpdateResponse msg) {
+        if (!(msg.response() instanceof Replicator.UpdateSuccess<?>)) {
+            log.debug("Shared date-range write result: {} - gossip will retry on the next sync",
+                    msg.response().getClass().getSimpleName());
+        }
+        return this;
+    }
+}
@@ -0,0 +1,112 @@
+package com.ig.tfl.crdt;
+
+import com.ig.tfl.model.StatusSnapshot;
+import com.ig.tfl.model.TubeStatus;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Which lines changed in each of the last few adopted snapshots.
+ *
+ * One entry per published snapshot (its version and the ids of lines that differ
+ * from the previous snapshot), capped at capacity entries. Written by
+ * StatusSnapshotHolder on the replicator's thread, read by HTTP routes.
+ *
+ * A delta is only computed from a version this node itself published and still
+ * retains. Anything else (evicted, from another node, from the future) gets the
+ * full snapshot: diffing across a version we never saw could miss a line that
+ * changed and changed back.
+ */
+public final class LineChangeHistory {
+
+    /**
+     * Lines that changed after the client's version, up to snapshot.version().
+     * full = the client's version is not retained, so lines are all of them.
+     */
+    public record Changes(StatusSnapshot snapshot, List<TubeStatus.LineStatus> lines, boolean full) {}
+
+    /** linesRemoved = a line present before is missing from this snapshot. */
+    private record Entry(long version, Set<String> changed, boolean linesRemoved) {}
+
+    private final int capacity;
+    private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+
+    // Oldest version a delta can start from; -1 until the first snapshot
+    private long baseVersion = -1;
+
+    public LineChangeHistory(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Record the lines that differ between previous (null for the first snapshot) and next.
+     */
+    synchronized void record(StatusSnapshot previous, StatusSnapshot next) {
+        if (previous == null) {
+            baseVersion = next.version();
+            return;
+        }
+        Map<String, TubeStatus.LineStatus> before = new HashMap<>();
+        previous.status().lines().forEach(line -> before.put(key(line.id()), line));
+        Set<String> changed = new HashSet<>();
+        for (TubeStatus.LineStatus line : next.status().lines()) {
+            String key = key(line.id());
+            if (!line.equals(before.remove(key))) {
+                changed.add(key);
+            }
+        }
+        entries.addLast(new Entry(next.version(), Set.copyOf(changed), !before.isEmpty()));
+        if (entries.size() > capacity) {
+            baseVersion = entries.removeFirst().version();
+        }
+    }
+
+    /**
+     * Lines of current that changed after version since, or all of them if
+     * since can't be diffed from (see class comment).
+     */
+    public synchronized Changes since(StatusSnapshot current, long since) {
+        if (since == current.version()) {
+            return new Changes(current, List.of(), false);
+        }
+        boolean retained = since == baseVersion;
+        Set<String> changed = new HashSet<>();
+        for (Entry entry : entries) {
+            if (entry.version() > current.version()) {
+                break;  // Recorded by a publish that current predates
+            }
+            if (retained) {
+                if (entry.linesRemoved()) {
+                    // A LineStatus list can't say "gone"
+                    return full(current);
+                }
+                changed.addAll(entry.changed());
+            } else if (entry.version() == since) {
+                retained = true;
+            }
+        }
+        if (!retained) {
+            return full(current);
+        }
+        return new Changes(current, current.status().lines().stream()
+                .filter(line -> changed.contains(key(line.id())))
+                .toList(), false);
+    }
+
+    private static Changes full(StatusSnapshot current) {
+        return new Changes(current, current.status().lines(), true);
+    }
+
+    private static String key(String lineId) {
+        return lineId.toLowerCase(Locale.ROOT);
+    }
+}
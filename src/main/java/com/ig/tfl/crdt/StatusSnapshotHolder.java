@@ -0,0 +1,138 @@
+package com.ig.tfl.crdt;
+
+import com.ig.tfl.model.StatusSnapshot;
+import com.ig.tfl.model.TubeStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Lock-free holder for the latest TubeStatus adopted by TubeStatusReplicator.
+ *
+ * The replicator is the only writer. HTTP routes read the snapshot directly
+ * instead of asking the actor, so the hot read path never goes through a mailbox.
+ * TubeStatus is immutable, so publishing a new reference is all readers need.
+ *
+ * Publishing also materializes the snapshot's derived views (disruptions,
+ * severity buckets) once, on the replicator's thread, so readers never filter.
+ *
+ * Listeners are invoked on the replicator's thread and must not block.
+ *
+ * Each published snapshot gets a version: its queriedAt in epoch millis, or one
+ * more than the previous version if that is not larger (adopting a peer's older
+ * write after our own). Versions therefore only increase on a node and usually
+ * agree across nodes. The lines changed by each publish are kept in a bounded
+ * LineChangeHistory for delta queries.
+ */
+public final class StatusSnapshotHolder {
+    private static final Logger log = LoggerFactory.getLogger(StatusSnapshotHolder.class);
+
+    /** Snapshots of line changes kept when not configured (tfl.changes.history-size). */
+    public static final int DEFAULT_HISTORY_SIZE = 256;
+
+    private final AtomicReference<StatusSnapshot> current = new AtomicReference<>();
+
+    // Snapshot for which a background refresh was last requested (one trigger per snapshot)
+    private final AtomicReference<TubeStatus> refreshRequestedFor = new AtomicReference<>();
+
+    private final List<Consumer<StatusSnapshot>> listeners = new CopyOnWriteArrayList<>();
+
+    private final LineChangeHistory history;
+
+    public StatusSnapshotHolder() {
+        this(DEFAULT_HISTORY_SIZE);
+    }
+
+    public StatusSnapshotHolder(int historySize) {
+        this.history = new LineChangeHistory(historySize);
+    }
+
+    /**
+     * Latest adopted status, or null if no data has been fetched yet.
+     */
+    public TubeStatus current() {
+        StatusSnapshot snapshot = current.get();
+        return snapshot == null ? null : snapshot.status();
+    }
+
+    /**
+     * Latest adopted status with its derived views, or null if no data has been fetched yet.
+     */
+    public StatusSnapshot snapshot() {
+        return current.get();
+    }
+
+    /**
+     * Lines changed since the given version, with the snapshot they come from;
+     * null if no data has been fetched yet. See LineChangeHistory.
+     */
+    public LineChangeHistory.Changes changesSince(long version) {
+        StatusSnapshot snapshot = current.get();
+        return snapshot == null ? null : history.since(snapshot, version);
+    }
+
+    /**
+     * Register a listener notified whenever a different snapshot is published.
+     */
+    public void subscribe(Consumer<StatusSnapshot> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Remove a listener registered with subscribe (the same instance).
+     */
+    public void unsubscribe(Consumer<StatusSnapshot> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Claim the right to trigger a background refresh for this snapshot.
+     * Returns true only for the first caller per snapshot, so a burst of
+     * requests on slightly old data sends a single refresh to the replicator.
+     */
+    public boolean claimBackgroundRefresh(TubeStatus seen) {
+        return refreshRequestedFor.getAndSet(seen) != seen;
+    }
+
+    /**
+     * Publish a newly adopted status. Called by TubeStatusReplicator only.
+     * Re-adopting the same TfL query (e.g. reading our own write back from the CRDT)
+     * keeps the existing reference, so identity-keyed caches stay valid.
+     */
+    public void publish(TubeStatus status) {
+        if (status == null) {
+            return;
+        }
+        if (isSameQuery(current(), status)) {
+            return;
+        }
+        StatusSnapshot previous = current.get();
+        long version = status.queriedAt().toEpochMilli();
+        if (previous != null && version <= previous.version()) {
+            version = previous.version() + 1;
+        }
+        StatusSnapshot snapshot = StatusSnapshot.of(status, version);
+        // History first, so a reader that sees the snapshot also sees its entry
+        history.record(previous, snapshot);
+        current.set(snapshot);
+        for (Consumer<StatusSnapshot> listener : listeners) {
+            try {
+                listener.accept(snapshot);
+            } catch (RuntimeException e) {
+                // A failing listener must not take down the replicator
+                log.warn("Snapshot listener failed", e);
+            }
+        }
+    }
+
+    private static boolean isSameQuery(TubeStatus previous, TubeStatus next) {
+        return previous != null
+                && previous.queriedAt().equals(next.queriedAt())
+                && Objects.equals(previous.queriedBy(), next.queriedBy());
+    }
+}
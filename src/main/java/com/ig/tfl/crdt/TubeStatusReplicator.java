@@ -29,6 +29,9 @@ import java.util.Queue;
  * Uses Pekko Distributed Data with LWWRegister for tube status.
  * Handles freshness requirements from HTTP layer - Routes no longer
  * make caching decisions.
+ *
+ * Every adopted status is also published to a StatusSnapshotHolder so that
+ * Routes can serve fresh-enough data without asking this actor.
  */
 public class TubeStatusReplicator extends AbstractBehavior<TubeStatusReplicator.Command> {
     private static final Logger log = LoggerFactory.getLogger(TubeStatusReplicator.class);
@@ -52,8 +55,9 @@ public class TubeStatusReplicator extends AbstractBehavior<TubeStatusReplicator.
     private final ActorRef<TflGateway.Command> tflGateway;
     private final ReplicatorMessageAdapter<Command, LWWRegister<TubeStatus>> replicatorAdapter;
     private final SelfCluster selfCluster;
+    private final StatusSnapshotHolder snapshots;
 
-    // Current cached status
+    // Current cached status (mirrored into snapshots on every change)
     private TubeStatus currentStatus;
 
     // Pending freshness requests waiting for TfL response
@@ -126,10 +130,25 @@ public class TubeStatusReplicator extends AbstractBehavior<TubeStatusReplicator.
             Duration refreshInterval,
             Duration recentEnoughThreshold,
             Duration backgroundRefreshThreshold) {
+        return create(tflGateway, nodeId, refreshInterval, recentEnoughThreshold,
+                backgroundRefreshThreshold, new StatusSnapshotHolder());
+    }
+
+    /**
+     * Create a replicator that publishes every adopted status to the given holder.
+     */
+    public static Behavior<Command> create(
+            ActorRef<TflGateway.Command> tflGateway,
+            String nodeId,
+            Duration refreshInterval,
+            Duration recentEnoughThreshold,
+            Duration backgroundRefreshThreshold,
+            StatusSnapshotHolder snapshots) {
         return Behaviors.setup(context ->
                 Behaviors.withTimers(timers ->
                         new TubeStatusReplicator(context, timers, tflGateway, nodeId,
-                                refreshInterval, recentEnoughThreshold, backgroundRefreshThreshold)));
+                                refreshInterval, recentEnoughThreshold, backgroundRefreshThreshold,
+                                snapshots)));
     }
 
     private TubeStatusReplicator(
@@ -139,7 +158,8 @@ public class TubeStatusReplicator extends AbstractBehavior<TubeStatusReplicator.
             String nodeId,
             Duration refreshInterval,
             Duration recentEnoughThreshold,
-            Duration backgroundRefreshThreshold) {
+            Duration backgroundRefreshThreshold,
+            StatusSnapshotHolder snapshots) {
         super(context);
 
         this.timers = timers;
@@ -149,6 +169,7 @@ public class TubeStatusReplicator extends AbstractBehavior<TubeStatusReplicator.
         this.recentEnoughThreshold = recentEnoughThreshold;
         this.backgroundRefreshThreshold = backgroundRefreshThreshold;
         this.selfCluster = SelfCluster.get(context.getSystem());
+        this.snapshots = snapshots;
 
         // Set up replicator adapter for distributed data
         this.replicatorAdapter = new ReplicatorMessageAdapter<>(
@@ -260,7 +281,7 @@ public class TubeStatusReplicator extends AbstractBehavior<TubeStatusReplicator.
             if (isFreshEnough(peerStatus)) {
                 log.debug("Peer data is fresh enough ({}ms old), using it",
                         peerStatus.ageMs());
-                currentStatus = peerStatus;
+                adopt(peerStatus);
                 return this;
             }
 
@@ -299,7 +320,7 @@ public class TubeStatusReplicator extends AbstractBehavior<TubeStatusReplicator.
         log.info("Got fresh data from TfL, {} lines, updating CRDT", freshStatus.lines().size());
 
         // Update local cache IMMEDIATELY
-        currentStatus = freshStatus;
+        adopt(freshStatus);
 
         // Answer pending freshness requests with fresh data
         answerPendingRequestsWithFreshData();
@@ -319,6 +340,11 @@ public class TubeStatusReplicator extends AbstractBehavior<TubeStatusReplicator.
         return this;
     }
 
+    private void adopt(TubeStatus status) {
+        currentStatus = status;
+        snapshots.publish(status);
+    }
+
     private void answerPendingRequestsWithFreshData() {
         while (!pendingFreshnessRequests.isEmpty()) {
             PendingFreshnessRequest req = pendingFreshnessRequests.poll();
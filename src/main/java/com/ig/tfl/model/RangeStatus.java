@@ -0,0 +1,61 @@
+package com.ig.tfl.model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * TfL's answer for a line over a date range, plus the status on each day of it.
+ *
+ * days is empty if the answer could not be split (a client without validity
+ * periods); callers then treat range as the status on every day.
+ */
+public record RangeStatus(
+        TubeStatus range,
+        Map<LocalDate, TubeStatus> days
+) {
+
+    /**
+     * Split a date-range response by the validity periods TfL attaches to each
+     * status: the whole-range status plus one per day, all queried at queriedAt.
+     */
+    public static RangeStatus split(List<TflApiResponse.LineResponse> responses, LocalDate from, LocalDate to,
+                                    Instant queriedAt, String queriedBy) {
+        TubeStatus range = new TubeStatus(
+                responses.stream().map(TubeStatus.LineStatus::fromTflResponse).toList(),
+                queriedAt, queriedBy);
+        Map<LocalDate, TubeStatus> days = new TreeMap<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            LocalDate onDay = day;
+            List<TubeStatus.LineStatus> lines = responses.stream()
+                    .map(response -> TubeStatus.LineStatus.fromTflResponse(response, onDay))
+                    .toList();
+            days.put(day, new TubeStatus(lines, queriedAt, queriedBy));
+        }
+        return new RangeStatus(range, days);
+    }
+
+    /**
+     * Split a response for several lines (one comma-separated TfL call) into
+     * one RangeStatus per requested line id, lowercased. A line TfL did not
+     * return gets no lines.
+     */
+    public static Map<String, RangeStatus> splitByLine(List<String> lineIds, List<TflApiResponse.LineResponse> responses,
+                                                       LocalDate from, LocalDate to,
+                                                       Instant queriedAt, String queriedBy) {
+        Map<String, List<TflApiResponse.LineResponse>> byLine = responses.stream()
+                .filter(response -> response.id() != null)
+                .collect(Collectors.groupingBy(response -> response.id().toLowerCase(Locale.ROOT)));
+        Map<String, RangeStatus> split = new LinkedHashMap<>();
+        for (String lineId : lineIds) {
+            String id = lineId.toLowerCase(Locale.ROOT);
+            split.put(id, split(byLine.getOrDefault(id, List.of()), from, to, queriedAt, queriedBy));
+        }
+        return split;
+    }
+}
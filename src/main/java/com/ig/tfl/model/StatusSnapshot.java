@@ -0,0 +1,75 @@
+package com.ig.tfl.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A TubeStatus together with the filtered views the API serves from it.
+ *
+ * Views only change when the status does, so they are materialized once when
+ * the replicator adopts a status (from TfL or a peer) instead of filtering
+ * every line on every request. All lists preserve TfL's line order.
+ *
+ * version is assigned by StatusSnapshotHolder on publish and increases with
+ * every adopted snapshot; 0 means unversioned.
+ */
+public record StatusSnapshot(
+        TubeStatus status,
+        List<TubeStatus.LineStatus> unplannedDisruptions,
+        List<TubeStatus.LineStatus> plannedDisruptions,
+        Map<String, List<TubeStatus.LineStatus>> bySeverity,  // keyed by severityKey()
+        long version
+) {
+
+    /**
+     * Derive all views from a status, unversioned.
+     */
+    public static StatusSnapshot of(TubeStatus status) {
+        return of(status, 0);
+    }
+
+    /**
+     * Derive all views from a status adopted as the given version.
+     */
+    public static StatusSnapshot of(TubeStatus status, long version) {
+        List<TubeStatus.LineStatus> unplanned = new ArrayList<>();
+        List<TubeStatus.LineStatus> planned = new ArrayList<>();
+        Map<String, List<TubeStatus.LineStatus>> bySeverity = new HashMap<>();
+
+        for (TubeStatus.LineStatus line : status.lines()) {
+            if (line.disruptions() != null) {
+                if (line.disruptions().stream().anyMatch(d -> !d.isPlanned())) {
+                    unplanned.add(line);
+                }
+                if (line.disruptions().stream().anyMatch(TubeStatus.Disruption::isPlanned)) {
+                    planned.add(line);
+                }
+            }
+            if (line.status() != null) {
+                bySeverity.computeIfAbsent(severityKey(line.status()), k -> new ArrayList<>()).add(line);
+            }
+        }
+
+        bySeverity.replaceAll((severity, lines) -> List.copyOf(lines));
+        return new StatusSnapshot(status, List.copyOf(unplanned), List.copyOf(planned),
+                Map.copyOf(bySeverity), version);
+    }
+
+    /**
+     * Lines whose status matches the severity (any case, spaces or hyphens:
+     * "Minor Delays" and "minor-delays" are the same). Empty if none match.
+     */
+    public List<TubeStatus.LineStatus> withSeverity(String severity) {
+        return bySeverity.getOrDefault(severityKey(severity), List.of());
+    }
+
+    /**
+     * Normalized severity used as map key: "Minor Delays" -> "minor-delays".
+     */
+    public static String severityKey(String severity) {
+        return severity.trim().toLowerCase(Locale.ROOT).replace(' ', '-');
+    }
+}
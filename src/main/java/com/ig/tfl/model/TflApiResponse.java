@@ -3,6 +3,11 @@ package com.ig.tfl.model;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 /**
@@ -23,8 +28,68 @@ public final class TflApiResponse {
     @JsonIgnoreProperties(ignoreUnknown = true)
     public record LineStatus(
             String statusSeverityDescription,
-            Disruption disruption
-    ) {}
+            Disruption disruption,
+            List<ValidityPeriod> validityPeriods
+    ) {
+        public LineStatus(String statusSeverityDescription, Disruption disruption) {
+            this(statusSeverityDescription, disruption, null);
+        }
+
+        /**
+         * True if any validity period includes the day (a London date). A status
+         * without periods applies to every day.
+         */
+        public boolean isValidOn(LocalDate day) {
+            if (validityPeriods == null || validityPeriods.isEmpty()) {
+                return true;
+            }
+            for (ValidityPeriod period : validityPeriods) {
+                if (period.covers(day)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * When a status applies, e.g. fromDate "2026-02-14T04:30:00Z". TfL's
+     * timestamps are UTC while queries are in London dates, so each end is
+     * converted before comparing (during BST, 00:30 on Sunday is 23:30Z on
+     * Saturday). A period with a missing or unparseable end covers every day:
+     * a malformed period must not fail an otherwise valid answer.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record ValidityPeriod(String fromDate, String toDate) {
+
+        private static final ZoneId LONDON = ZoneId.of("Europe/London");
+
+        boolean covers(LocalDate day) {
+            LocalDate from = londonDate(fromDate);
+            LocalDate to = londonDate(toDate);
+            if (from == null || to == null) {
+                return true;
+            }
+            return !day.isBefore(from) && !day.isAfter(to);
+        }
+
+        /** The London date of a TfL timestamp (UTC or offset; local if it has none), or null. */
+        private static LocalDate londonDate(String timestamp) {
+            if (timestamp == null) {
+                return null;
+            }
+            try {
+                return Instant.parse(timestamp).atZone(LONDON).toLocalDate();
+            } catch (DateTimeParseException e) {
+                // No offset: already London time
+            }
+            try {
+                return LocalDateTime.parse(timestamp).toLocalDate();
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+    }
 
     @JsonIgnoreProperties(ignoreUnknown = true)
     public record Disruption(
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.io.Serial;
 import java.io.Serializable;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -55,16 +56,41 @@ public record TubeStatus(
         @Serial
         private static final long serialVersionUID = 1L;
 
+        public static final String GOOD_SERVICE = "Good Service";
+
         /**
          * Parse from TfL API response format.
          */
         public static LineStatus fromTflResponse(TflApiResponse.LineResponse response) {
+            return fromStatuses(response, response.lineStatuses());
+        }
+
+        /**
+         * Parse the status that applies on day from a date-range response: the
+         * first status whose validity periods include day, or Good Service if
+         * none does (TfL lists only the periods something is happening in).
+         */
+        public static LineStatus fromTflResponse(TflApiResponse.LineResponse response, LocalDate day) {
+            if (response.lineStatuses() == null || response.lineStatuses().isEmpty()) {
+                return fromStatuses(response, List.of());
+            }
+            List<TflApiResponse.LineStatus> onDay = response.lineStatuses().stream()
+                    .filter(lineStatus -> lineStatus.isValidOn(day))
+                    .toList();
+            if (onDay.isEmpty()) {
+                return new LineStatus(response.id(), response.name(), GOOD_SERVICE, GOOD_SERVICE, List.of());
+            }
+            return fromStatuses(response, onDay);
+        }
+
+        private static LineStatus fromStatuses(TflApiResponse.LineResponse response,
+                                               List<TflApiResponse.LineStatus> lineStatuses) {
             String status = "Unknown";
             String statusDesc = "";
             List<Disruption> disruptions = List.of();
 
-            if (response.lineStatuses() != null && !response.lineStatuses().isEmpty()) {
-                var firstStatus = response.lineStatuses().get(0);
+            if (lineStatuses != null && !lineStatuses.isEmpty()) {
+                var firstStatus = lineStatuses.get(0);
                 status = firstStatus.statusSeverityDescription();
                 statusDesc = firstStatus.statusSeverityDescription();
 
@@ -0,0 +1,61 @@
+package com.ig.tfl.observability;
+
+import com.ig.tfl.client.TflGateway;
+import com.ig.tfl.crdt.StatusSnapshotHolder;
+import com.ig.tfl.model.StatusSnapshot;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Readiness inputs, published by their owners so the probe never messages an actor.
+ *
+ * dataAsOf follows the replicator's published snapshots; the circuit state is
+ * pushed by TflApiClient's breaker listeners (addCircuitStateListener). A probe
+ * is one volatile read, so it stays accurate when the actors' mailboxes are
+ * backed up - which is when a probe that asked them would time out.
+ */
+public final class HealthSnapshot {
+
+    /**
+     * What the probe reports. dataAsOf is null until the first snapshot.
+     */
+    public record State(TflGateway.CircuitState circuit, Instant dataAsOf) {
+
+        public boolean hasData() {
+            return dataAsOf != null;
+        }
+
+        public long dataAgeMs() {
+            return Instant.now().toEpochMilli() - dataAsOf.toEpochMilli();
+        }
+    }
+
+    private final AtomicReference<State> state =
+            new AtomicReference<>(new State(TflGateway.CircuitState.CLOSED, null));
+
+    public HealthSnapshot(StatusSnapshotHolder snapshots) {
+        snapshots.subscribe(snapshot -> dataAsOf(snapshot.status().queriedAt()));
+
+        // Snapshot may already have been published before we subscribed
+        StatusSnapshot initial = snapshots.snapshot();
+        if (initial != null) {
+            state.updateAndGet(current -> current.hasData()
+                    ? current
+                    : new State(current.circuit(), initial.status().queriedAt()));
+        }
+    }
+
+    public State current() {
+        return state.get();
+    }
+
+    /** Record a circuit breaker transition. */
+    public void circuit(TflGateway.CircuitState circuit) {
+        state.updateAndGet(current -> new State(circuit, current.dataAsOf()));
+    }
+
+    private void dataAsOf(Instant dataAsOf) {
+        state.updateAndGet(current -> new State(current.circuit(), dataAsOf));
+    }
+}
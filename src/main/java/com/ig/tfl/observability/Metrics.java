@@ -1,10 +1,12 @@
 package com.ig.tfl.observability;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import io.micrometer.core.instrument.binder.jvm.JvmGcMetrics;
 import io.micrometer.core.instrument.binder.jvm.JvmMemoryMetrics;
 import io.micrometer.core.instrument.binder.jvm.JvmThreadMetrics;
@@ -13,6 +15,8 @@ import io.micrometer.prometheus.PrometheusConfig;
 import io.micrometer.prometheus.PrometheusMeterRegistry;
 
 import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
@@ -29,6 +33,7 @@ public class Metrics {
 
     private final PrometheusMeterRegistry registry;
     private final AtomicLong dataFreshnessMs = new AtomicLong(0);
+    private final Map<String, AtomicLong> payloadSizes = new ConcurrentHashMap<>();
 
     public Metrics() {
         this.registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
@@ -103,6 +108,124 @@ public class Metrics {
                 .record(ageMs / 1000.0);
     }
 
+    /**
+     * Record how long it took to serialize and precompress the payloads for one snapshot.
+     */
+    public void recordPayloadBuild(Duration duration) {
+        Timer.builder("payload_build_seconds")
+                .description("Time to build cached response payloads for a snapshot")
+                .register(registry)
+                .record(duration);
+    }
+
+    /**
+     * Set the cached payload size for a view (status, disruptions, lines) and
+     * content coding (identity, gzip, deflate). Replaced on every snapshot.
+     */
+    public void updatePayloadSize(String view, String encoding, long bytes) {
+        payloadSizes.computeIfAbsent(view + "/" + encoding, key -> {
+            AtomicLong size = new AtomicLong();
+            Gauge.builder("payload_size_bytes", size, AtomicLong::get)
+                    .tag("view", view)
+                    .tag("encoding", encoding)
+                    .description("Size of the cached response payload for the current snapshot")
+                    .register(registry);
+            return size;
+        }).set(bytes);
+    }
+
+    /**
+     * Register a gauge of connected streaming clients for a transport (sse, websocket, long-poll).
+     */
+    public void registerStreamSubscribers(String transport, Supplier<Number> count) {
+        Gauge.builder("stream_subscribers", count, c -> c.get().doubleValue())
+                .tag("transport", transport)
+                .description("Connected streaming clients")
+                .register(registry);
+    }
+
+    /**
+     * Record a streaming client disconnected for falling too far behind.
+     */
+    public void recordStreamSubscriberDropped(String transport) {
+        Counter.builder("stream_subscribers_dropped_total")
+                .tag("transport", transport)
+                .description("Streaming clients disconnected for not keeping up")
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Register a gauge of distinct TfL calls in flight in the gateway.
+     */
+    public void registerTflInFlight(Supplier<Number> count) {
+        Gauge.builder("tfl_requests_in_flight", count, c -> c.get().doubleValue())
+                .description("Distinct TfL calls currently in flight")
+                .register(registry);
+    }
+
+    /**
+     * Record a fetch that joined an identical in-flight TfL call instead of making its own.
+     * call = all-lines or date-range.
+     */
+    public void recordTflCoalesced(String call) {
+        Counter.builder("tfl_requests_coalesced_total")
+                .tag("call", call)
+                .description("Fetches answered by an identical in-flight TfL call")
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Record how many requesters one completed TfL call answered (1 = nothing coalesced).
+     */
+    public void recordTflFanOut(String call, int requesters) {
+        DistributionSummary.builder("tfl_request_fanout")
+                .tag("call", call)
+                .serviceLevelObjectives(1, 2, 10, 100)
+                .description("Requesters answered per TfL call")
+                .register(registry)
+                .record(requesters);
+    }
+
+    /**
+     * Record how many lines one date-range TfL call was for (more than 1 = a
+     * batch collected by TflGateway).
+     */
+    public void recordTflBatch(int lines) {
+        DistributionSummary.builder("tfl_request_batch_lines")
+                .serviceLevelObjectives(1, 2, 5, 10)
+                .description("Lines per date-range TfL call")
+                .register(registry)
+                .record(lines);
+    }
+
+    /**
+     * Record one date-range prefetch decision.
+     * result = refreshed, failed, skipped_budget or skipped_circuit.
+     */
+    public void recordPrefetch(String result) {
+        Counter.builder("date_range_prefetch_total")
+                .tag("result", result)
+                .description("Date-range prefetches by outcome")
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Register a local cache: cache_gets_total{result=hit|miss}, cache_puts_total,
+     * cache_evictions_total, cache_size, plus cache_weighted_size for caches
+     * bounded by weight (e.g. estimated bytes). Needs recordStats() on the cache.
+     */
+    public void registerCache(String name, Cache<?, ?> cache) {
+        CaffeineCacheMetrics.monitor(registry, cache, name);
+        Gauge.builder("cache_weighted_size", cache,
+                        c -> c.policy().eviction().map(e -> e.weightedSize().orElse(0L)).orElse(0L))
+                .tag("cache", name)
+                .description("Total weight of the cache's entries (the unit its weigher uses)")
+                .register(registry);
+    }
+
     /**
      * Get Prometheus text format output for /metrics endpoint.
      */
@@ -129,6 +252,7 @@ public class Metrics {
     /**
      * Normalize path to avoid high-cardinality labels.
      * /api/v1/tube/central/status -> /api/v1/tube/{lineId}/status
+     * /api/v1/tube/status/severity/minor-delays -> /api/v1/tube/status/severity/{severity}
      */
     private String normalizePath(String path) {
         if (path == null) {
@@ -137,6 +261,7 @@ public class Metrics {
 
         // Replace line IDs with placeholder
         return path.replaceAll("/tube/[^/]+/status", "/tube/{lineId}/status")
-                   .replaceAll("/status/[^/]+/to/[^/]+", "/status/{from}/to/{to}");
+                   .replaceAll("/status/[^/]+/to/[^/]+", "/status/{from}/to/{to}")
+                   .replaceAll("/status/severity/[^/]+", "/status/severity/{severity}");
     }
 }
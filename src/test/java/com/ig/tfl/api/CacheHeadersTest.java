@@ -0,0 +1,75 @@
+package com.ig.tfl.api;
+
+import com.ig.tfl.client.TflGateway;
+import com.ig.tfl.crdt.StatusSnapshotHolder;
+import com.ig.tfl.model.TubeStatus;
+import com.ig.tfl.observability.HealthSnapshot;
+import org.apache.pekko.http.javadsl.model.HttpHeader;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the shared-cache contract (floor 5s, default 60s, soft refresh 10s).
+ */
+class CacheHeadersTest {
+
+    private final HealthSnapshot health = new HealthSnapshot(new StatusSnapshotHolder());
+    private final CacheHeaders cacheHeaders =
+            new CacheHeaders(TubeStatusRoutes.RoutesConfig.defaults(Duration.ofSeconds(5)), health);
+
+    @Test
+    void defaultBudget_allowsFloorOnTopOfDataAge_andStaleServing() {
+        List<HttpHeader> headers = cacheHeaders.forStatus(statusAged(Duration.ofMillis(11_200)));
+
+        assertThat(value(headers, "Age")).isEqualTo("12");
+        assertThat(value(headers, "Cache-Control"))
+                .isEqualTo("public, max-age=17, stale-while-revalidate=10, stale-if-error=60");
+    }
+
+    @Test
+    void maxAge_neverExceedsTheFreshnessBudget() {
+        List<HttpHeader> headers = cacheHeaders.forStatus(statusAged(Duration.ofSeconds(58)));
+
+        assertThat(value(headers, "Cache-Control")).startsWith("public, max-age=60,");
+    }
+
+    @Test
+    void dataOlderThanBudget_isStaleOnArrival() {
+        List<HttpHeader> headers = cacheHeaders.forStatus(statusAged(Duration.ofMillis(89_500)));
+
+        assertThat(value(headers, "Age")).isEqualTo("90");
+        assertThat(value(headers, "Cache-Control")).startsWith("public, max-age=60,");
+    }
+
+    @Test
+    void clientMaxAge_mustRevalidate_withoutStaleAllowances() {
+        List<HttpHeader> headers = cacheHeaders.forStatus(statusAged(Duration.ofMillis(3_500)), 10_000, true);
+
+        assertThat(value(headers, "Cache-Control")).isEqualTo("public, max-age=9, must-revalidate");
+    }
+
+    @Test
+    void openCircuit_extendsStaleIfError() {
+        health.circuit(TflGateway.CircuitState.OPEN);
+
+        List<HttpHeader> headers = cacheHeaders.forStatus(statusAged(Duration.ofSeconds(1)));
+
+        assertThat(value(headers, "Cache-Control")).endsWith("stale-if-error=600");
+    }
+
+    private static String value(List<HttpHeader> headers, String name) {
+        return headers.stream().filter(h -> h.name().equals(name)).findFirst().orElseThrow().value();
+    }
+
+    private static TubeStatus statusAged(Duration age) {
+        return new TubeStatus(
+                List.of(new TubeStatus.LineStatus("victoria", "Victoria", "Good Service", "Good Service", List.of())),
+                Instant.now().minus(age),
+                "test-node");
+    }
+}
@@ -0,0 +1,48 @@
+package com.ig.tfl.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for Accept-Encoding negotiation against precompressed variants.
+ */
+class ContentCodingNegotiationTest {
+
+    @Test
+    void absentOrBlankHeader_isIdentity() {
+        assertThat(select(null)).isNull();
+        assertThat(select("  ")).isNull();
+    }
+
+    @Test
+    void prefersGzipAtEqualWeight() {
+        assertThat(select("gzip, deflate, br")).isEqualTo(Precompressed.Coding.GZIP);
+        assertThat(select("deflate, gzip")).isEqualTo(Precompressed.Coding.GZIP);
+        assertThat(select("x-gzip")).isEqualTo(Precompressed.Coding.GZIP);
+    }
+
+    @Test
+    void honoursQValues() {
+        assertThat(select("gzip;q=0.5, deflate")).isEqualTo(Precompressed.Coding.DEFLATE);
+        assertThat(select("gzip;q=0, deflate;q=0")).isNull();
+        assertThat(select("identity, gzip;q=0.5")).isNull();
+    }
+
+    @Test
+    void wildcardCoversUnlistedCodings() {
+        assertThat(select("*")).isEqualTo(Precompressed.Coding.GZIP);
+        assertThat(select("gzip;q=0, *")).isEqualTo(Precompressed.Coding.DEFLATE);
+    }
+
+    @Test
+    void unsupportedCodingsOnly_isIdentity() {
+        assertThat(select("br, zstd")).isNull();
+    }
+
+    private static Precompressed.Coding select(String header) {
+        return ContentCodingNegotiation.select(Optional.ofNullable(header));
+    }
+}
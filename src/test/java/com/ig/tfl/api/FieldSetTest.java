@@ -0,0 +1,60 @@
+package com.ig.tfl.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ig.tfl.model.TubeStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for ?fields= parsing and projection.
+ */
+class FieldSetTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final TubeStatus.LineStatus line = new TubeStatus.LineStatus("central", "Central",
+            "Minor Delays", "Minor Delays",
+            List.of(new TubeStatus.Disruption("RealTime", "Signal failure", false)));
+
+    @Test
+    void projectsTopLevelFieldsInModelOrder() throws Exception {
+        String json = objectMapper.writeValueAsString(FieldSet.parse("status,id").project(objectMapper, line));
+
+        assertThat(json).isEqualTo("{\"id\":\"central\",\"status\":\"Minor Delays\"}");
+    }
+
+    @Test
+    void projectsNestedDisruptionFields() throws Exception {
+        String json = objectMapper.writeValueAsString(
+                FieldSet.parse("id,disruptions.category").project(objectMapper, line));
+
+        assertThat(json).isEqualTo("{\"id\":\"central\",\"disruptions\":[{\"category\":\"RealTime\"}]}");
+    }
+
+    @Test
+    void wholeDisruptionsKeepsEveryDisruptionField() throws Exception {
+        String json = objectMapper.writeValueAsString(FieldSet.parse("disruptions").project(objectMapper, line));
+
+        assertThat(json).contains("\"description\":\"Signal failure\"").contains("\"isPlanned\":false");
+    }
+
+    @Test
+    void orderAndWhitespaceDoNotChangeIdentity() {
+        assertThat(FieldSet.parse(" status , id")).isEqualTo(FieldSet.parse("id,status"));
+        assertThat(FieldSet.COMMON).contains(FieldSet.parse("disruptions.category,status,id"));
+    }
+
+    @Test
+    void rejectsUnknownAndEmptyFieldLists() {
+        assertThatThrownBy(() -> FieldSet.parse("id,colour"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("colour");
+        assertThatThrownBy(() -> FieldSet.parse("disruptions.severity"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FieldSet.parse(" , "))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,127 @@
+package com.ig.tfl.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ig.tfl.cache.DateRangeCache;
+import com.ig.tfl.client.TflGateway;
+import com.ig.tfl.crdt.StatusSnapshotHolder;
+import com.ig.tfl.crdt.TubeStatusReplicator;
+import com.ig.tfl.model.TubeStatus;
+import com.ig.tfl.observability.HealthSnapshot;
+import com.ig.tfl.observability.Metrics;
+import org.apache.pekko.actor.testkit.typed.javadsl.ActorTestKit;
+import org.apache.pekko.actor.typed.ActorRef;
+import org.apache.pekko.actor.typed.javadsl.Behaviors;
+import org.apache.pekko.http.javadsl.model.HttpRequest;
+import org.apache.pekko.http.javadsl.model.HttpResponse;
+import org.apache.pekko.stream.Materializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the readiness probe reading the published HealthSnapshot.
+ * The replicator and gateway stubs never reply, as under saturation.
+ */
+class HealthRoutesTest {
+
+    private static ActorTestKit testKit;
+    private static Materializer materializer;
+    private static ActorRef<TubeStatusReplicator.Command> replicator;
+    private static ActorRef<TflGateway.Command> gateway;
+
+    @BeforeAll
+    static void setupClass() {
+        testKit = ActorTestKit.create("health-routes-test");
+        materializer = Materializer.createMaterializer(testKit.system());
+        replicator = testKit.spawn(
+                Behaviors.receive(TubeStatusReplicator.Command.class)
+                        .onMessage(TubeStatusReplicator.Command.class, msg -> Behaviors.same())
+                        .build());
+        gateway = testKit.<TflGateway.Command>createTestProbe().ref();
+    }
+
+    @AfterAll
+    static void teardownClass() {
+        if (testKit != null) {
+            testKit.shutdownTestKit();
+        }
+    }
+
+    @Test
+    void ready_reportsPublishedCircuitAndDataAge_withoutAskingActors() throws Exception {
+        StatusSnapshotHolder snapshots = new StatusSnapshotHolder();
+        HealthSnapshot health = new HealthSnapshot(snapshots);
+        TubeStatusRoutes routes = routes(snapshots, health);
+        snapshots.publish(status(Instant.now().minusSeconds(5)));
+        health.circuit(TflGateway.CircuitState.OPEN);
+
+        HttpResponse response = ready(routes);
+
+        assertThat(response.status().intValue()).isEqualTo(200);
+        JsonNode json = json(response);
+        assertThat(json.get("status").asText()).isEqualTo("ready");
+        assertThat(json.get("circuit").asText()).isEqualTo("OPEN");
+        assertThat(json.get("dataAgeMs").asLong()).isBetween(5_000L, 60_000L);
+    }
+
+    @Test
+    void ready_beforeFirstSnapshot_isWarmingUp() throws Exception {
+        StatusSnapshotHolder snapshots = new StatusSnapshotHolder();
+        TubeStatusRoutes routes = routes(snapshots, new HealthSnapshot(snapshots));
+
+        HttpResponse response = ready(routes);
+
+        assertThat(response.status().intValue()).isEqualTo(503);
+        assertThat(json(response).get("status").asText()).isEqualTo("warming_up");
+    }
+
+    @Test
+    void healthSnapshot_picksUpSnapshotPublishedBeforeIt() {
+        StatusSnapshotHolder snapshots = new StatusSnapshotHolder();
+        Instant queriedAt = Instant.now().minusSeconds(1);
+        snapshots.publish(status(queriedAt));
+
+        HealthSnapshot health = new HealthSnapshot(snapshots);
+
+        assertThat(health.current().dataAsOf()).isEqualTo(queriedAt);
+        assertThat(health.current().circuit()).isEqualTo(TflGateway.CircuitState.CLOSED);
+    }
+
+    private static TubeStatusRoutes routes(StatusSnapshotHolder snapshots, HealthSnapshot health) {
+        var config = TubeStatusRoutes.RoutesConfig.defaults(Duration.ofSeconds(2));
+        return new TubeStatusRoutes(testKit.system(), replicator, snapshots, gateway, new Metrics(),
+                config, health, new DateRangeCache(config.dateRangeCache()));
+    }
+
+    private static HttpResponse ready(TubeStatusRoutes routes) throws Exception {
+        // Well under the ask timeout: nothing is asked
+        return routes.routes().handler(testKit.system())
+                .apply(HttpRequest.GET("/api/health/ready"))
+                .toCompletableFuture()
+                .get(500, TimeUnit.MILLISECONDS);
+    }
+
+    private static JsonNode json(HttpResponse response) throws Exception {
+        byte[] body = response.entity().toStrict(5000, materializer)
+                .toCompletableFuture()
+                .get(5, TimeUnit.SECONDS)
+                .getData()
+                .toArray();
+        return new ObjectMapper().readTree(body);
+    }
+
+    private static TubeStatus status(Instant queriedAt) {
+        return new TubeStatus(
+                List.of(new TubeStatus.LineStatus("central", "Central", "Good Service", "Good Service", List.of())),
+                queriedAt,
+                "test-node");
+    }
+}
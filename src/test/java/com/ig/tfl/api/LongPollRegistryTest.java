@@ -0,0 +1,104 @@
+package com.ig.tfl.api;
+
+import com.ig.tfl.model.StatusSnapshot;
+import com.ig.tfl.model.TubeStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the long-poll timer wheel. Ticks are driven by hand; the release
+ * executor runs inline.
+ */
+class LongPollRegistryTest {
+
+    private final LongPollRegistry registry =
+            new LongPollRegistry(Duration.ofMillis(100), Duration.ofSeconds(1), 3, Runnable::run);
+
+    @Test
+    void release_completesAllParkedRequestsWithSnapshot() {
+        CompletableFuture<StatusSnapshot> first = registry.park(200, null);
+        CompletableFuture<StatusSnapshot> second = registry.park(900, null);
+        StatusSnapshot snapshot = snapshot();
+
+        registry.release(snapshot);
+
+        assertThat(first).isCompletedWithValue(snapshot);
+        assertThat(second).isCompletedWithValue(snapshot);
+        assertThat(registry.parked()).isZero();
+    }
+
+    @Test
+    void tick_timesOutRequestsWhenTheirSlotComesRound() {
+        CompletableFuture<StatusSnapshot> shortWait = registry.park(150, null);  // 2 ticks
+        CompletableFuture<StatusSnapshot> longWait = registry.park(500, null);   // 5 ticks
+
+        registry.tick();
+        assertThat(shortWait).isNotDone();
+        registry.tick();
+        assertThat(shortWait).isCompletedWithValue(null);
+        assertThat(longWait).isNotDone();
+
+        for (int i = 0; i < 3; i++) {
+            registry.tick();
+        }
+        assertThat(longWait).isCompletedWithValue(null);
+        assertThat(registry.parked()).isZero();
+    }
+
+    @Test
+    void park_capsWaitAtMaxWait() {
+        CompletableFuture<StatusSnapshot> parked = registry.park(60_000, null);
+
+        for (int i = 0; i < 10; i++) {
+            registry.tick();
+        }
+        assertThat(parked).isCompletedWithValue(null);
+    }
+
+    @Test
+    void park_refusesWhenFull() {
+        registry.park(100, null);
+        registry.park(100, null);
+        registry.park(100, null);
+
+        assertThat(registry.park(100, null)).isNull();
+
+        registry.release(snapshot());
+        assertThat(registry.park(100, null)).isNotNull();
+    }
+
+    @Test
+    void park_afterAnotherSnapshotWasReleased_completesAtOnceWithoutTakingASlot() {
+        StatusSnapshot seen = snapshot();
+        registry.release(seen);
+        StatusSnapshot published = snapshot();
+        registry.release(published);
+
+        assertThat(registry.park(500, seen)).isCompletedWithValue(published);
+        assertThat(registry.parked()).isZero();
+        assertThat(registry.park(500, published)).isNotDone();
+    }
+
+    @Test
+    void expireAll_timesOutEveryParkedRequest() {
+        CompletableFuture<StatusSnapshot> parked = registry.park(500, null);
+
+        registry.expireAll();
+
+        assertThat(parked).isCompletedWithValue(null);
+        assertThat(registry.parked()).isZero();
+    }
+
+    private static StatusSnapshot snapshot() {
+        return StatusSnapshot.of(new TubeStatus(
+                List.of(new TubeStatus.LineStatus("central", "Central", "Good Service", "Good Service", List.of())),
+                Instant.now(),
+                "test-node"));
+    }
+}
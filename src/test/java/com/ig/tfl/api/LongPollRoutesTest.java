@@ -0,0 +1,176 @@
+package com.ig.tfl.api;
+
+import com.ig.tfl.client.TflGateway;
+import com.ig.tfl.crdt.StatusSnapshotHolder;
+import com.ig.tfl.crdt.TubeStatusReplicator;
+import com.ig.tfl.model.TubeStatus;
+import com.ig.tfl.observability.HealthSnapshot;
+import com.ig.tfl.observability.Metrics;
+import org.apache.pekko.actor.testkit.typed.javadsl.ActorTestKit;
+import org.apache.pekko.actor.typed.ActorRef;
+import org.apache.pekko.actor.typed.javadsl.Behaviors;
+import org.apache.pekko.http.javadsl.model.HttpRequest;
+import org.apache.pekko.http.javadsl.model.HttpResponse;
+import org.apache.pekko.stream.Materializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for long-poll status requests (?newerThan=...&waitMs=...).
+ */
+class LongPollRoutesTest {
+
+    private static ActorTestKit testKit;
+    private static Materializer materializer;
+    private static StatusSnapshotHolder snapshots;
+    private static TubeStatusRoutes routes;
+
+    private static Instant clock;
+
+    @BeforeAll
+    static void setupClass() {
+        testKit = ActorTestKit.create("long-poll-routes-test");
+        materializer = Materializer.createMaterializer(testKit.system());
+        snapshots = new StatusSnapshotHolder();
+        clock = Instant.now().minusSeconds(60);
+
+        ActorRef<TubeStatusReplicator.Command> replicator = testKit.spawn(
+                Behaviors.receive(TubeStatusReplicator.Command.class)
+                        .onMessage(TubeStatusReplicator.Command.class, msg -> Behaviors.same())
+                        .build());
+        ActorRef<TflGateway.Command> gateway = testKit.<TflGateway.Command>createTestProbe().ref();
+
+        var defaults = TubeStatusRoutes.RoutesConfig.defaults(Duration.ofSeconds(2));
+        var config = new TubeStatusRoutes.RoutesConfig(defaults.askTimeout(), defaults.minimumFreshnessMs(),
+                defaults.defaultFreshnessMs(), defaults.backgroundRefreshThreshold(),
+                defaults.streamSubscriberBuffer(), defaults.streamHeartbeat(),
+                Duration.ofSeconds(3), Duration.ofMillis(50), 10, defaults.staleIfErrorCircuitOpen(),
+                defaults.dateRangeCache());
+        routes = new TubeStatusRoutes(testKit.system(), replicator, snapshots, gateway, new Metrics(), config,
+                new HealthSnapshot(snapshots));
+    }
+
+    @AfterAll
+    static void teardownClass() {
+        if (routes != null) {
+            routes.close();
+        }
+        if (testKit != null) {
+            testKit.shutdownTestKit();
+        }
+    }
+
+    @BeforeEach
+    void publishInitialSnapshot() {
+        publish("Good Service");
+    }
+
+    @Test
+    void olderQueriedAt_returnsCurrentSnapshotImmediately() throws Exception {
+        long older = snapshots.current().queriedAt().toEpochMilli() - 1;
+
+        HttpResponse response = handle("/api/v1/tube/status?newerThan=" + older + "&waitMs=3000")
+                .get(1, TimeUnit.SECONDS);
+
+        assertThat(response.status().intValue()).isEqualTo(200);
+        assertThat(body(response)).contains("Good Service");
+    }
+
+    @Test
+    void currentEtag_parksUntilNextSnapshotIsPublished() throws Exception {
+        HttpResponse current = handle("/api/v1/tube/status").get(5, TimeUnit.SECONDS);
+        String etag = current.getHeader("ETag").orElseThrow().value();
+
+        CompletableFuture<HttpResponse> parked = handle("/api/v1/tube/status?newerThan="
+                + URLEncoder.encode(etag, StandardCharsets.UTF_8) + "&waitMs=3000");
+        Thread.sleep(200);
+        assertThat(parked).isNotDone();
+
+        publish("Severe Delays");
+
+        HttpResponse response = parked.get(2, TimeUnit.SECONDS);
+        assertThat(response.status().intValue()).isEqualTo(200);
+        assertThat(body(response)).contains("Severe Delays");
+        assertThat(response.getHeader("ETag").orElseThrow().value()).isNotEqualTo(etag);
+    }
+
+    @Test
+    void noNewerSnapshot_timesOutWithNotModified() throws Exception {
+        String seen = snapshots.current().queriedAt().toString();
+
+        HttpResponse response = handle("/api/v1/tube/status?newerThan=" + seen + "&waitMs=200")
+                .get(2, TimeUnit.SECONDS);
+
+        assertThat(response.status().intValue()).isEqualTo(304);
+    }
+
+    @Test
+    void snapshotNotNewerThanPeerToken_keepsWaiting() throws Exception {
+        // Token from a peer 1.5s ahead of this node
+        long ahead = snapshots.current().queriedAt().toEpochMilli() + 1500;
+        CompletableFuture<HttpResponse> parked = handle("/api/v1/tube/status?newerThan=" + ahead + "&waitMs=3000");
+        Thread.sleep(200);
+
+        publish("Minor Delays");   // 1s later: still behind the token
+        Thread.sleep(200);
+        assertThat(parked).isNotDone();
+
+        publish("Severe Delays");  // 2s later: newer
+        HttpResponse response = parked.get(2, TimeUnit.SECONDS);
+        assertThat(response.status().intValue()).isEqualTo(200);
+        assertThat(body(response)).contains("Severe Delays");
+    }
+
+    @Test
+    void invalidWaitMs_returnsBadRequest() throws Exception {
+        HttpResponse response = handle("/api/v1/tube/status?newerThan=0&waitMs=soon")
+                .get(1, TimeUnit.SECONDS);
+
+        assertThat(response.status().intValue()).isEqualTo(400);
+    }
+
+    @Test
+    void isNewer_acceptsMillisInstantOrEtag() {
+        Instant queriedAt = Instant.parse("2026-01-01T10:00:00Z");
+        String tag = queriedAt.toEpochMilli() + "-abc";
+
+        assertThat(LongPollRoutes.isNewer(queriedAt, tag, String.valueOf(queriedAt.toEpochMilli() - 1))).isTrue();
+        assertThat(LongPollRoutes.isNewer(queriedAt, tag, "2026-01-01T10:00:00Z")).isFalse();
+        assertThat(LongPollRoutes.isNewer(queriedAt, tag, "\"" + tag + "-gzip\"")).isFalse();
+        assertThat(LongPollRoutes.isNewer(queriedAt, tag, "W/\"older-tag\"")).isTrue();
+    }
+
+    private static void publish(String central) {
+        clock = clock.plusSeconds(1);
+        snapshots.publish(new TubeStatus(
+                List.of(new TubeStatus.LineStatus("central", "Central", central, central, List.of())),
+                clock,
+                "test-node"));
+    }
+
+    private static CompletableFuture<HttpResponse> handle(String uri) {
+        return routes.routes().handler(testKit.system())
+                .apply(HttpRequest.GET(uri))
+                .toCompletableFuture();
+    }
+
+    private static String body(HttpResponse response) throws Exception {
+        return response.entity().toStrict(5000, materializer)
+                .toCompletableFuture()
+                .get(5, TimeUnit.SECONDS)
+                .getData()
+                .utf8String();
+    }
+}
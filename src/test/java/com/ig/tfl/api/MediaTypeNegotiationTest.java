@@ -0,0 +1,48 @@
+package com.ig.tfl.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for Accept negotiation between JSON and the binary formats.
+ */
+class MediaTypeNegotiationTest {
+
+    @Test
+    void absentOrGenericHeader_isJson() {
+        assertThat(select(null)).isNull();
+        assertThat(select("*/*")).isNull();
+        assertThat(select("application/json, text/plain, */*")).isNull();
+        assertThat(select("application/*")).isNull();
+    }
+
+    @Test
+    void explicitBinaryType_isSelected() {
+        assertThat(select("application/cbor")).isEqualTo(BinaryFormat.CBOR);
+        assertThat(select("application/x-jackson-smile")).isEqualTo(BinaryFormat.SMILE);
+        assertThat(select("application/msgpack")).isEqualTo(BinaryFormat.MSGPACK);
+        assertThat(select("application/x-msgpack")).isEqualTo(BinaryFormat.MSGPACK);
+        assertThat(select("application/x-protobuf")).isEqualTo(BinaryFormat.PROTOBUF);
+        assertThat(select("application/protobuf")).isEqualTo(BinaryFormat.PROTOBUF);
+    }
+
+    @Test
+    void jsonWinsTiesAndQValuesDecide() {
+        assertThat(select("application/cbor, application/json")).isNull();
+        assertThat(select("application/cbor, application/json;q=0.9")).isEqualTo(BinaryFormat.CBOR);
+        assertThat(select("application/cbor;q=0.5, application/msgpack")).isEqualTo(BinaryFormat.MSGPACK);
+        assertThat(select("application/cbor;q=0, */*")).isNull();
+    }
+
+    @Test
+    void nothingAcceptable_fallsBackToJson() {
+        assertThat(select("text/html")).isNull();
+    }
+
+    private static BinaryFormat select(String accept) {
+        return MediaTypeNegotiation.select(Optional.ofNullable(accept));
+    }
+}
@@ -0,0 +1,137 @@
+package com.ig.tfl.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.ig.tfl.model.TubeStatus;
+import org.apache.pekko.http.javadsl.model.ContentTypes;
+import org.apache.pekko.http.javadsl.model.HttpEntities;
+import org.apache.pekko.http.javadsl.model.HttpResponse;
+import org.apache.pekko.http.javadsl.model.StatusCodes;
+import org.apache.pekko.util.ByteString;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark: bytes allocated per response body, Jackson marshaller vs StatusJsonWriter.
+ *
+ * "marshaller" reproduces what complete(status, value, Jackson.marshaller(mapper))
+ * did before: Map or record -> writeValueAsString -> entity. "writer" is the
+ * current path (constant JsonErrors responses, streaming writer otherwise).
+ * Allocation is the calling thread's allocated-bytes counter, so each case runs
+ * single-threaded after a warmup. Lives in the api package because the writer
+ * is package-private.
+ *
+ * Run with: ./gradlew perfTest --tests '*ResponseBodyAllocationBenchmarkTest'
+ */
+@Tag("perf")
+class ResponseBodyAllocationBenchmarkTest {
+
+    private static final int WARMUP_ITERATIONS = 50_000;
+    private static final int MEASURED_ITERATIONS = 200_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // Consumed so the JIT cannot drop the work
+    private long sink;
+
+    @Test
+    void allocationPerResponse_marshallerVsWriter() throws Exception {
+        List<TubeStatus.LineStatus> lines = network();
+        ApiResponse.Meta meta = new ApiResponse.Meta(Instant.now().minusSeconds(5), Instant.now());
+        ApiResponse response = new ApiResponse(lines, meta);
+        ChangesResponse changes = new ChangesResponse(1L, false, lines.subList(0, 2), meta);
+
+        System.out.printf("%n%-16s %18s %14s %18s %14s%n", "body",
+                "marshaller(B/op)", "(ns/op)", "writer(B/op)", "(ns/op)");
+        compare("no data (503)",
+                () -> marshalled(Map.of("error", "No data available")),
+                () -> JsonErrors.NO_DATA);
+        compare("line not found",
+                () -> marshalled(Map.of("error", "Line not found: " + sink % 10)),
+                () -> JsonErrors.of(StatusCodes.NOT_FOUND, "Line not found: " + sink % 10));
+        compare("readiness",
+                () -> marshalled(Map.of("status", "ready", "circuit", "CLOSED", "dataAgeMs", sink % 1000)),
+                () -> written(StatusJsonWriter.write(generator -> {
+                    generator.writeStartObject();
+                    generator.writeStringField("status", "ready");
+                    generator.writeStringField("circuit", "CLOSED");
+                    generator.writeNumberField("dataAgeMs", sink % 1000);
+                    generator.writeEndObject();
+                })));
+        compare("changes (2)",
+                () -> marshalled(changes),
+                () -> written(StatusJsonWriter.changes(changes)));
+        compare("ApiResponse (11)",
+                () -> marshalled(response),
+                () -> written(StatusJsonWriter.response(response)));
+    }
+
+    private void compare(String name, Callable<HttpResponse> marshaller, Callable<HttpResponse> writer)
+            throws Exception {
+        measure(marshaller, WARMUP_ITERATIONS);
+        measure(writer, WARMUP_ITERATIONS);
+        long[] before = measure(marshaller, MEASURED_ITERATIONS);
+        long[] after = measure(writer, MEASURED_ITERATIONS);
+
+        System.out.printf("%-16s %18d %14d %18d %14d%n", name,
+                before[0] / MEASURED_ITERATIONS, before[1] / MEASURED_ITERATIONS,
+                after[0] / MEASURED_ITERATIONS, after[1] / MEASURED_ITERATIONS);
+        assertThat(after[0]).as(name).isLessThan(before[0]);
+    }
+
+    /** {allocated bytes, elapsed nanos} for iterations calls. */
+    private long[] measure(Callable<HttpResponse> body, int iterations) throws Exception {
+        long threadId = Thread.currentThread().threadId();
+        long allocatedStart = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += body.call().entity().getContentLengthOption().orElse(0L);
+        }
+        long elapsed = System.nanoTime() - start;
+        return new long[] {threads.getThreadAllocatedBytes(threadId) - allocatedStart, elapsed};
+    }
+
+    private HttpResponse marshalled(Object value) throws Exception {
+        return HttpResponse.create()
+                .withStatus(StatusCodes.OK)
+                .withEntity(HttpEntities.create(ContentTypes.APPLICATION_JSON, objectMapper.writeValueAsString(value)));
+    }
+
+    private static HttpResponse written(ByteString body) {
+        return HttpResponse.create()
+                .withStatus(StatusCodes.OK)
+                .withEntity(HttpEntities.create(ContentTypes.APPLICATION_JSON, body));
+    }
+
+    private static List<TubeStatus.LineStatus> network() {
+        List<TubeStatus.LineStatus> lines = new ArrayList<>();
+        for (String id : List.of("bakerloo", "central", "circle", "district", "hammersmith-city",
+                "jubilee", "metropolitan", "northern", "piccadilly", "victoria", "waterloo-city")) {
+            boolean disrupted = id.startsWith("c") || id.equals("northern");
+            lines.add(new TubeStatus.LineStatus(id, id.substring(0, 1).toUpperCase(Locale.ROOT) + id.substring(1),
+                    disrupted ? "Minor Delays" : "Good Service",
+                    disrupted ? "Minor Delays" : "Good Service",
+                    disrupted
+                            ? List.of(new TubeStatus.Disruption("RealTime",
+                                    "Minor delays due to an earlier signal failure.", false))
+                            : List.of()));
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,118 @@
+package com.ig.tfl.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ig.tfl.client.TflGateway;
+import com.ig.tfl.crdt.StatusSnapshotHolder;
+import com.ig.tfl.crdt.TubeStatusReplicator;
+import com.ig.tfl.model.TubeStatus;
+import com.ig.tfl.observability.HealthSnapshot;
+import com.ig.tfl.observability.Metrics;
+import org.apache.pekko.actor.testkit.typed.javadsl.ActorTestKit;
+import org.apache.pekko.actor.typed.ActorRef;
+import org.apache.pekko.actor.typed.javadsl.Behaviors;
+import org.apache.pekko.http.javadsl.model.HttpRequest;
+import org.apache.pekko.http.javadsl.model.HttpResponse;
+import org.apache.pekko.stream.Materializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the delta endpoint (/status/changes?since=...).
+ */
+class StatusChangesRoutesTest {
+
+    private static ActorTestKit testKit;
+    private static Materializer materializer;
+    private static StatusSnapshotHolder snapshots;
+    private static TubeStatusRoutes routes;
+    private static long firstVersion;
+
+    @BeforeAll
+    static void setupClass() {
+        testKit = ActorTestKit.create("status-changes-routes-test");
+        materializer = Materializer.createMaterializer(testKit.system());
+        snapshots = new StatusSnapshotHolder();
+
+        ActorRef<TubeStatusReplicator.Command> replicator = testKit.spawn(
+                Behaviors.receive(TubeStatusReplicator.Command.class)
+                        .onMessage(TubeStatusReplicator.Command.class, msg -> Behaviors.same())
+                        .build());
+        ActorRef<TflGateway.Command> gateway = testKit.<TflGateway.Command>createTestProbe().ref();
+        routes = new TubeStatusRoutes(testKit.system(), replicator, snapshots, gateway, new Metrics(),
+                Duration.ofSeconds(2), new HealthSnapshot(snapshots));
+
+        Instant queriedAt = Instant.now().minusSeconds(60);
+        snapshots.publish(status("Good Service", queriedAt));
+        firstVersion = snapshots.snapshot().version();
+        snapshots.publish(status("Severe Delays", queriedAt.plusSeconds(30)));
+    }
+
+    @AfterAll
+    static void teardownClass() {
+        if (routes != null) {
+            routes.close();
+        }
+        if (testKit != null) {
+            testKit.shutdownTestKit();
+        }
+    }
+
+    @Test
+    void since_returnsOnlyChangedLinesAndNewVersion() throws Exception {
+        JsonNode body = json(handle("/api/v1/tube/status/changes?since=" + firstVersion));
+
+        assertThat(body.get("version").asLong()).isEqualTo(snapshots.snapshot().version());
+        assertThat(body.get("full").asBoolean()).isFalse();
+        assertThat(body.get("lines")).hasSize(1);
+        assertThat(body.at("/lines/0/id").asText()).isEqualTo("central");
+        assertThat(body.at("/lines/0/status").asText()).isEqualTo("Severe Delays");
+    }
+
+    @Test
+    void withoutSince_returnsFullSnapshot() throws Exception {
+        JsonNode body = json(handle("/api/v1/tube/status/changes"));
+
+        assertThat(body.get("full").asBoolean()).isTrue();
+        assertThat(body.get("lines")).hasSize(2);
+    }
+
+    @Test
+    void invalidSince_returnsBadRequest() throws Exception {
+        assertThat(handle("/api/v1/tube/status/changes?since=yesterday").status().intValue()).isEqualTo(400);
+    }
+
+    private static HttpResponse handle(String uri) throws Exception {
+        return routes.routes().handler(testKit.system())
+                .apply(HttpRequest.GET(uri))
+                .toCompletableFuture()
+                .get(5, TimeUnit.SECONDS);
+    }
+
+    private static JsonNode json(HttpResponse response) throws Exception {
+        assertThat(response.status().intValue()).isEqualTo(200);
+        byte[] body = response.entity().toStrict(5000, materializer)
+                .toCompletableFuture()
+                .get(5, TimeUnit.SECONDS)
+                .getData()
+                .toArray();
+        return new ObjectMapper().readTree(body);
+    }
+
+    private static TubeStatus status(String central, Instant queriedAt) {
+        return new TubeStatus(
+                List.of(
+                        new TubeStatus.LineStatus("victoria", "Victoria", "Good Service", "Good Service", List.of()),
+                        new TubeStatus.LineStatus("central", "Central", central, central, List.of())),
+                queriedAt,
+                "test-node");
+    }
+}
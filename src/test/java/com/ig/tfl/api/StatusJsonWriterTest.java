@@ -0,0 +1,68 @@
+package com.ig.tfl.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.ig.tfl.model.TubeStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The streaming writer must produce exactly what the Jackson marshaller did.
+ */
+class StatusJsonWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final List<TubeStatus.LineStatus> lines = List.of(
+            new TubeStatus.LineStatus("victoria", "Victoria", "Good Service", "Good Service", List.of()),
+            new TubeStatus.LineStatus("hammersmith-city", "Hammersmith & City", "Minor Delays", "Minor Delays",
+                    List.of(new TubeStatus.Disruption("RealTime", "Signal failure at \"Baker St\"\n", false),
+                            new TubeStatus.Disruption("PlannedWork", "Closed \u2013 engineering works", true))),
+            new TubeStatus.LineStatus("central", null, "Unknown", null, null));
+
+    @Test
+    void apiResponse_matchesObjectMapper() throws Exception {
+        ApiResponse response = new ApiResponse(lines, new ApiResponse.Meta(
+                Instant.parse("2026-02-02T14:30:00Z"), Instant.parse("2026-02-02T14:30:01.123456Z")));
+
+        assertThat(StatusJsonWriter.response(response).utf8String())
+                .isEqualTo(objectMapper.writeValueAsString(response));
+    }
+
+    @Test
+    void lineAndLines_matchObjectMapper() throws Exception {
+        assertThat(StatusJsonWriter.lines(lines).utf8String()).isEqualTo(objectMapper.writeValueAsString(lines));
+        assertThat(StatusJsonWriter.line(lines.get(1)).utf8String())
+                .isEqualTo(objectMapper.writeValueAsString(lines.get(1)));
+    }
+
+    @Test
+    void changes_matchesObjectMapper() throws Exception {
+        ChangesResponse changes = new ChangesResponse(1_770_042_600_000L, false, lines.subList(0, 1),
+                new ApiResponse.Meta(Instant.parse("2026-02-02T14:30:00Z"), Instant.parse("2026-02-02T14:30:05Z")));
+
+        assertThat(StatusJsonWriter.changes(changes).utf8String()).isEqualTo(objectMapper.writeValueAsString(changes));
+    }
+
+    @Test
+    void error_matchesObjectMapper() throws Exception {
+        assertThat(StatusJsonWriter.error("Line not found: \"x\"").utf8String())
+                .isEqualTo(objectMapper.writeValueAsString(Map.of("error", "Line not found: \"x\"")));
+    }
+
+    @Test
+    void pooledBuffer_doesNotLeakIntoEarlierResults() {
+        var first = StatusJsonWriter.error("first");
+        StatusJsonWriter.lines(lines);
+
+        assertThat(first.utf8String()).isEqualTo("{\"error\":\"first\"}");
+    }
+}
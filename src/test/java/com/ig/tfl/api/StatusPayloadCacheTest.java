@@ -0,0 +1,217 @@
+package com.ig.tfl.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.ig.tfl.crdt.StatusSnapshotHolder;
+import com.ig.tfl.model.StatusSnapshot;
+import com.ig.tfl.model.TubeStatus;
+import com.ig.tfl.observability.Metrics;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for pre-serialized status payloads.
+ */
+class StatusPayloadCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    void payloadMatchesJacksonSerializationOfApiResponse() throws Exception {
+        TubeStatus status = sampleStatus(Instant.parse("2026-02-02T14:30:00.123Z"));
+        Instant respondedAt = Instant.parse("2026-02-02T14:30:05.456Z");
+
+        JsonPayload payload = JsonPayload.of(status.lines(), status.queriedAt());
+        String spliced = payload.toEntity(respondedAt).getData().utf8String();
+
+        String viaJackson = objectMapper.writeValueAsString(new ApiResponse(status.lines(),
+                new ApiResponse.Meta(status.queriedAt(), respondedAt)));
+        assertThat(spliced).isEqualTo(viaJackson);
+    }
+
+    @Test
+    void reusesPayloadForPublishedSnapshot() {
+        var snapshots = new StatusSnapshotHolder();
+        var cache = new StatusPayloadCache(objectMapper, snapshots, new Metrics());
+
+        TubeStatus first = sampleStatus(Instant.now().minusSeconds(30));
+        snapshots.publish(first);
+        JsonPayload firstPayload = cache.allLines(first);
+        assertThat(cache.allLines(first)).isSameAs(firstPayload);
+
+        // New snapshot replaces the cached bytes
+        TubeStatus second = sampleStatus(Instant.now());
+        snapshots.publish(second);
+        assertThat(cache.allLines(second)).isSameAs(cache.allLines(second));
+        assertThat(cache.allLines(second)).isNotSameAs(firstPayload);
+
+        // Statuses other than the published one are serialized on demand, not cached
+        assertThat(cache.allLines(first)).isNotSameAs(cache.allLines(first));
+    }
+
+    @Test
+    void compressedVariantsDecodeToIdentityBody() throws Exception {
+        TubeStatus status = sampleStatus(Instant.parse("2026-02-02T14:30:00.123Z"));
+        Instant respondedAt = Instant.parse("2026-02-02T14:30:05.456Z");
+        JsonPayload payload = JsonPayload.of(status.lines(), status.queriedAt())
+                .withCompressedVariants();
+        String identity = payload.toEntity(respondedAt).getData().utf8String();
+
+        byte[] gzip = payload.toEntity(respondedAt, payload.gzip()).getData().toArray();
+        byte[] deflate = payload.toEntity(respondedAt, payload.deflate()).getData().toArray();
+
+        // Stream readers verify the CRC-32 / Adler-32 trailers we continue per request
+        try (var in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(identity);
+        }
+        try (var in = new InflaterInputStream(new ByteArrayInputStream(deflate))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(identity);
+        }
+    }
+
+    @Test
+    void compressedVariantsHaveTheirOwnEtags() {
+        JsonPayload payload = JsonPayload.of(sampleStatus(Instant.now()).lines(), Instant.now())
+                .withCompressedVariants();
+
+        assertThat(payload.etag(payload.gzip())).isNotEqualTo(payload.etag());
+        assertThat(payload.etag(payload.deflate())).isNotEqualTo(payload.etag(payload.gzip()));
+        assertThat(payload.etag(null)).isEqualTo(payload.etag());
+    }
+
+    @Test
+    void publishedSnapshotCachesDisruptionsAndLines() {
+        var snapshots = new StatusSnapshotHolder();
+        var metrics = new Metrics();
+        var cache = new StatusPayloadCache(objectMapper, snapshots, metrics);
+        TubeStatus status = sampleStatus(Instant.now());
+        snapshots.publish(status);
+
+        StatusSnapshot snapshot = snapshots.snapshot();
+        assertThat(cache.disruptions(snapshot)).isSameAs(cache.disruptions(snapshot));
+        assertThat(cache.disruptions(snapshot).gzip()).isNotNull();
+        assertThat(cache.severity(snapshot, "minor-delays")).isSameAs(cache.severity(snapshot, "Minor Delays"));
+        assertThat(cache.line(status, "CENTRAL")).isSameAs(cache.line(status, "central"));
+        assertThat(cache.line(status, "jubilee")).isNull();
+
+        assertThat(metrics.scrape())
+                .contains("payload_build_seconds")
+                .contains("payload_size_bytes{encoding=\"gzip\",view=\"status\"}");
+    }
+
+    @Test
+    void lineIndexServesAnyCaseAndRejectsUnknownIds() {
+        var snapshots = new StatusSnapshotHolder();
+        var cache = new StatusPayloadCache(objectMapper, snapshots, new Metrics());
+        List<TubeStatus.LineStatus> lines = IntStream.range(0, 300)
+                .mapToObj(i -> new TubeStatus.LineStatus("line-" + i, "Line " + i, "Good Service",
+                        "Good Service", List.of()))
+                .toList();
+        TubeStatus status = new TubeStatus(lines, Instant.now(), "test-node");
+        snapshots.publish(status);
+
+        JsonPayload payload = cache.line(status, "LINE-299");
+        assertThat(payload).isSameAs(cache.line(status, "line-299"));
+        assertThat(payload.toEntity(Instant.now()).getData().utf8String())
+                .contains("\"id\":\"line-299\"")
+                .doesNotContain("\"line-298\"");
+        assertThat(cache.line(status, "line-300")).isNull();
+    }
+
+    @Test
+    void lineSelectionIsSplicedFromFragmentsAndMatchesFullSerialization() {
+        var snapshots = new StatusSnapshotHolder();
+        var cache = new StatusPayloadCache(objectMapper, snapshots, new Metrics());
+        TubeStatus status = sampleStatus(Instant.now());
+        snapshots.publish(status);
+        Instant respondedAt = Instant.now();
+
+        JsonPayload selection = cache.lines(status, List.of("Central", "victoria", "central"));
+
+        // Request order, duplicates dropped; same bytes and tag as serializing those lines directly
+        JsonPayload direct = JsonPayload.of(
+                List.of(status.lines().get(1), status.lines().get(0)), status.queriedAt());
+        assertThat(selection.toEntity(respondedAt).getData()).isEqualTo(direct.toEntity(respondedAt).getData());
+        assertThat(selection.tag()).isEqualTo(direct.tag());
+        assertThat(cache.unknownLines(status, List.of("central", "nope", "NOPE"))).containsExactly("nope", "NOPE");
+    }
+
+    @Test
+    void commonProjectionsArePrecomputedAndOthersCachedPerSnapshot() {
+        var snapshots = new StatusSnapshotHolder();
+        var cache = new StatusPayloadCache(objectMapper, snapshots, new Metrics());
+        TubeStatus status = sampleStatus(Instant.now());
+        snapshots.publish(status);
+
+        JsonPayload idStatus = cache.allLines(status, FieldSet.parse("id,status"));
+        assertThat(cache.allLines(status, FieldSet.parse("status,id"))).isSameAs(idStatus);
+        assertThat(idStatus.toEntity(Instant.now()).getData().utf8String())
+                .contains("{\"id\":\"central\",\"status\":\"Minor Delays\"}")
+                .doesNotContain("Signal failure");
+        assertThat(idStatus.size()).isLessThan(cache.allLines(status).size());
+        assertThat(idStatus.tag()).isNotEqualTo(cache.allLines(status).tag());
+
+        FieldSet names = FieldSet.parse("name");
+        JsonPayload line = cache.line(status, "CENTRAL", names);
+        assertThat(cache.line(status, "central", names)).isSameAs(line);
+        assertThat(cache.lines(status, List.of("victoria"), names))
+                .isSameAs(cache.lines(status, List.of("victoria"), names));
+
+        // Next snapshot starts with an empty on-demand cache
+        TubeStatus next = sampleStatus(Instant.now().plusSeconds(1));
+        snapshots.publish(next);
+        assertThat(cache.line(next, "central", names)).isNotSameAs(line);
+    }
+
+    @Test
+    void binaryVariantsDecodeToTheJsonDocument() throws Exception {
+        var snapshots = new StatusSnapshotHolder();
+        var cache = new StatusPayloadCache(objectMapper, snapshots, new Metrics());
+        TubeStatus status = sampleStatus(Instant.parse("2026-02-02T14:30:00Z"));
+        snapshots.publish(status);
+        JsonPayload payload = cache.allLines(status);
+        Instant respondedAt = Instant.parse("2026-02-02T14:30:05Z");
+
+        JsonNode json = objectMapper.readTree(payload.toEntity(respondedAt).getData().toArray());
+        for (BinaryFormat format : BinaryFormat.values()) {
+            BinaryPayload binary = payload.binary(format);
+            assertThat(payload.binary().get(format)).as("precomputed %s", format).isSameAs(binary);
+            if (format == BinaryFormat.PROTOBUF) {
+                continue;  // Own schema; see StatusProtobufTest
+            }
+
+            JsonNode decoded = format.mapper().readTree(binary.toEntity(respondedAt).getData().toArray());
+            // Binary timestamps always carry milliseconds, where JSON drops a zero fraction
+            assertThat(decoded.at("/meta/respondedAtUtc").asText()).isEqualTo("2026-02-02T14:30:05.000Z");
+            ((ObjectNode) decoded.get("meta")).remove("respondedAtUtc");
+            ObjectNode expected = json.deepCopy();
+            ((ObjectNode) expected.get("meta")).remove("respondedAtUtc");
+            assertThat(decoded).as("%s", format).isEqualTo(expected);
+        }
+    }
+
+    private static TubeStatus sampleStatus(Instant queriedAt) {
+        return new TubeStatus(
+                List.of(
+                        new TubeStatus.LineStatus("victoria", "Victoria", "Good Service",
+                                "Good Service", List.of()),
+                        new TubeStatus.LineStatus("central", "Central", "Minor Delays", "Minor Delays",
+                                List.of(new TubeStatus.Disruption("RealTime", "Signal failure", false)))),
+                queriedAt,
+                "test-node");
+    }
+}
@@ -0,0 +1,97 @@
+package com.ig.tfl.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.ig.tfl.model.TubeStatus;
+import com.ig.tfl.proto.StatusProto;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the protobuf form of status payloads.
+ */
+class StatusProtobufTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    void knownLinesAndSeverities_areSentAsCodes() throws Exception {
+        StatusProto.ApiResponse response = decode(JsonPayload.of(List.of(
+                new TubeStatus.LineStatus("hammersmith-city", "Hammersmith & City", "Minor Delays",
+                        "Minor Delays", List.of(new TubeStatus.Disruption("RealTime", "Signal failure", false))),
+                new TubeStatus.LineStatus("elizabeth", "Elizabeth line", "Change of frequency",
+                        "Change of frequency", List.of())),
+                Instant.parse("2026-02-02T14:30:00.123Z")));
+
+        StatusProto.LineStatus known = response.getLines(0);
+        assertThat(known.getLineId()).isEqualTo(StatusProto.LineId.LINE_ID_HAMMERSMITH_CITY);
+        assertThat(known.getId()).isEmpty();
+        assertThat(known.getName()).isEqualTo("Hammersmith & City");
+        assertThat(known.getStatus()).isEqualTo(StatusProto.Severity.SEVERITY_MINOR_DELAYS);
+        assertThat(known.getStatusSeverityDescription()).isEqualTo(StatusProto.Severity.SEVERITY_MINOR_DELAYS);
+        assertThat(known.getDisruptions(0).getDescription()).isEqualTo("Signal failure");
+
+        // No code yet: the text is kept
+        StatusProto.LineStatus unknown = response.getLines(1);
+        assertThat(unknown.getLineId()).isEqualTo(StatusProto.LineId.LINE_ID_UNSPECIFIED);
+        assertThat(unknown.getId()).isEqualTo("elizabeth");
+        assertThat(unknown.getStatus()).isEqualTo(StatusProto.Severity.SEVERITY_UNSPECIFIED);
+        assertThat(unknown.getStatusText()).isEqualTo("Change of frequency");
+    }
+
+    @Test
+    void respondedAt_isMergedIntoMeta() throws Exception {
+        Instant dataAsOf = Instant.parse("2026-02-02T14:30:00.123Z");
+        Instant respondedAt = Instant.parse("2026-02-02T14:30:05.456Z");
+        JsonPayload payload = JsonPayload.of(List.of(line("victoria")), dataAsOf);
+
+        byte[] body = payload.binary(BinaryFormat.PROTOBUF).toEntity(respondedAt).getData().toArray();
+        StatusProto.Meta meta = StatusProto.ApiResponse.parseFrom(body).getMeta();
+
+        assertThat(meta.getDataAsOfUtc().getSeconds()).isEqualTo(dataAsOf.getEpochSecond());
+        assertThat(meta.getDataAsOfUtc().getNanos()).isEqualTo(dataAsOf.getNano());
+        assertThat(meta.getRespondedAtUtc().getSeconds()).isEqualTo(respondedAt.getEpochSecond());
+        assertThat(meta.getRespondedAtUtc().getNanos()).isEqualTo(respondedAt.getNano());
+    }
+
+    @Test
+    void projection_leavesUnselectedFieldsUnset() throws Exception {
+        FieldSet fields = FieldSet.parse("id,status");
+        StatusProto.ApiResponse response = decode(JsonPayload.ofProjected(objectMapper, List.of(line("central")),
+                List.of(fields.project(objectMapper, line("central"))),
+                Instant.parse("2026-02-02T14:30:00Z")));
+
+        StatusProto.LineStatus line = response.getLines(0);
+        assertThat(line.getLineId()).isEqualTo(StatusProto.LineId.LINE_ID_CENTRAL);
+        assertThat(line.getStatus()).isEqualTo(StatusProto.Severity.SEVERITY_GOOD_SERVICE);
+        assertThat(line.getName()).isEmpty();
+        assertThat(line.getDisruptionsCount()).isZero();
+    }
+
+    @Test
+    void fullNetwork_isAFewHundredBytes() {
+        List<String> ids = List.of("bakerloo", "central", "circle", "district", "hammersmith-city", "jubilee",
+                "metropolitan", "northern", "piccadilly", "victoria", "waterloo-city");
+        JsonPayload payload = JsonPayload.of(ids.stream().map(StatusProtobufTest::line).toList(),
+                Instant.parse("2026-02-02T14:30:00Z"));
+
+        assertThat(payload.binary(BinaryFormat.PROTOBUF).size()).isLessThan(300);
+    }
+
+    private static StatusProto.ApiResponse decode(JsonPayload payload) throws Exception {
+        return StatusProto.ApiResponse.parseFrom(
+                payload.binary(BinaryFormat.PROTOBUF).toEntity(Instant.now()).getData().toArray());
+    }
+
+    private static TubeStatus.LineStatus line(String id) {
+        return new TubeStatus.LineStatus(id, id.substring(0, 1).toUpperCase() + id.substring(1),
+                "Good Service", "Good Service", List.of());
+    }
+}
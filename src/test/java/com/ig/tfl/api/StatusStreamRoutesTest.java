@@ -0,0 +1,197 @@
+package com.ig.tfl.api;
+
+import com.ig.tfl.client.TflGateway;
+import com.ig.tfl.crdt.StatusSnapshotHolder;
+import com.ig.tfl.crdt.TubeStatusReplicator;
+import com.ig.tfl.model.TubeStatus;
+import com.ig.tfl.observability.HealthSnapshot;
+import com.ig.tfl.observability.Metrics;
+import org.apache.pekko.actor.testkit.typed.javadsl.ActorTestKit;
+import org.apache.pekko.actor.typed.ActorRef;
+import org.apache.pekko.actor.typed.javadsl.Behaviors;
+import org.apache.pekko.http.javadsl.model.HttpRequest;
+import org.apache.pekko.http.javadsl.model.HttpResponse;
+import org.apache.pekko.http.javadsl.model.headers.RawHeader;
+import org.apache.pekko.stream.Materializer;
+import org.apache.pekko.stream.javadsl.Sink;
+import org.apache.pekko.stream.javadsl.SinkQueueWithCancel;
+import org.apache.pekko.util.ByteString;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the Server-Sent Events status stream.
+ *
+ * Routes are driven in-process; snapshots are published to the holder directly,
+ * which is what the replicator does on adoption.
+ */
+class StatusStreamRoutesTest {
+
+    private static ActorTestKit testKit;
+    private static Materializer materializer;
+    private static StatusSnapshotHolder snapshots;
+    private static TubeStatusRoutes routes;
+
+    private static Instant clock;
+
+    @BeforeAll
+    static void setupClass() {
+        testKit = ActorTestKit.create("stream-routes-test");
+        materializer = Materializer.createMaterializer(testKit.system());
+        snapshots = new StatusSnapshotHolder();
+        clock = Instant.now().minusSeconds(60);
+
+        ActorRef<TubeStatusReplicator.Command> replicator = testKit.spawn(
+                Behaviors.receive(TubeStatusReplicator.Command.class)
+                        .onMessage(TubeStatusReplicator.Command.class, msg -> Behaviors.same())
+                        .build());
+        ActorRef<TflGateway.Command> gateway = testKit.<TflGateway.Command>createTestProbe().ref();
+
+        routes = new TubeStatusRoutes(testKit.system(), replicator, snapshots, gateway,
+                new Metrics(), Duration.ofSeconds(2), new HealthSnapshot(snapshots));
+    }
+
+    @AfterAll
+    static void teardownClass() {
+        if (routes != null) {
+            routes.close();
+        }
+        if (testKit != null) {
+            testKit.shutdownTestKit();
+        }
+    }
+
+    @BeforeEach
+    void publishInitialSnapshot() {
+        publish("Good Service", "Minor Delays");
+    }
+
+    @Test
+    void sendsCurrentSnapshotOnConnect() throws Exception {
+        long currentId = snapshots.current().queriedAt().toEpochMilli();
+        HttpResponse response = handle(HttpRequest.GET("/api/v1/tube/status/stream"));
+
+        assertThat(response.entity().getContentType().mediaType().toString()).isEqualTo("text/event-stream");
+        EventReader events = new EventReader(response);
+        String first = events.next();
+        assertThat(first).containsPattern("event: ?status")
+                .containsPattern("id: ?" + currentId)
+                .contains("\"victoria\"");
+        events.cancel();
+    }
+
+    @Test
+    void sendsOneEventPerContentChange() throws Exception {
+        EventReader events = new EventReader(handle(HttpRequest.GET("/api/v1/tube/status/stream")));
+        events.next();
+        awaitHubSubscription();
+
+        publish("Good Service", "Minor Delays");    // same content, newer query: no event
+        publish("Severe Delays", "Minor Delays");
+
+        assertThat(events.next()).contains("Severe Delays");
+        events.cancel();
+    }
+
+    @Test
+    void lineFilter_ignoresChangesToOtherLines() throws Exception {
+        EventReader events = new EventReader(handle(HttpRequest.GET("/api/v1/tube/status/stream?lines=Victoria")));
+        assertThat(events.next()).contains("\"victoria\"").doesNotContain("\"central\"");
+        awaitHubSubscription();
+
+        publish("Good Service", "Part Suspended");  // central only: filtered out
+        publish("Planned Closure", "Part Suspended");
+
+        String next = events.next();
+        assertThat(next).contains("Planned Closure").doesNotContain("\"central\"");
+        events.cancel();
+    }
+
+    @Test
+    void lastEventId_skipsAlreadySeenSnapshot() throws Exception {
+        String seen = String.valueOf(snapshots.current().queriedAt().toEpochMilli());
+        EventReader events = new EventReader(handle(HttpRequest.GET("/api/v1/tube/status/stream")
+                .addHeader(RawHeader.create("Last-Event-ID", seen))));
+        awaitHubSubscription();
+
+        publish("Reduced Service", "Minor Delays");
+
+        assertThat(events.next()).contains("Reduced Service");
+        events.cancel();
+    }
+
+    @Test
+    void lastEventId_sameContentAfterResume_sendsNoEvent() throws Exception {
+        String seen = String.valueOf(snapshots.current().queriedAt().toEpochMilli());
+        EventReader events = new EventReader(handle(HttpRequest.GET("/api/v1/tube/status/stream")
+                .addHeader(RawHeader.create("Last-Event-ID", seen))));
+        awaitHubSubscription();
+
+        publish("Good Service", "Minor Delays");    // same content as the resumed snapshot: no event
+        publish("Part Closure", "Minor Delays");
+
+        assertThat(events.next()).contains("Part Closure");
+        events.cancel();
+    }
+
+    /** BroadcastHub registers consumers asynchronously; publishes before that are not seen. */
+    private static void awaitHubSubscription() throws InterruptedException {
+        Thread.sleep(300);
+    }
+
+    private static void publish(String victoria, String central) {
+        clock = clock.plusSeconds(1);
+        snapshots.publish(new TubeStatus(
+                List.of(
+                        new TubeStatus.LineStatus("victoria", "Victoria", victoria, victoria, List.of()),
+                        new TubeStatus.LineStatus("central", "Central", central, central, List.of())),
+                clock,
+                "test-node"));
+    }
+
+    private static HttpResponse handle(HttpRequest request) throws Exception {
+        return routes.routes().handler(testKit.system())
+                .apply(request)
+                .toCompletableFuture()
+                .get(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Reads complete events (terminated by a blank line) from a streamed response.
+     */
+    private static final class EventReader {
+        private final SinkQueueWithCancel<String> chunks;
+        private final StringBuilder buffer = new StringBuilder();
+
+        EventReader(HttpResponse response) {
+            this.chunks = response.entity().getDataBytes()
+                    .map(ByteString::utf8String)
+                    .runWith(Sink.queue(), materializer);
+        }
+
+        String next() throws Exception {
+            while (buffer.indexOf("\n\n") < 0) {
+                String chunk = chunks.pull().toCompletableFuture().get(5, TimeUnit.SECONDS)
+                        .orElseThrow(() -> new AssertionError("Stream completed"));
+                buffer.append(chunk);
+            }
+            int end = buffer.indexOf("\n\n");
+            String event = buffer.substring(0, end);
+            buffer.delete(0, end + 2);
+            return event;
+        }
+
+        void cancel() {
+            chunks.cancel();
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.ig.tfl.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.ig.tfl.client.TflGateway;
+import com.ig.tfl.crdt.StatusSnapshotHolder;
+import com.ig.tfl.crdt.TubeStatusReplicator;
+import com.ig.tfl.model.StatusSnapshot;
+import com.ig.tfl.model.TubeStatus;
+import com.ig.tfl.observability.HealthSnapshot;
+import com.ig.tfl.observability.Metrics;
+import org.apache.pekko.actor.testkit.typed.javadsl.ActorTestKit;
+import org.apache.pekko.actor.typed.ActorRef;
+import org.apache.pekko.actor.typed.javadsl.Behaviors;
+import org.apache.pekko.http.javadsl.Http;
+import org.apache.pekko.http.javadsl.ServerBinding;
+import org.apache.pekko.http.javadsl.model.ws.Message;
+import org.apache.pekko.http.javadsl.model.ws.TextMessage;
+import org.apache.pekko.http.javadsl.model.ws.WebSocketRequest;
+import org.apache.pekko.japi.Pair;
+import org.apache.pekko.stream.BoundedSourceQueue;
+import org.apache.pekko.stream.Materializer;
+import org.apache.pekko.stream.javadsl.Flow;
+import org.apache.pekko.stream.javadsl.Keep;
+import org.apache.pekko.stream.javadsl.Sink;
+import org.apache.pekko.stream.javadsl.SinkQueueWithCancel;
+import org.apache.pekko.stream.javadsl.Source;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for WebSocket per-line subscriptions.
+ */
+class StatusWebSocketRoutesTest {
+
+    private static ActorTestKit testKit;
+    private static Materializer materializer;
+    private static StatusSnapshotHolder snapshots;
+    private static ServerBinding binding;
+    private static String wsUrl;
+    private static Instant clock;
+
+    @BeforeAll
+    static void setupClass() throws Exception {
+        testKit = ActorTestKit.create("websocket-routes-test");
+        materializer = Materializer.createMaterializer(testKit.system());
+        snapshots = new StatusSnapshotHolder();
+        clock = Instant.now().minusSeconds(60);
+
+        ActorRef<TubeStatusReplicator.Command> replicator = testKit.spawn(
+                Behaviors.receive(TubeStatusReplicator.Command.class)
+                        .onMessage(TubeStatusReplicator.Command.class, msg -> Behaviors.same())
+                        .build());
+        ActorRef<TflGateway.Command> gateway = testKit.<TflGateway.Command>createTestProbe().ref();
+        TubeStatusRoutes routes = new TubeStatusRoutes(testKit.system(), replicator, snapshots, gateway,
+                new Metrics(), Duration.ofSeconds(2), new HealthSnapshot(snapshots));
+
+        binding = Http.get(testKit.system()).newServerAt("127.0.0.1", 0)
+                .bind(routes.routes())
+                .toCompletableFuture()
+                .get(10, TimeUnit.SECONDS);
+        wsUrl = "ws://127.0.0.1:" + binding.localAddress().getPort() + "/api/v1/tube/status/ws";
+    }
+
+    @AfterAll
+    static void teardownClass() throws Exception {
+        if (binding != null) {
+            binding.unbind().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        }
+        if (testKit != null) {
+            testKit.shutdownTestKit();
+        }
+    }
+
+    @BeforeEach
+    void publishInitialSnapshot() {
+        publish("Good Service", "Minor Delays");
+    }
+
+    @Test
+    void subscribe_sendsCurrentStateThenOnlyChangesToThatLine() throws Exception {
+        Socket socket = Socket.open();
+        socket.send("{\"op\":\"subscribe\",\"lines\":[\"Central\"]}");
+        assertThat(socket.next()).contains("\"id\":\"central\"").contains("Minor Delays");
+
+        publish("Severe Delays", "Minor Delays");   // victoria only: not forwarded
+        publish("Severe Delays", "Part Suspended");
+
+        assertThat(socket.next()).contains("\"id\":\"central\"").contains("Part Suspended");
+        socket.close();
+    }
+
+    @Test
+    void unsubscribe_stopsUpdatesForThatLine() throws Exception {
+        Socket socket = Socket.open();
+        socket.send("{\"op\":\"subscribe\",\"lines\":[\"central\",\"victoria\"]}");
+        socket.next();
+        socket.next();
+
+        socket.send("{\"op\":\"unsubscribe\",\"lines\":[\"central\"]}");
+        socket.send("{\"op\":\"subscribe\",\"lines\":[\"nope\"]}");
+        assertThat(socket.next()).contains("\"type\":\"error\"").contains("Unknown line: nope");
+
+        publish("Good Service", "Part Suspended");  // central: unsubscribed
+        publish("Reduced Service", "Part Suspended");
+
+        assertThat(socket.next()).contains("\"id\":\"victoria\"").contains("Reduced Service");
+        socket.close();
+    }
+
+    @Test
+    void malformedFrame_getsErrorAndKeepsSocketOpen() throws Exception {
+        Socket socket = Socket.open();
+        socket.send("not json");
+        assertThat(socket.next()).contains("\"type\":\"error\"");
+
+        socket.send("{\"op\":\"subscribe\",\"lines\":[\"victoria\"]}");
+        assertThat(socket.next()).contains("\"id\":\"victoria\"");
+        socket.close();
+    }
+
+    @Test
+    void nullOrBlankLineIds_getErrorAndKeepSocketOpen() throws Exception {
+        Socket socket = Socket.open();
+        socket.send("{\"op\":\"subscribe\",\"lines\":[null]}");
+        assertThat(socket.next()).contains("\"type\":\"error\"");
+        socket.send("{\"op\":\"subscribe\",\"lines\":[\"central\",\" \"]}");
+        assertThat(socket.next()).contains("\"type\":\"error\"");
+
+        socket.send("{\"op\":\"subscribe\",\"lines\":[\"victoria\"]}");
+        assertThat(socket.next()).contains("\"id\":\"victoria\"");
+        socket.close();
+    }
+
+    @Test
+    void unknownOp_getsErrorEvenWithoutLines() throws Exception {
+        Socket socket = Socket.open();
+        socket.send("{\"op\":\"bogus\",\"lines\":[]}");
+        assertThat(socket.next()).contains("\"type\":\"error\"").contains("Unknown op: bogus");
+
+        socket.send("{\"op\":\"subscribe\",\"lines\":[\"central\"]}");
+        assertThat(socket.next()).contains("\"id\":\"central\"");
+        socket.close();
+    }
+
+    @Test
+    void encoder_reusesMessagesForUnchangedLines() {
+        var encoder = new StatusWebSocketRoutes.LineUpdateEncoder(
+                new ObjectMapper().registerModule(new JavaTimeModule()));
+        var first = encoder.apply(StatusSnapshot.of(status("Good Service", "Minor Delays", Instant.now())));
+        var second = encoder.apply(StatusSnapshot.of(status("Good Service", "Severe Delays",
+                Instant.now().plusSeconds(1))));
+
+        assertThat(first.changed()).containsExactlyInAnyOrder("victoria", "central");
+        assertThat(second.changed()).containsExactly("central");
+        assertThat(second.lines().get("victoria")).isSameAs(first.lines().get("victoria"));
+        assertThat(second.lines().get("central")).isNotSameAs(first.lines().get("central"));
+    }
+
+    @Test
+    void session_snapshotMissedBetweenConnectAndHub_changeStillPushed() {
+        var encoder = new StatusWebSocketRoutes.LineUpdateEncoder(
+                new ObjectMapper().registerModule(new JavaTimeModule()));
+        var session = session();
+        var connected = encoder.apply(StatusSnapshot.of(status("Good Service", "Good Service", clock.plusSeconds(1))));
+        session.handle(connected);
+        session.handle(new StatusWebSocketRoutes.ClientCommand("subscribe", List.of("central")));
+
+        // Published after the route read latest, before the hub subscription attached: never delivered
+        encoder.apply(StatusSnapshot.of(status("Good Service", "Part Closure", clock.plusSeconds(2))));
+        var next = encoder.apply(StatusSnapshot.of(status("Minor Delays", "Part Closure", clock.plusSeconds(3))));
+        assertThat(next.changed()).containsExactly("victoria");
+
+        assertThat(session.handle(next)).containsExactly(next.lines().get("central"));
+    }
+
+    @Test
+    void session_subscribedBeforeFirstSnapshot_unknownLinesGetError() {
+        var encoder = new StatusWebSocketRoutes.LineUpdateEncoder(
+                new ObjectMapper().registerModule(new JavaTimeModule()));
+        var session = session();
+        assertThat(session.handle(new StatusWebSocketRoutes.ClientCommand("subscribe", List.of("Nope", "central"))))
+                .isEmpty();
+
+        var first = encoder.apply(StatusSnapshot.of(status("Good Service", "Good Service", clock.plusSeconds(1))));
+        List<String> sent = new ArrayList<>();
+        for (Message message : session.handle(first)) {
+            sent.add(message.asTextMessage().getStrictText());
+        }
+
+        assertThat(sent).hasSize(2);
+        assertThat(sent.get(0)).contains("\"type\":\"error\"").contains("Unknown line: Nope");
+        assertThat(sent.get(1)).contains("\"id\":\"central\"");
+
+        var later = encoder.apply(StatusSnapshot.of(status("Good Service", "Part Closure", clock.plusSeconds(2))));
+        assertThat(session.handle(later)).containsExactly(later.lines().get("central"));
+    }
+
+    private static StatusWebSocketRoutes.Session session() {
+        var routes = new StatusWebSocketRoutes(testKit.system(), new StatusSnapshotHolder(),
+                new ObjectMapper().registerModule(new JavaTimeModule()), new Metrics(), 16);
+        return routes.new Session();
+    }
+
+    private static void publish(String victoria, String central) {
+        clock = clock.plusSeconds(1);
+        snapshots.publish(status(victoria, central, clock));
+    }
+
+    private static TubeStatus status(String victoria, String central, Instant queriedAt) {
+        return new TubeStatus(
+                List.of(
+                        new TubeStatus.LineStatus("victoria", "Victoria", victoria, victoria, List.of()),
+                        new TubeStatus.LineStatus("central", "Central", central, central, List.of())),
+                queriedAt,
+                "test-node");
+    }
+
+    /**
+     * Client socket with a queue for outgoing frames and one for incoming frames.
+     */
+    private record Socket(BoundedSourceQueue<Message> out, SinkQueueWithCancel<Message> in) {
+
+        static Socket open() throws Exception {
+            Flow<Message, Message, Pair<SinkQueueWithCancel<Message>, BoundedSourceQueue<Message>>> flow =
+                    Flow.fromSinkAndSourceMat(Sink.<Message>queue(), Source.<Message>queue(16), Keep.both());
+            var result = Http.get(testKit.system())
+                    .singleWebSocketRequest(WebSocketRequest.create(wsUrl), flow, materializer);
+            var upgrade = result.first().toCompletableFuture().get(5, TimeUnit.SECONDS);
+            assertThat(upgrade.response().status().intValue()).isEqualTo(101);
+            return new Socket(result.second().second(), result.second().first());
+        }
+
+        void send(String text) {
+            out.offer(TextMessage.create(text));
+        }
+
+        String next() throws Exception {
+            Message message = in.pull().toCompletableFuture().get(5, TimeUnit.SECONDS)
+                    .orElseThrow(() -> new AssertionError("Socket closed"));
+            return message.asTextMessage().toStrict(5000, materializer)
+                    .toCompletableFuture()
+                    .get(5, TimeUnit.SECONDS)
+                    .getStrictText();
+        }
+
+        void close() {
+            out.complete();
+            in.cancel();
+        }
+    }
+}
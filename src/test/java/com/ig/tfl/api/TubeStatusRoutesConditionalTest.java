@@ -0,0 +1,271 @@
+package com.ig.tfl.api;
+
+import com.ig.tfl.client.TflGateway;
+import com.ig.tfl.crdt.StatusSnapshotHolder;
+import com.ig.tfl.crdt.TubeStatusReplicator;
+import com.ig.tfl.model.TubeStatus;
+import com.ig.tfl.observability.HealthSnapshot;
+import com.ig.tfl.observability.Metrics;
+import org.apache.pekko.actor.testkit.typed.javadsl.ActorTestKit;
+import org.apache.pekko.actor.typed.ActorRef;
+import org.apache.pekko.actor.typed.javadsl.Behaviors;
+import org.apache.pekko.http.javadsl.model.DateTime;
+import org.apache.pekko.http.javadsl.model.HttpRequest;
+import org.apache.pekko.http.javadsl.model.HttpResponse;
+import org.apache.pekko.http.javadsl.model.headers.EntityTag;
+import org.apache.pekko.http.javadsl.model.headers.IfModifiedSince;
+import org.apache.pekko.http.javadsl.model.headers.IfNoneMatch;
+import org.apache.pekko.http.javadsl.model.headers.RawHeader;
+import org.apache.pekko.stream.Materializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Conditional GET (ETag / If-None-Match, Last-Modified / If-Modified-Since),
+ * precompressed content codings and binary formats on status routes.
+ *
+ * Routes are driven in-process against a snapshot holder we publish to directly.
+ * The stub replicator answers freshness asks with the current snapshot marked stale.
+ */
+class TubeStatusRoutesConditionalTest {
+
+    private static ActorTestKit testKit;
+    private static Materializer materializer;
+    private static StatusSnapshotHolder snapshots;
+    private static TubeStatusRoutes routes;
+
+    @BeforeAll
+    static void setupClass() {
+        testKit = ActorTestKit.create("conditional-routes-test");
+        materializer = Materializer.createMaterializer(testKit.system());
+        snapshots = new StatusSnapshotHolder();
+
+        ActorRef<TubeStatusReplicator.Command> replicator = testKit.spawn(
+                Behaviors.receive(TubeStatusReplicator.Command.class)
+                        .onMessage(TubeStatusReplicator.GetStatusWithFreshness.class, msg -> {
+                            msg.replyTo().tell(new TubeStatusReplicator.StatusResponse(
+                                    snapshots.current(), true, msg.maxAgeMs()));
+                            return Behaviors.same();
+                        })
+                        .onMessage(TubeStatusReplicator.Command.class, msg -> Behaviors.same())
+                        .build());
+        ActorRef<TflGateway.Command> gateway = testKit.<TflGateway.Command>createTestProbe().ref();
+
+        routes = new TubeStatusRoutes(testKit.system(), replicator, snapshots, gateway,
+                new Metrics(), Duration.ofSeconds(2), new HealthSnapshot(snapshots));
+    }
+
+    @AfterAll
+    static void teardownClass() {
+        if (routes != null) {
+            routes.close();
+        }
+        if (testKit != null) {
+            testKit.shutdownTestKit();
+        }
+    }
+
+    @BeforeEach
+    void publishFreshSnapshot() {
+        snapshots.publish(sampleStatus(Instant.now()));
+    }
+
+    @Test
+    void statusResponse_carriesValidators() throws Exception {
+        HttpResponse response = handle(HttpRequest.GET("/api/v1/tube/status"));
+
+        assertThat(response.status().intValue()).isEqualTo(200);
+        assertThat(response.getHeader("ETag")).isPresent();
+        assertThat(response.getHeader("Last-Modified")).isPresent();
+    }
+
+    @Test
+    void statusResponse_carriesSharedCacheHeaders() throws Exception {
+        HttpResponse response = handle(HttpRequest.GET("/api/v1/tube/status"));
+
+        assertThat(response.getHeader("Cache-Control").orElseThrow().value())
+                .startsWith("public, max-age=").contains("stale-while-revalidate=10");
+        assertThat(response.getHeader("Age")).isPresent();
+        assertThat(response.getHeader("Surrogate-Key").orElseThrow().value())
+                .isEqualTo("tfl-status line-victoria line-central");
+    }
+
+    @Test
+    void clientMaxAge_getsMustRevalidate_andErrorsAreNotStored() throws Exception {
+        HttpResponse bounded = handle(HttpRequest.GET("/api/v1/tube/status?maxAgeMs=30000"));
+        HttpResponse notFound = handle(HttpRequest.GET("/api/v1/tube/nope/status"));
+
+        assertThat(bounded.getHeader("Cache-Control").orElseThrow().value()).endsWith("must-revalidate");
+        assertThat(notFound.status().intValue()).isEqualTo(404);
+        assertThat(notFound.getHeader("Cache-Control").orElseThrow().value()).isEqualTo("no-store");
+    }
+
+    @Test
+    void matchingIfNoneMatch_returnsEmpty304() throws Exception {
+        EntityTag etag = etagOf(handle(HttpRequest.GET("/api/v1/tube/status")));
+
+        HttpResponse response = handle(HttpRequest.GET("/api/v1/tube/status")
+                .addHeader(IfNoneMatch.create(etag)));
+
+        assertThat(response.status().intValue()).isEqualTo(304);
+        assertThat(body(response)).isEmpty();
+    }
+
+    @Test
+    void ifModifiedSinceQueriedAt_returns304() throws Exception {
+        DateTime lastModified = DateTime.create(snapshots.current().queriedAt().toEpochMilli());
+
+        HttpResponse response = handle(HttpRequest.GET("/api/v1/tube/status")
+                .addHeader(IfModifiedSince.create(lastModified)));
+
+        assertThat(response.status().intValue()).isEqualTo(304);
+    }
+
+    @Test
+    void newSnapshot_invalidatesEtag() throws Exception {
+        EntityTag etag = etagOf(handle(HttpRequest.GET("/api/v1/tube/status")));
+        snapshots.publish(sampleStatus(Instant.now().plusMillis(1)));
+
+        HttpResponse response = handle(HttpRequest.GET("/api/v1/tube/status")
+                .addHeader(IfNoneMatch.create(etag)));
+
+        assertThat(response.status().intValue()).isEqualTo(200);
+        assertThat(etagOf(response)).isNotEqualTo(etag);
+    }
+
+    @Test
+    void lineStatus_hasOwnEtagAndSupports304() throws Exception {
+        EntityTag allLines = etagOf(handle(HttpRequest.GET("/api/v1/tube/status")));
+        EntityTag victoria = etagOf(handle(HttpRequest.GET("/api/v1/tube/victoria/status")));
+        assertThat(victoria).isNotEqualTo(allLines);
+
+        HttpResponse response = handle(HttpRequest.GET("/api/v1/tube/victoria/status")
+                .addHeader(IfNoneMatch.create(victoria)));
+        assertThat(response.status().intValue()).isEqualTo(304);
+    }
+
+    @Test
+    void staleData_neverAnswers304() throws Exception {
+        // Snapshot older than the client's maxAgeMs: replicator answers stale
+        snapshots.publish(sampleStatus(Instant.now().minusSeconds(600)));
+        EntityTag etag = etagOf(handle(HttpRequest.GET("/api/v1/tube/status?maxAgeMs=3600000")));
+
+        HttpResponse response = handle(HttpRequest.GET("/api/v1/tube/status?maxAgeMs=60000")
+                .addHeader(IfNoneMatch.create(etag)));
+
+        assertThat(response.status().intValue()).isEqualTo(200);
+        assertThat(response.getHeader("X-Data-Stale")).isPresent();
+    }
+
+    @Test
+    void acceptEncodingGzip_servesPrecompressedBody() throws Exception {
+        HttpResponse identity = handle(HttpRequest.GET("/api/v1/tube/status"));
+        String identityBody = body(identity);
+
+        HttpResponse gzip = handle(HttpRequest.GET("/api/v1/tube/status")
+                .addHeader(RawHeader.create("Accept-Encoding", "gzip, deflate, br")));
+
+        assertThat(gzip.getHeader("Content-Encoding").orElseThrow().value()).isEqualTo("gzip");
+        assertThat(gzip.getHeader("Vary").orElseThrow().value()).isEqualTo("Accept, Accept-Encoding");
+        assertThat(etagOf(gzip)).isNotEqualTo(etagOf(identity));
+
+        byte[] compressed = bytes(gzip);
+        try (var in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            String decoded = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            // respondedAtUtc differs per response; everything before it is shared
+            String prefix = identityBody.substring(0, identityBody.indexOf("\"respondedAtUtc\""));
+            assertThat(decoded).startsWith(prefix);
+        }
+    }
+
+    @Test
+    void acceptEncodingDeflateOnly_servesDeflateForLineStatus() throws Exception {
+        HttpResponse response = handle(HttpRequest.GET("/api/v1/tube/victoria/status")
+                .addHeader(RawHeader.create("Accept-Encoding", "deflate, gzip;q=0")));
+
+        assertThat(response.getHeader("Content-Encoding").orElseThrow().value()).isEqualTo("deflate");
+        try (var in = new InflaterInputStream(new ByteArrayInputStream(bytes(response)))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).contains("\"victoria\"");
+        }
+    }
+
+    @Test
+    void gzipEtag_supports304() throws Exception {
+        var acceptGzip = RawHeader.create("Accept-Encoding", "gzip");
+        EntityTag etag = etagOf(handle(HttpRequest.GET("/api/v1/tube/disruptions").addHeader(acceptGzip)));
+
+        HttpResponse response = handle(HttpRequest.GET("/api/v1/tube/disruptions")
+                .addHeader(acceptGzip)
+                .addHeader(IfNoneMatch.create(etag)));
+
+        assertThat(response.status().intValue()).isEqualTo(304);
+    }
+
+    @Test
+    void acceptCbor_servesBinaryWithItsOwnEtag() throws Exception {
+        var acceptCbor = RawHeader.create("Accept", "application/cbor");
+        HttpResponse json = handle(HttpRequest.GET("/api/v1/tube/status"));
+        HttpResponse cbor = handle(HttpRequest.GET("/api/v1/tube/status").addHeader(acceptCbor));
+
+        assertThat(cbor.entity().getContentType().mediaType().toString()).isEqualTo("application/cbor");
+        assertThat(BinaryFormat.CBOR.mapper().readTree(bytes(cbor)).at("/lines/1/id").asText())
+                .isEqualTo("central");
+        EntityTag etag = etagOf(cbor);
+        assertThat(etag).isNotEqualTo(etagOf(json));
+
+        HttpResponse notModified = handle(HttpRequest.GET("/api/v1/tube/status")
+                .addHeader(acceptCbor)
+                .addHeader(IfNoneMatch.create(etag)));
+        assertThat(notModified.status().intValue()).isEqualTo(304);
+    }
+
+    private static EntityTag etagOf(HttpResponse response) throws Exception {
+        body(response);
+        String value = response.getHeader("ETag").orElseThrow().value();
+        return EntityTag.create(value.replace("\"", ""), false);
+    }
+
+    private static HttpResponse handle(HttpRequest request) throws Exception {
+        return routes.routes().handler(testKit.system())
+                .apply(request)
+                .toCompletableFuture()
+                .get(5, TimeUnit.SECONDS);
+    }
+
+    private static String body(HttpResponse response) throws Exception {
+        return new String(bytes(response), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(HttpResponse response) throws Exception {
+        return response.entity()
+                .toStrict(5000, materializer)
+                .toCompletableFuture()
+                .get(5, TimeUnit.SECONDS)
+                .getData()
+                .toArray();
+    }
+
+    private static TubeStatus sampleStatus(Instant queriedAt) {
+        return new TubeStatus(
+                List.of(
+                        new TubeStatus.LineStatus("victoria", "Victoria", "Good Service",
+                                "Good Service", List.of()),
+                        new TubeStatus.LineStatus("central", "Central", "Minor Delays", "Minor Delays",
+                                List.of(new TubeStatus.Disruption("RealTime", "Signal failure", false)))),
+                queriedAt,
+                "test-node");
+    }
+}
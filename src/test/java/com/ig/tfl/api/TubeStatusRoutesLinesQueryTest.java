@@ -0,0 +1,168 @@
+package com.ig.tfl.api;
+
+import com.ig.tfl.client.TflGateway;
+import com.ig.tfl.crdt.StatusSnapshotHolder;
+import com.ig.tfl.crdt.TubeStatusReplicator;
+import com.ig.tfl.model.TubeStatus;
+import com.ig.tfl.observability.HealthSnapshot;
+import com.ig.tfl.observability.Metrics;
+import org.apache.pekko.actor.testkit.typed.javadsl.ActorTestKit;
+import org.apache.pekko.actor.typed.ActorRef;
+import org.apache.pekko.actor.typed.javadsl.Behaviors;
+import org.apache.pekko.http.javadsl.model.ContentTypes;
+import org.apache.pekko.http.javadsl.model.HttpHeader;
+import org.apache.pekko.http.javadsl.model.HttpRequest;
+import org.apache.pekko.http.javadsl.model.HttpResponse;
+import org.apache.pekko.stream.Materializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Multi-line queries (GET /status?lines=..., POST /status {"lines":[...]}) and
+ * sparse fieldsets (?fields=).
+ */
+class TubeStatusRoutesLinesQueryTest {
+
+    private static ActorTestKit testKit;
+    private static Materializer materializer;
+    private static StatusSnapshotHolder snapshots;
+    private static TubeStatusRoutes routes;
+
+    @BeforeAll
+    static void setupClass() {
+        testKit = ActorTestKit.create("lines-query-routes-test");
+        materializer = Materializer.createMaterializer(testKit.system());
+        snapshots = new StatusSnapshotHolder();
+
+        ActorRef<TubeStatusReplicator.Command> replicator = testKit.spawn(
+                Behaviors.receive(TubeStatusReplicator.Command.class)
+                        .onMessage(TubeStatusReplicator.GetStatusWithFreshness.class, msg -> {
+                            msg.replyTo().tell(new TubeStatusReplicator.StatusResponse(
+                                    snapshots.current(), true, msg.maxAgeMs()));
+                            return Behaviors.same();
+                        })
+                        .onMessage(TubeStatusReplicator.Command.class, msg -> Behaviors.same())
+                        .build());
+        ActorRef<TflGateway.Command> gateway = testKit.<TflGateway.Command>createTestProbe().ref();
+
+        routes = new TubeStatusRoutes(testKit.system(), replicator, snapshots, gateway,
+                new Metrics(), Duration.ofSeconds(2), new HealthSnapshot(snapshots));
+    }
+
+    @AfterAll
+    static void teardownClass() {
+        if (routes != null) {
+            routes.close();
+        }
+        if (testKit != null) {
+            testKit.shutdownTestKit();
+        }
+    }
+
+    @BeforeEach
+    void publishFreshSnapshot() {
+        snapshots.publish(sampleStatus(Instant.now()));
+    }
+
+    @Test
+    void getWithLines_returnsOnlyThoseLinesInRequestOrder() throws Exception {
+        HttpResponse response = handle(HttpRequest.GET("/api/v1/tube/status?lines=Central,victoria"));
+
+        assertThat(response.status().intValue()).isEqualTo(200);
+        assertThat(response.getHeader("ETag")).isPresent();
+        String body = body(response);
+        assertThat(body).doesNotContain("\"northern\"");
+        assertThat(body.indexOf("\"central\"")).isLessThan(body.indexOf("\"victoria\""));
+        assertThat(body).containsOnlyOnce("dataAsOfUtc");
+    }
+
+    @Test
+    void postWithLines_matchesGet() throws Exception {
+        HttpResponse get = handle(HttpRequest.GET("/api/v1/tube/status?lines=central,northern"));
+        HttpResponse post = handle(HttpRequest.POST("/api/v1/tube/status")
+                .withEntity(ContentTypes.APPLICATION_JSON, "{\"lines\":[\"central\",\"northern\"]}"));
+
+        assertThat(post.status().intValue()).isEqualTo(200);
+        assertThat(post.getHeader("ETag")).isEqualTo(get.getHeader("ETag"));
+    }
+
+    @Test
+    void unknownLine_returns404NamingIt() throws Exception {
+        HttpResponse response = handle(HttpRequest.GET("/api/v1/tube/status?lines=central,nope"));
+
+        assertThat(response.status().intValue()).isEqualTo(404);
+        assertThat(body(response)).contains("nope").doesNotContain("central");
+    }
+
+    @Test
+    void emptyLines_returns400() throws Exception {
+        HttpResponse response = handle(HttpRequest.GET("/api/v1/tube/status?lines=,"));
+
+        assertThat(response.status().intValue()).isEqualTo(400);
+    }
+
+    @Test
+    void freshnessFloorAndStalenessApply() throws Exception {
+        snapshots.publish(sampleStatus(Instant.now().minusSeconds(30)));
+
+        HttpResponse response = handle(HttpRequest.POST("/api/v1/tube/status")
+                .withEntity(ContentTypes.APPLICATION_JSON, "{\"lines\":[\"central\"],\"maxAgeMs\":1000}"));
+
+        assertThat(response.getHeader("X-Freshness-Floor-Applied").map(HttpHeader::value)).contains("true");
+        assertThat(response.getHeader("X-Data-Stale").map(HttpHeader::value)).contains("true");
+        assertThat(body(response)).contains("\"central\"").doesNotContain("\"victoria\"");
+    }
+
+    @Test
+    void fields_projectEachLine() throws Exception {
+        HttpResponse response = handle(HttpRequest.GET("/api/v1/tube/status?lines=central&fields=id,status"));
+
+        assertThat(response.status().intValue()).isEqualTo(200);
+        assertThat(body(response)).contains("{\"id\":\"central\",\"status\":\"Minor Delays\"}")
+                .doesNotContain("\"name\"");
+    }
+
+    @Test
+    void fields_applyToSingleLineAndRejectUnknownFields() throws Exception {
+        HttpResponse line = handle(HttpRequest.GET("/api/v1/tube/victoria/status?fields=name"));
+        HttpResponse unknown = handle(HttpRequest.GET("/api/v1/tube/status?fields=id,colour"));
+
+        assertThat(body(line)).contains("{\"name\":\"Victoria\"}");
+        assertThat(unknown.status().intValue()).isEqualTo(400);
+        assertThat(body(unknown)).contains("Unknown field: colour");
+    }
+
+    private static TubeStatus sampleStatus(Instant queriedAt) {
+        return new TubeStatus(
+                List.of(
+                        new TubeStatus.LineStatus("victoria", "Victoria", "Good Service", "Good Service", List.of()),
+                        new TubeStatus.LineStatus("central", "Central", "Minor Delays", "Minor Delays", List.of()),
+                        new TubeStatus.LineStatus("northern", "Northern", "Good Service", "Good Service", List.of())),
+                queriedAt,
+                "test-node");
+    }
+
+    private static HttpResponse handle(HttpRequest request) throws Exception {
+        return routes.routes().handler(testKit.system())
+                .apply(request)
+                .toCompletableFuture()
+                .get(5, TimeUnit.SECONDS);
+    }
+
+    private static String body(HttpResponse response) throws Exception {
+        return response.entity().toStrict(5000, materializer)
+                .toCompletableFuture()
+                .get(5, TimeUnit.SECONDS)
+                .getData()
+                .utf8String();
+    }
+}
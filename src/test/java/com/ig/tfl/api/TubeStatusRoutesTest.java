@@ -3,8 +3,10 @@ package com.ig.tfl.api;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ig.tfl.client.TflGateway;
+import com.ig.tfl.crdt.StatusSnapshotHolder;
 import com.ig.tfl.crdt.TubeStatusReplicator;
 import com.ig.tfl.model.TubeStatus;
+import com.ig.tfl.observability.HealthSnapshot;
 import com.ig.tfl.observability.Metrics;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
@@ -26,7 +28,9 @@ import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.*;
@@ -40,6 +44,7 @@ class TubeStatusRoutesTest {
 
     private static ActorTestKit testKit;
     private static ActorRef<TubeStatusReplicator.Command> replicator;
+    private static StatusSnapshotHolder snapshots;
     private static ActorRef<TflGateway.Command> gateway;
     private static ServerBinding serverBinding;
     private static String baseUrl;
@@ -80,13 +85,16 @@ class TubeStatusRoutesTest {
                 StubTflGateway.create(TubeStatusRoutesTest::createSampleStatus),
                 "test-gateway");
 
-        // Create replicator with fast refresh
+        // Create replicator with fast refresh, publishing to the snapshot the routes read
+        snapshots = new StatusSnapshotHolder();
         replicator = testKit.spawn(
                 TubeStatusReplicator.create(
                         gateway,
                         "test-node",
                         Duration.ofMillis(100),
-                        Duration.ofSeconds(30)),
+                        Duration.ofSeconds(30),
+                        Duration.ofSeconds(5),
+                        snapshots),
                 "test-replicator");
 
         // Wait for initial data
@@ -101,9 +109,11 @@ class TubeStatusRoutesTest {
         TubeStatusRoutes routes = new TubeStatusRoutes(
                 testKit.system(),
                 replicator,
+                snapshots,
                 gateway,
                 new Metrics(),
-                Duration.ofSeconds(5));  // ask timeout
+                Duration.ofSeconds(5),  // ask timeout
+                new HealthSnapshot(snapshots));
 
         http = Http.get(testKit.system());
         materializer = Materializer.createMaterializer(testKit.system());
@@ -180,6 +190,52 @@ class TubeStatusRoutesTest {
         assertThat(json.get("lines").size()).isEqualTo(1);
     }
 
+    @Test
+    void getLineStatusWithDateRange_repeatedRangeServedFromCache() throws Exception {
+        String from = LocalDate.now().plusDays(30).toString();
+        String to = LocalDate.now().plusDays(31).toString();
+        int fetchesBefore = StubTflGateway.dateRangeFetches.get();
+
+        HttpResponse first = get("/api/v1/tube/victoria/status/" + from + "/to/" + to);
+        HttpResponse second = get("/api/v1/tube/Victoria/status/" + from + "/to/" + to);
+
+        assertThat(first.status().intValue()).isEqualTo(200);
+        // Same TfL answer: the stub stamps each fetch with Instant.now()
+        assertThat(objectMapper.readTree(getBody(second)).get("meta").get("dataAsOfUtc"))
+                .isEqualTo(objectMapper.readTree(getBody(first)).get("meta").get("dataAsOfUtc"));
+        assertThat(StubTflGateway.dateRangeFetches.get() - fetchesBefore).isEqualTo(1);
+    }
+
+    @Test
+    void getLineStatusWithDateRange_overlappingRangeFetchesOnlyNewDays() throws Exception {
+        LocalDate from = LocalDate.now().plusDays(40);
+        get("/api/v1/tube/victoria/status/" + from + "/to/" + from.plusDays(1));
+        int fetchesBefore = StubTflGateway.dateRangeFetches.get();
+
+        HttpResponse wider = get("/api/v1/tube/victoria/status/" + from.minusDays(1) + "/to/" + from.plusDays(3));
+
+        assertThat(wider.status().intValue()).isEqualTo(200);
+        assertThat(objectMapper.readTree(getBody(wider)).get("lines").size()).isEqualTo(1);
+        assertThat(StubTflGateway.dateRangeFetches.get() - fetchesBefore).isEqualTo(2);
+        assertThat(StubTflGateway.rangesFetched).contains(
+                from.minusDays(1) + ":" + from.minusDays(1),
+                from.plusDays(2) + ":" + from.plusDays(3));
+    }
+
+    @Test
+    void getLineStatusWithDateRange_unknownLineAnsweredFromNegativeCache() throws Exception {
+        LocalDate from = LocalDate.now().plusDays(50);
+        int fetchesBefore = StubTflGateway.dateRangeFetches.get();
+
+        HttpResponse first = get("/api/v1/tube/no-such-line/status/" + from + "/to/" + from.plusDays(1));
+        HttpResponse second = get("/api/v1/tube/No-Such-Line/status/" + from.plusDays(7) + "/to/" + from.plusDays(8));
+
+        assertThat(first.status().intValue()).isEqualTo(404);
+        assertThat(second.status().intValue()).isEqualTo(404);
+        assertThat(getBody(second)).contains("No status found for line");
+        assertThat(StubTflGateway.dateRangeFetches.get() - fetchesBefore).isEqualTo(1);
+    }
+
     @Test
     void getLineStatusWithDateRange_rejectsBadDateFormat() throws Exception {
         HttpResponse response = get("/api/v1/tube/victoria/status/invalid/to/also-invalid");
@@ -212,6 +268,26 @@ class TubeStatusRoutesTest {
         assertThat(json.get("lines").get(0).get("id").asText()).isEqualTo("central");
     }
 
+    @Test
+    void getPlannedDisruptions_returnsOnlyPlannedDisruptions() throws Exception {
+        JsonNode json = objectMapper.readTree(getBody(get("/api/v1/tube/disruptions/planned")));
+        assertThat(json.get("lines").size()).isEqualTo(1);
+        assertThat(json.get("lines").get(0).get("id").asText()).isEqualTo("northern");
+    }
+
+    @Test
+    void getStatusBySeverity_matchesAnyCaseAndReturnsEmptyForUnknown() throws Exception {
+        JsonNode minor = objectMapper.readTree(getBody(get("/api/v1/tube/status/severity/minor-delays")));
+        assertThat(minor.get("lines").size()).isEqualTo(1);
+        assertThat(minor.get("lines").get(0).get("id").asText()).isEqualTo("central");
+
+        JsonNode spaced = objectMapper.readTree(getBody(get("/api/v1/tube/status/severity/Part%20Closure")));
+        assertThat(spaced.get("lines").get(0).get("id").asText()).isEqualTo("northern");
+
+        JsonNode none = objectMapper.readTree(getBody(get("/api/v1/tube/status/severity/suspended")));
+        assertThat(none.get("lines").size()).isZero();
+    }
+
     @Test
     void getAllStatus_withMaxAgeMsParam_returnsCachedIfFresh() throws Exception {
         // Request with very high maxAgeMs - cache should be fresh enough
@@ -277,6 +353,18 @@ class TubeStatusRoutesTest {
         // Background refresh is fire-and-forget, no observable effect in response
     }
 
+    @Test
+    void snapshotHolder_mirrorsReplicatorState() {
+        // Routes read this holder directly - it must track what the replicator adopted
+        var probe = testKit.<TubeStatusReplicator.StatusResponse>createTestProbe();
+        replicator.tell(new TubeStatusReplicator.GetStatus(probe.ref()));
+        var fromActor = probe.receiveMessage(Duration.ofSeconds(2)).status();
+
+        assertThat(snapshots.current()).isNotNull();
+        assertThat(snapshots.current().queriedAt()).isBeforeOrEqualTo(Instant.now());
+        assertThat(fromActor.lines()).isEqualTo(snapshots.current().lines());
+    }
+
     @Test
     void healthLive_returnsOk() throws Exception {
         HttpResponse response = get("/api/health/live");
@@ -372,6 +460,9 @@ class TubeStatusRoutesTest {
      * Stub TflGateway actor for route testing.
      */
     static class StubTflGateway extends AbstractBehavior<TflGateway.Command> {
+        static final AtomicInteger dateRangeFetches = new AtomicInteger();
+        static final List<String> rangesFetched = new CopyOnWriteArrayList<>();
+
         private final Supplier<TubeStatus> statusSupplier;
 
         static Behavior<TflGateway.Command> create(Supplier<TubeStatus> statusSupplier) {
@@ -406,6 +497,8 @@ class TubeStatusRoutesTest {
         }
 
         private Behavior<TflGateway.Command> onFetchLineWithDateRange(TflGateway.FetchLineWithDateRange msg) {
+            dateRangeFetches.incrementAndGet();
+            rangesFetched.add(msg.from() + ":" + msg.to());
             TubeStatus status = statusSupplier.get();
             var filtered = status.lines().stream()
                     .filter(line -> line.id().equalsIgnoreCase(msg.lineId()))
@@ -0,0 +1,199 @@
+package com.ig.tfl.cache;
+
+import com.ig.tfl.model.TubeStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DateRangeCacheTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 2, 10);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Clock clock = Clock.fixed(Instant.parse("2026-02-10T12:00:00Z"), ZoneOffset.UTC);
+
+    private final DateRangeCache cache = cache(DateRangeCache.Settings.defaults());
+
+    @Test
+    void hit_afterPut_lineIdCaseInsensitive() {
+        cache.put(new DateRangeKey("Victoria", TODAY, TODAY.plusDays(2)), status("victoria"));
+
+        assertThat(cache.get(new DateRangeKey("victoria", TODAY, TODAY.plusDays(2)))).isNotNull();
+        assertThat(cache.get(new DateRangeKey("victoria", TODAY, TODAY.plusDays(3)))).isNull();
+        assertThat(cache.asCache().stats().hitCount()).isEqualTo(1);
+        assertThat(cache.asCache().stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void currentRange_expiresAfterTtl() {
+        DateRangeKey key = new DateRangeKey("central", TODAY.plusDays(4), TODAY.plusDays(5));
+        cache.put(key, status("central"));
+
+        advance(Duration.ofMinutes(4));
+        assertThat(cache.get(key)).isNotNull();
+
+        advance(Duration.ofMinutes(2));
+        assertThat(cache.get(key)).isNull();
+    }
+
+    @Test
+    void lifetime_countsFromQueriedAt_notFromPut() {
+        DateRangeKey key = new DateRangeKey("central", TODAY.plusDays(4), TODAY.plusDays(5));
+        cache.put(key, statusQueriedAt("central", clock.instant().minus(Duration.ofMinutes(4))));
+
+        assertThat(cache.get(key)).isNotNull();
+        advance(Duration.ofMinutes(2));
+        assertThat(cache.get(key)).isNull();
+    }
+
+    @Test
+    void putIfNewer_keepsTheLaterAnswer() {
+        DateRangeKey key = new DateRangeKey("central", TODAY, TODAY.plusDays(1));
+        TubeStatus newer = status("central");
+        cache.put(key, newer);
+
+        cache.putIfNewer(key, statusQueriedAt("central", clock.instant().minusSeconds(30)));
+
+        assertThat(cache.get(key)).isSameAs(newer);
+    }
+
+    @Test
+    void requests_countedPerKey() {
+        DateRangeKey key = new DateRangeKey("central", TODAY, TODAY.plusDays(1));
+        cache.get(key);
+        cache.get(new DateRangeKey("Central", TODAY, TODAY.plusDays(1)));
+        cache.entries();
+
+        assertThat(cache.requests(key)).isEqualTo(2);
+        assertThat(cache.requests(new DateRangeKey("central", TODAY, TODAY))).isZero();
+    }
+
+    @Test
+    void pastRange_keptForPastTtl() {
+        DateRangeKey key = new DateRangeKey("central", TODAY.minusDays(7), TODAY.minusDays(6));
+        cache.put(key, status("central"));
+
+        advance(Duration.ofHours(5));
+        assertThat(cache.get(key)).isNotNull();
+
+        advance(Duration.ofHours(2));
+        assertThat(cache.get(key)).isNull();
+    }
+
+    @Test
+    void missingLine_rememberedForNegativeTtl() {
+        cache.putMissing("No-Such-Line");
+
+        assertThat(cache.isMissing("no-such-line")).isTrue();
+        assertThat(cache.isMissing("victoria")).isFalse();
+        advance(Duration.ofSeconds(61));
+        assertThat(cache.isMissing("no-such-line")).isFalse();
+        assertThat(cache.asNegativeCache().stats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void forgetMissing_dropsLinesKnownToExist() {
+        cache.putMissing("elizabeth");
+        cache.putMissing("no-such-line");
+
+        cache.forgetMissing(List.of("Elizabeth", "victoria"));
+
+        assertThat(cache.isMissing("elizabeth")).isFalse();
+        assertThat(cache.isMissing("no-such-line")).isTrue();
+    }
+
+    @Test
+    void putFetched_shortRange_onePerDay_remainingIsFirstToExpire() {
+        DateRangeKey range = new DateRangeKey("central", TODAY.plusDays(4), TODAY.plusDays(6));
+        cache.put(DayBuckets.day("central", TODAY.plusDays(5)),
+                statusQueriedAt("central", clock.instant().minus(Duration.ofMinutes(3))));
+
+        assertThat(cache.remaining(range)).isEqualTo(Duration.ZERO);
+
+        assertThat(cache.putFetched(range, status("central"), Map.of(
+                TODAY.plusDays(4), status("central"), TODAY.plusDays(6), status("central"))))
+                .containsOnlyKeys(TODAY.plusDays(4), TODAY.plusDays(6));
+        assertThat(cache.remaining(range)).isEqualTo(Duration.ofMinutes(2));
+        assertThat(cache.requests(range)).isZero();
+    }
+
+    @Test
+    void putFetched_longRange_oneEntry() {
+        DateRangeKey range = new DateRangeKey("central", TODAY, TODAY.plusDays(60));
+
+        assertThat(cache.putFetched(range, status("central"), Map.of())).isEmpty();
+        assertThat(cache.entries()).containsOnlyKeys(range);
+        assertThat(cache.remaining(range)).isEqualTo(Duration.ofMinutes(5));
+    }
+
+    @Test
+    void demand_hottestFirst_andFadesWithDecay() {
+        DateRangeKey weekend = new DateRangeKey("central", TODAY.plusDays(4), TODAY.plusDays(5));
+        for (int i = 0; i < 4; i++) {
+            cache.recordDemand(weekend);
+        }
+        cache.recordDemand(new DateRangeKey("central", TODAY, TODAY));
+
+        assertThat(cache.hottest(1)).extracting(SpaceSaving.Estimate::key).containsExactly(weekend);
+
+        cache.decayDemand();
+        assertThat(cache.hottest(10)).extracting(SpaceSaving.Estimate::count).containsExactly(2L);
+    }
+
+    @Test
+    void byteBound_evictsEntries() {
+        int entryBytes = DateRangeCache.estimateBytes(
+                new DateRangeKey("central", TODAY, TODAY.plusDays(1)), status("central"));
+        DateRangeCache small = cache(new DateRangeCache.Settings(entryBytes * 10L,
+                Duration.ofMinutes(5), Duration.ofHours(6), 31, Duration.ofMinutes(1), 10_000, 1024));
+
+        for (int day = 0; day < 100; day++) {
+            small.put(new DateRangeKey("central", TODAY.plusDays(day), TODAY.plusDays(day + 1)), status("central"));
+        }
+        small.asCache().cleanUp();
+
+        assertThat(small.asCache().policy().eviction().orElseThrow().weightedSize().orElseThrow())
+                .isLessThanOrEqualTo(entryBytes * 10L);
+        assertThat(small.asCache().stats().evictionCount()).isGreaterThanOrEqualTo(90);
+    }
+
+    @Test
+    void estimateBytes_growsWithDisruptionText() {
+        DateRangeKey key = new DateRangeKey("central", TODAY, TODAY.plusDays(1));
+        TubeStatus disrupted = new TubeStatus(List.of(new TubeStatus.LineStatus("central", "Central",
+                "Part Closure", "Part Closure",
+                List.of(new TubeStatus.Disruption("PlannedWork", "x".repeat(1_000), true)))),
+                Instant.now(), "test-node");
+
+        assertThat(DateRangeCache.estimateBytes(key, disrupted))
+                .isGreaterThan(DateRangeCache.estimateBytes(key, status("central")) + 1_000);
+    }
+
+    private DateRangeCache cache(DateRangeCache.Settings settings) {
+        return new DateRangeCache(settings, nanos::get, clock, Runnable::run);
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    private TubeStatus status(String lineId) {
+        return statusQueriedAt(lineId, clock.instant());
+    }
+
+    private static TubeStatus statusQueriedAt(String lineId, Instant queriedAt) {
+        return new TubeStatus(
+                List.of(new TubeStatus.LineStatus(lineId, "Central", "Good Service", "Good Service", List.of())),
+                queriedAt,
+                "test-node");
+    }
+}
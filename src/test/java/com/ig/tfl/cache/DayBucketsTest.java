@@ -0,0 +1,81 @@
+package com.ig.tfl.cache;
+
+import com.ig.tfl.model.TubeStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DayBucketsTest {
+
+    private static final LocalDate MON = LocalDate.of(2026, 2, 9);
+    private static final Instant T0 = Instant.parse("2026-02-01T12:00:00Z");
+
+    @Test
+    void missingRuns_allMissing_isTheWholeRange() {
+        assertThat(DayBuckets.missingRuns("victoria", MON, MON.plusDays(6), day -> false))
+                .containsExactly(new DateRangeKey("victoria", MON, MON.plusDays(6)));
+    }
+
+    @Test
+    void missingRuns_allCached_isEmpty() {
+        assertThat(DayBuckets.missingRuns("victoria", MON, MON.plusDays(6), day -> true)).isEmpty();
+    }
+
+    @Test
+    void missingRuns_oneRangePerGap() {
+        Set<LocalDate> cached = Set.of(MON.plusDays(2), MON.plusDays(3), MON.plusDays(6));
+
+        assertThat(DayBuckets.missingRuns("victoria", MON, MON.plusDays(8), cached::contains))
+                .containsExactly(
+                        new DateRangeKey("victoria", MON, MON.plusDays(1)),
+                        new DateRangeKey("victoria", MON.plusDays(4), MON.plusDays(5)),
+                        new DateRangeKey("victoria", MON.plusDays(7), MON.plusDays(8)));
+    }
+
+    @Test
+    void merge_takesFirstDisruptedStatus_andUnionOfDisruptions() {
+        TubeStatus.Disruption closure = new TubeStatus.Disruption("PlannedWork", "Closed Sat-Sun", true);
+        TubeStatus.Disruption delays = new TubeStatus.Disruption("RealTime", "Signal failure", false);
+
+        TubeStatus merged = DayBuckets.merge(List.of(
+                day(T0.plusSeconds(60), line("victoria", "Good Service"), line("central", "Good Service")),
+                day(T0, line("victoria", "Part Closure", closure), line("central", "Minor Delays", delays)),
+                day(T0.plusSeconds(30), line("victoria", "Part Closure", closure), line("central", "Good Service"))));
+
+        assertThat(merged.lines()).extracting(TubeStatus.LineStatus::id).containsExactly("victoria", "central");
+        assertThat(merged.lines().get(0).status()).isEqualTo("Part Closure");
+        assertThat(merged.lines().get(0).disruptions()).containsExactly(closure);
+        assertThat(merged.lines().get(1).status()).isEqualTo("Minor Delays");
+        assertThat(merged.lines().get(1).disruptions()).containsExactly(delays);
+        assertThat(merged.queriedAt()).isEqualTo(T0);
+    }
+
+    @Test
+    void merge_singleDay_isThatDay() {
+        TubeStatus only = day(T0, line("victoria", "Good Service"));
+
+        assertThat(DayBuckets.merge(List.of(only))).isSameAs(only);
+    }
+
+    @Test
+    void spread_sameStatusEveryDay() {
+        TubeStatus status = day(T0, line("victoria", "Good Service"));
+
+        assertThat(DayBuckets.spread(status, MON, MON.plusDays(2)))
+                .containsOnlyKeys(MON, MON.plusDays(1), MON.plusDays(2))
+                .allSatisfy((day, onDay) -> assertThat(onDay).isSameAs(status));
+    }
+
+    private static TubeStatus day(Instant queriedAt, TubeStatus.LineStatus... lines) {
+        return new TubeStatus(List.of(lines), queriedAt, "test-node");
+    }
+
+    private static TubeStatus.LineStatus line(String id, String status, TubeStatus.Disruption... disruptions) {
+        return new TubeStatus.LineStatus(id, id, status, status, List.of(disruptions));
+    }
+}
@@ -0,0 +1,70 @@
+package com.ig.tfl.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SpaceSavingTest {
+
+    @Test
+    void exactCounts_whileUnderCapacity() {
+        SpaceSaving<String> sketch = new SpaceSaving<>(4);
+        for (String key : new String[] {"a", "b", "a", "c", "a", "b"}) {
+            sketch.offer(key);
+        }
+
+        assertThat(sketch.top(2)).containsExactly(
+                new SpaceSaving.Estimate<>("a", 3, 0),
+                new SpaceSaving.Estimate<>("b", 2, 0));
+    }
+
+    @Test
+    void newKeyAtCapacity_takesOverLeastCounted() {
+        SpaceSaving<String> sketch = new SpaceSaving<>(2);
+        sketch.offer("a");
+        sketch.offer("a");
+        sketch.offer("b");
+
+        sketch.offer("c");
+
+        assertThat(sketch.size()).isEqualTo(2);
+        assertThat(sketch.top(2)).containsExactlyInAnyOrder(
+                new SpaceSaving.Estimate<>("a", 2, 0),
+                new SpaceSaving.Estimate<>("c", 2, 1));
+    }
+
+    @Test
+    void heavyHitters_foundInLongTail() {
+        SpaceSaving<Integer> sketch = new SpaceSaving<>(32);
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            // A third of the traffic on keys 0-2, the rest spread over 10,000 keys
+            sketch.offer(random.nextInt(3) == 0 ? random.nextInt(3) : 3 + random.nextInt(10_000));
+        }
+
+        assertThat(sketch.top(3)).extracting(SpaceSaving.Estimate::key).containsExactlyInAnyOrder(0, 1, 2);
+        assertThat(sketch.top(3)).allSatisfy(estimate ->
+                assertThat(estimate.guaranteed()).isGreaterThan(10_000));
+    }
+
+    @Test
+    void decay_halvesCounts_andDropsZeroes() {
+        SpaceSaving<String> sketch = new SpaceSaving<>(4);
+        for (int i = 0; i < 5; i++) {
+            sketch.offer("hot");
+        }
+        sketch.offer("once");
+
+        sketch.decay();
+
+        assertThat(sketch.top(4)).containsExactly(new SpaceSaving.Estimate<>("hot", 2, 0));
+    }
+
+    @Test
+    void rejectsZeroCapacity() {
+        assertThatThrownBy(() -> new SpaceSaving<String>(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,154 @@
+package com.ig.tfl.client;
+
+import com.ig.tfl.cache.DateRangeCache;
+import com.ig.tfl.cache.DateRangeKey;
+import com.ig.tfl.model.TubeStatus;
+import com.ig.tfl.observability.Metrics;
+import org.apache.pekko.actor.testkit.typed.javadsl.ActorTestKit;
+import org.apache.pekko.actor.typed.ActorRef;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * DateRangePrefetcher: refreshes ranges requested often enough, within its
+ * TfL call budget, and not while the circuit breaker is open.
+ */
+class DateRangePrefetcherTest {
+
+    private static final LocalDate FROM = LocalDate.now().plusDays(3);
+    private static final DateRangeKey WEEKEND = new DateRangeKey("victoria", FROM, FROM.plusDays(1));
+
+    private static ActorTestKit testKit;
+
+    private final StubClient client = new StubClient();
+    private final Metrics metrics = new Metrics();
+    private final DateRangeCache cache = new DateRangeCache(DateRangeCache.Settings.defaults());
+
+    @BeforeAll
+    static void setupClass() {
+        testKit = ActorTestKit.create("date-range-prefetcher-test");
+    }
+
+    @AfterAll
+    static void teardownClass() {
+        testKit.shutdownTestKit();
+    }
+
+    @Test
+    void hotRange_refreshedIntoCache() {
+        demand(WEEKEND, 5);
+        demand(new DateRangeKey("central", FROM, FROM), 1);
+
+        spawn(1200);
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> cache.remaining(WEEKEND).compareTo(Duration.ZERO) > 0);
+        assertThat(client.fetched).containsExactly("victoria");
+        assertThat(cache.entries()).hasSize(2);
+        assertThat(prefetches("refreshed")).isEqualTo(1.0);
+    }
+
+    @Test
+    void freshRange_notRefetched() {
+        cache.putFetched(WEEKEND, status(), Map.of());
+        demand(WEEKEND, 5);
+
+        spawn(1200);
+
+        await().during(500, TimeUnit.MILLISECONDS).atMost(2, TimeUnit.SECONDS)
+                .until(() -> client.fetched.isEmpty());
+    }
+
+    @Test
+    void circuitOpen_noPrefetch() {
+        client.circuitOpen = true;
+        demand(WEEKEND, 100);
+
+        spawn(1200);
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> prefetches("skipped_circuit") >= 1.0);
+        assertThat(client.fetched).isEmpty();
+    }
+
+    @Test
+    void budgetSpent_restWaitForLaterTicks() {
+        demand(WEEKEND, 5);
+        demand(new DateRangeKey("central", FROM, FROM.plusDays(1)), 5);
+
+        // 1 call a minute: the first tick's refill is far less than one call
+        spawn(1);
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> prefetches("skipped_budget") >= 2.0);
+        assertThat(client.fetched).isEmpty();
+    }
+
+    private void spawn(int budgetPerMinute) {
+        ActorRef<TflGateway.Command> gateway = testKit.spawn(TflGateway.create(client, metrics));
+        testKit.spawn(DateRangePrefetcher.create(gateway, cache, metrics,
+                new DateRangePrefetcher.Settings(Duration.ofMillis(100), 8, 3, Duration.ofSeconds(60),
+                        budgetPerMinute)));
+    }
+
+    private void demand(DateRangeKey range, int requests) {
+        for (int i = 0; i < requests; i++) {
+            cache.recordDemand(range);
+        }
+    }
+
+    private double prefetches(String result) {
+        var counter = metrics.getRegistry().find("date_range_prefetch_total").tag("result", result).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static TubeStatus status() {
+        return new TubeStatus(
+                List.of(new TubeStatus.LineStatus("victoria", "Victoria", "Good Service", "Good Service", List.of())),
+                Instant.now(),
+                "test-node");
+    }
+
+    /** TflClient answering Good Service at once, with a circuit the test opens. */
+    private static final class StubClient implements TflClient {
+        final List<String> fetched = new CopyOnWriteArrayList<>();
+        volatile boolean circuitOpen;
+
+        @Override
+        public CompletionStage<TubeStatus> fetchAllLinesAsync() {
+            return CompletableFuture.completedFuture(status());
+        }
+
+        @Override
+        public CompletionStage<TubeStatus> fetchLineStatusAsync(String lineId, LocalDate from, LocalDate to) {
+            fetched.add(lineId);
+            return CompletableFuture.completedFuture(status());
+        }
+
+        @Override
+        public boolean isCircuitOpen() {
+            return circuitOpen;
+        }
+
+        @Override
+        public boolean isCircuitHalfOpen() {
+            return false;
+        }
+
+        @Override
+        public boolean isCircuitClosed() {
+            return !circuitOpen;
+        }
+    }
+}
@@ -15,6 +15,8 @@ import org.junit.jupiter.api.*;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
 
@@ -118,6 +120,96 @@ class TflApiClientIntegrationTest {
         assertThat(piccadilly.disruptions().get(0).isPlanned()).isTrue();
     }
 
+    @Test
+    void fetchLineStatusByDay_splitsByValidityPeriod() {
+        wireMock.stubFor(get(urlPathEqualTo("/Line/victoria/Status/2026-02-13/to/2026-02-16"))
+                .willReturn(okJson("""
+                        [{"id": "victoria", "name": "Victoria", "lineStatuses": [
+                          {"statusSeverityDescription": "Part Closure",
+                           "disruption": {"categoryDescription": "PlannedWork",
+                                          "description": "No service Seven Sisters - Walthamstow",
+                                          "isPlanned": true},
+                           "validityPeriods": [
+                             {"fromDate": "2026-02-14T04:30:00Z", "toDate": "2026-02-15T23:59:00Z"}]}]}]
+                        """)));
+
+        var range = client.fetchLineStatusByDayAsync("victoria",
+                        LocalDate.of(2026, 2, 13), LocalDate.of(2026, 2, 16))
+                .toCompletableFuture()
+                .join();
+
+        assertThat(range.range().lines().get(0).status()).isEqualTo("Part Closure");
+        assertThat(range.days()).hasSize(4);
+        assertThat(range.days().get(LocalDate.of(2026, 2, 13)).lines().get(0).status()).isEqualTo("Good Service");
+        assertThat(range.days().get(LocalDate.of(2026, 2, 14)).lines().get(0).status()).isEqualTo("Part Closure");
+        assertThat(range.days().get(LocalDate.of(2026, 2, 15)).lines().get(0).disruptions()).hasSize(1);
+        assertThat(range.days().get(LocalDate.of(2026, 2, 16)).lines().get(0).disruptions()).isEmpty();
+        assertThat(range.days().values()).allMatch(day -> day.queriedAt().equals(range.range().queriedAt()));
+        wireMock.verify(1, getRequestedFor(urlPathMatching("/Line/victoria/Status/.*")));
+    }
+
+    @Test
+    void fetchLineStatusByDay_validityPeriodsInLondonDates() {
+        // During BST: Sunday 00:30 to 23:59 London is Saturday 23:30Z to Sunday 22:59Z
+        wireMock.stubFor(get(urlPathEqualTo("/Line/victoria/Status/2026-06-13/to/2026-06-15"))
+                .willReturn(okJson("""
+                        [{"id": "victoria", "name": "Victoria", "lineStatuses": [
+                          {"statusSeverityDescription": "Part Closure", "validityPeriods": [
+                             {"fromDate": "2026-06-13T23:30:00Z", "toDate": "2026-06-14T22:59:00Z"}]}]}]
+                        """)));
+
+        var range = client.fetchLineStatusByDayAsync("victoria",
+                        LocalDate.of(2026, 6, 13), LocalDate.of(2026, 6, 15))
+                .toCompletableFuture()
+                .join();
+
+        assertThat(range.days().get(LocalDate.of(2026, 6, 13)).lines().get(0).status()).isEqualTo("Good Service");
+        assertThat(range.days().get(LocalDate.of(2026, 6, 14)).lines().get(0).status()).isEqualTo("Part Closure");
+        assertThat(range.days().get(LocalDate.of(2026, 6, 15)).lines().get(0).status()).isEqualTo("Good Service");
+    }
+
+    @Test
+    void fetchLineStatusByDay_malformedValidityPeriod_coversEveryDay() {
+        wireMock.stubFor(get(urlPathEqualTo("/Line/victoria/Status/2026-02-14/to/2026-02-15"))
+                .willReturn(okJson("""
+                        [{"id": "victoria", "name": "Victoria", "lineStatuses": [
+                          {"statusSeverityDescription": "Part Closure", "validityPeriods": [
+                             {"fromDate": "this weekend", "toDate": "2026-02-15T23:59:00Z"}]}]}]
+                        """)));
+
+        var range = client.fetchLineStatusByDayAsync("victoria",
+                        LocalDate.of(2026, 2, 14), LocalDate.of(2026, 2, 15))
+                .toCompletableFuture()
+                .join();
+
+        assertThat(range.days().values())
+                .allSatisfy(day -> assertThat(day.lines().get(0).status()).isEqualTo("Part Closure"));
+    }
+
+    @Test
+    void fetchLinesStatusByDay_oneCallSplitPerLine() {
+        wireMock.stubFor(get(urlPathEqualTo("/Line/victoria,central,nosuchline/Status/2026-02-14/to/2026-02-15"))
+                .willReturn(okJson("""
+                        [{"id": "victoria", "name": "Victoria", "lineStatuses": [
+                          {"statusSeverityDescription": "Part Closure", "validityPeriods": [
+                             {"fromDate": "2026-02-14T04:30:00Z", "toDate": "2026-02-14T23:59:00Z"}]}]},
+                         {"id": "central", "name": "Central", "lineStatuses": [
+                          {"statusSeverityDescription": "Good Service"}]}]
+                        """)));
+
+        var byLine = client.fetchLinesStatusByDayAsync(List.of("victoria", "central", "nosuchline"),
+                        LocalDate.of(2026, 2, 14), LocalDate.of(2026, 2, 15))
+                .toCompletableFuture()
+                .join();
+
+        assertThat(byLine).containsOnlyKeys("victoria", "central", "nosuchline");
+        assertThat(byLine.get("victoria").days().get(LocalDate.of(2026, 2, 15)).lines().get(0).status())
+                .isEqualTo("Good Service");
+        assertThat(byLine.get("central").range().lines()).hasSize(1);
+        assertThat(byLine.get("nosuchline").range().lines()).isEmpty();
+        wireMock.verify(1, getRequestedFor(urlPathMatching("/Line/.*/Status/.*")));
+    }
+
     @Test
     void retriesOn503ThenSucceeds() {
         // First request fails with 503
@@ -0,0 +1,234 @@
+package com.ig.tfl.client;
+
+import com.ig.tfl.model.RangeStatus;
+import com.ig.tfl.model.TubeStatus;
+import com.ig.tfl.observability.Metrics;
+import org.apache.pekko.actor.testkit.typed.javadsl.ActorTestKit;
+import org.apache.pekko.actor.testkit.typed.javadsl.TestProbe;
+import org.apache.pekko.actor.typed.ActorRef;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Single-flight in TflGateway: identical fetches in flight share one TfL call;
+ * date-range fetches for the same dates are batched across lines.
+ */
+class TflGatewayTest {
+
+    private static final LocalDate FROM = LocalDate.of(2026, 2, 14);
+    private static final LocalDate TO = LocalDate.of(2026, 2, 15);
+
+    private static ActorTestKit testKit;
+
+    private final RecordingClient client = new RecordingClient();
+    private final Metrics metrics = new Metrics();
+
+    @BeforeAll
+    static void setupClass() {
+        testKit = ActorTestKit.create("tfl-gateway-test");
+    }
+
+    @AfterAll
+    static void teardownClass() {
+        testKit.shutdownTestKit();
+    }
+
+    @Test
+    void identicalDateRangeFetches_shareOneCall() {
+        ActorRef<TflGateway.Command> gateway = testKit.spawn(TflGateway.create(client, metrics));
+        List<TestProbe<TflGateway.FetchResponse>> probes = new ArrayList<>();
+        for (String lineId : List.of("victoria", "Victoria", "victoria")) {
+            TestProbe<TflGateway.FetchResponse> probe = testKit.createTestProbe();
+            gateway.tell(new TflGateway.FetchLineWithDateRange(lineId, FROM, TO, probe.ref()));
+            probes.add(probe);
+        }
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> client.calls.size() == 1);
+        TubeStatus status = status();
+        client.calls.get(0).complete(status);
+
+        for (TestProbe<TflGateway.FetchResponse> probe : probes) {
+            assertThat(probe.receiveMessage(Duration.ofSeconds(5)).status()).isSameAs(status);
+        }
+        assertThat(client.calls).hasSize(1);
+        assertThat(metrics.getRegistry().get("tfl_requests_coalesced_total").tag("call", "date-range")
+                .counter().count()).isEqualTo(2.0);
+        assertThat(metrics.getRegistry().get("tfl_request_fanout").tag("call", "date-range")
+                .summary().max()).isEqualTo(3.0);
+    }
+
+    @Test
+    void differentRanges_andAllLines_areSeparateCalls() {
+        ActorRef<TflGateway.Command> gateway = testKit.spawn(TflGateway.create(client, metrics));
+        TestProbe<TflGateway.FetchResponse> probe = testKit.createTestProbe();
+
+        gateway.tell(new TflGateway.FetchLineWithDateRange("victoria", FROM, TO, probe.ref()));
+        gateway.tell(new TflGateway.FetchLineWithDateRange("victoria", FROM, TO.plusDays(1), probe.ref()));
+        gateway.tell(new TflGateway.FetchLineWithDateRange("central", FROM, TO, probe.ref()));
+        gateway.tell(new TflGateway.FetchAllLines(probe.ref()));
+        gateway.tell(new TflGateway.FetchAllLines(probe.ref()));
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> client.calls.size() == 4);
+        client.calls.forEach(call -> call.complete(status()));
+        probe.receiveSeveralMessages(5, Duration.ofSeconds(5));
+    }
+
+    @Test
+    void completedCall_isNotReused() {
+        ActorRef<TflGateway.Command> gateway = testKit.spawn(TflGateway.create(client, metrics));
+        TestProbe<TflGateway.FetchResponse> probe = testKit.createTestProbe();
+
+        gateway.tell(new TflGateway.FetchAllLines(probe.ref()));
+        await().atMost(5, TimeUnit.SECONDS).until(() -> client.calls.size() == 1);
+        client.calls.get(0).complete(status());
+        probe.receiveMessage(Duration.ofSeconds(5));
+
+        gateway.tell(new TflGateway.FetchAllLines(probe.ref()));
+        await().atMost(5, TimeUnit.SECONDS).until(() -> client.calls.size() == 2);
+    }
+
+    @Test
+    void failure_reachesEveryWaiter() {
+        ActorRef<TflGateway.Command> gateway = testKit.spawn(TflGateway.create(client, metrics));
+        TestProbe<TflGateway.FetchResponse> first = testKit.createTestProbe();
+        TestProbe<TflGateway.FetchResponse> second = testKit.createTestProbe();
+
+        gateway.tell(new TflGateway.FetchAllLines(first.ref()));
+        gateway.tell(new TflGateway.FetchAllLines(second.ref()));
+        await().atMost(5, TimeUnit.SECONDS).until(() -> client.calls.size() == 1);
+        client.calls.get(0).completeExceptionally(new RuntimeException("TfL unavailable"));
+
+        assertThat(first.receiveMessage(Duration.ofSeconds(5)).isSuccess()).isFalse();
+        assertThat(second.receiveMessage(Duration.ofSeconds(5)).error()).hasMessage("TfL unavailable");
+    }
+
+    @Test
+    void sameDatesAcrossLines_batchedIntoOneCall() {
+        ActorRef<TflGateway.Command> gateway = testKit.spawn(TflGateway.create(client, metrics,
+                new TflGateway.Settings(Duration.ofMillis(200), 20)));
+        TestProbe<TflGateway.FetchResponse> victoria = testKit.createTestProbe();
+        TestProbe<TflGateway.FetchResponse> central = testKit.createTestProbe();
+        TestProbe<TflGateway.FetchResponse> otherDates = testKit.createTestProbe();
+
+        gateway.tell(new TflGateway.FetchLineWithDateRange("victoria", FROM, TO, victoria.ref()));
+        gateway.tell(new TflGateway.FetchLineWithDateRange("Central", FROM, TO, central.ref()));
+        gateway.tell(new TflGateway.FetchLineWithDateRange("victoria", FROM, TO, victoria.ref()));
+        gateway.tell(new TflGateway.FetchLineWithDateRange("victoria", FROM, TO.plusDays(1), otherDates.ref()));
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> client.batches.size() == 1 && client.calls.size() == 1);
+        assertThat(client.batches.get(0)).containsExactly("victoria", "central");
+        TubeStatus centralStatus = status();
+        client.batchCalls.get(0).complete(Map.of(
+                "victoria", new RangeStatus(status(), Map.of()),
+                "central", new RangeStatus(centralStatus, Map.of())));
+        client.calls.get(0).complete(status());
+
+        victoria.receiveSeveralMessages(2, Duration.ofSeconds(5));
+        assertThat(central.receiveMessage(Duration.ofSeconds(5)).status()).isSameAs(centralStatus);
+        assertThat(otherDates.receiveMessage(Duration.ofSeconds(5)).isSuccess()).isTrue();
+        assertThat(metrics.getRegistry().get("tfl_request_batch_lines").summary().max()).isEqualTo(2.0);
+    }
+
+    @Test
+    void fullBatch_sentWithoutWaitingForTheWindow() {
+        ActorRef<TflGateway.Command> gateway = testKit.spawn(TflGateway.create(client, metrics,
+                new TflGateway.Settings(Duration.ofMinutes(1), 2)));
+        TestProbe<TflGateway.FetchResponse> probe = testKit.createTestProbe();
+
+        gateway.tell(new TflGateway.FetchLineWithDateRange("victoria", FROM, TO, probe.ref()));
+        gateway.tell(new TflGateway.FetchLineWithDateRange("central", FROM, TO, probe.ref()));
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> client.batches.size() == 1);
+    }
+
+    @Test
+    void batchClientError_retriedLineByLine() {
+        ActorRef<TflGateway.Command> gateway = testKit.spawn(TflGateway.create(client, metrics,
+                new TflGateway.Settings(Duration.ofMillis(50), 20)));
+        TestProbe<TflGateway.FetchResponse> victoria = testKit.createTestProbe();
+        TestProbe<TflGateway.FetchResponse> unknown = testKit.createTestProbe();
+
+        gateway.tell(new TflGateway.FetchLineWithDateRange("victoria", FROM, TO, victoria.ref()));
+        gateway.tell(new TflGateway.FetchLineWithDateRange("no-such-line", FROM, TO, unknown.ref()));
+        await().atMost(5, TimeUnit.SECONDS).until(() -> client.batches.size() == 1);
+        client.batchCalls.get(0).completeExceptionally(
+                new TflApiClient.HttpStatusException(404, "TfL API returned 404", false));
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> client.calls.size() == 2);
+        client.calls.get(0).complete(status());
+        client.calls.get(1).completeExceptionally(
+                new TflApiClient.HttpStatusException(404, "TfL API returned 404", false));
+
+        assertThat(victoria.receiveMessage(Duration.ofSeconds(5)).isSuccess()).isTrue();
+        assertThat(unknown.receiveMessage(Duration.ofSeconds(5)).isSuccess()).isFalse();
+    }
+
+    private static TubeStatus status() {
+        return new TubeStatus(
+                List.of(new TubeStatus.LineStatus("victoria", "Victoria", "Good Service", "Good Service", List.of())),
+                Instant.now(),
+                "test-node");
+    }
+
+    /** TflClient whose calls complete only when the test completes them. */
+    private static final class RecordingClient implements TflClient {
+        final List<CompletableFuture<TubeStatus>> calls = new CopyOnWriteArrayList<>();
+        final List<List<String>> batches = new CopyOnWriteArrayList<>();
+        final List<CompletableFuture<Map<String, RangeStatus>>> batchCalls = new CopyOnWriteArrayList<>();
+
+        @Override
+        public CompletionStage<TubeStatus> fetchAllLinesAsync() {
+            return call();
+        }
+
+        @Override
+        public CompletionStage<TubeStatus> fetchLineStatusAsync(String lineId, LocalDate from, LocalDate to) {
+            return call();
+        }
+
+        @Override
+        public CompletionStage<Map<String, RangeStatus>> fetchLinesStatusByDayAsync(
+                List<String> lineIds, LocalDate from, LocalDate to) {
+            CompletableFuture<Map<String, RangeStatus>> call = new CompletableFuture<>();
+            batches.add(lineIds);
+            batchCalls.add(call);
+            return call;
+        }
+
+        private CompletionStage<TubeStatus> call() {
+            CompletableFuture<TubeStatus> call = new CompletableFuture<>();
+            calls.add(call);
+            return call;
+        }
+
+        @Override
+        public boolean isCircuitOpen() {
+            return false;
+        }
+
+        @Override
+        public boolean isCircuitHalfOpen() {
+            return false;
+        }
+
+        @Override
+        public boolean isCircuitClosed() {
+            return true;
+        }
+    }
+}
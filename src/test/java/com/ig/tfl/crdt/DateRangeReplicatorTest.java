@@ -0,0 +1,169 @@
+package com.ig.tfl.crdt;
+
+import com.ig.tfl.cache.DateRangeCache;
+import com.ig.tfl.cache.DateRangeKey;
+import com.ig.tfl.model.TubeStatus;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import org.apache.pekko.actor.testkit.typed.javadsl.ActorTestKit;
+import org.apache.pekko.actor.testkit.typed.javadsl.TestProbe;
+import org.apache.pekko.cluster.ddata.LWWMap;
+import org.apache.pekko.cluster.ddata.typed.javadsl.DistributedData;
+import org.apache.pekko.cluster.ddata.typed.javadsl.Replicator;
+import org.apache.pekko.cluster.typed.Cluster;
+import org.apache.pekko.cluster.typed.Join;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * DateRangeReplicator on a single-node cluster: admission, seeding a fresh
+ * node's cache from the shared map, pruning. Each test uses its own keys,
+ * as they share the node's map.
+ */
+class DateRangeReplicatorTest {
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(10);
+
+    private static ActorTestKit testKit;
+
+    private final DateRangeReplicator.Settings settings =
+            new DateRangeReplicator.Settings(3, 256, Duration.ofMillis(100));
+
+    @BeforeAll
+    static void setupClass() {
+        Config config = ConfigFactory.parseString("""
+                pekko {
+                    loglevel = "WARNING"
+                    actor {
+                        provider = "cluster"
+                        allow-java-serialization = on
+                    }
+                    remote.artery {
+                        canonical.hostname = "127.0.0.1"
+                        canonical.port = 0
+                    }
+                    cluster {
+                        seed-nodes = []
+                        downing-provider-class = "org.apache.pekko.cluster.sbr.SplitBrainResolverProvider"
+                    }
+                }
+                """).resolve();
+
+        testKit = ActorTestKit.create("date-range-test", config);
+        Cluster cluster = Cluster.get(testKit.system());
+        cluster.manager().tell(Join.create(cluster.selfMember().address()));
+    }
+
+    @AfterAll
+    static void teardownClass() {
+        if (testKit != null) {
+            testKit.shutdownTestKit();
+        }
+    }
+
+    @Test
+    void sharesOnlyRangesRequestedOftenEnough() {
+        DateRangeCache cache = new DateRangeCache(DateRangeCache.Settings.defaults());
+        DateRangeKey hot = new DateRangeKey("central", DAY, DAY.plusDays(1));
+        DateRangeKey cold = new DateRangeKey("northern", DAY, DAY.plusDays(1));
+        cache.put(hot, status("central", Instant.now()));
+        cache.put(cold, status("northern", Instant.now()));
+        for (int i = 0; i < 3; i++) {
+            cache.get(hot);
+        }
+        cache.get(cold);
+
+        testKit.spawn(DateRangeReplicator.create(cache, settings));
+
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() ->
+                assertThat(shared()).containsKey("central:" + DAY + ":" + DAY.plusDays(1)));
+        assertThat(shared()).doesNotContainKey(cold.toString());
+    }
+
+    @Test
+    void newNode_seedsItsCacheFromTheSharedMap() {
+        DateRangeKey key = new DateRangeKey("victoria", DAY, DAY.plusDays(2));
+        write(key, status("victoria", Instant.now()));
+
+        DateRangeCache freshCache = new DateRangeCache(DateRangeCache.Settings.defaults());
+        testKit.spawn(DateRangeReplicator.create(freshCache, settings));
+
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() ->
+                assertThat(freshCache.entries()).containsKey(key));
+        assertThat(freshCache.asCache().stats().missCount()).isZero();
+    }
+
+    @Test
+    void prunesEntriesPastTheirLifetime() {
+        DateRangeKey expired = new DateRangeKey("jubilee", DAY, DAY.plusDays(3));
+        write(expired, status("jubilee", Instant.now().minus(Duration.ofMinutes(6))));
+
+        DateRangeCache cache = new DateRangeCache(DateRangeCache.Settings.defaults());
+        testKit.spawn(DateRangeReplicator.create(cache, settings));
+
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() ->
+                assertThat(shared()).doesNotContainKey(expired.toString()));
+        assertThat(cache.entries()).doesNotContainKey(expired);
+    }
+
+    @Test
+    void prunesOldestBeyondMaxEntries() {
+        DateRangeKey older = new DateRangeKey("bakerloo", DAY, DAY.plusDays(4));
+        DateRangeKey newer = new DateRangeKey("bakerloo", DAY, DAY.plusDays(5));
+        write(older, status("bakerloo", Instant.now().minusSeconds(60)));
+        write(newer, status("bakerloo", Instant.now()));
+        // Live entries written by the other tests
+        Instant liveSince = Instant.now().minus(Duration.ofMinutes(4));
+        int others = (int) shared().entrySet().stream()
+                .filter(e -> !e.getKey().startsWith("bakerloo:") && e.getValue().queriedAt().isAfter(liveSince))
+                .count();
+
+        testKit.spawn(DateRangeReplicator.create(new DateRangeCache(DateRangeCache.Settings.defaults()),
+                new DateRangeReplicator.Settings(3, others + 1, Duration.ofMillis(100))));
+
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() ->
+                assertThat(shared()).doesNotContainKey(older.toString()));
+    }
+
+    private static Map<String, TubeStatus> shared() {
+        TestProbe<Replicator.GetResponse<LWWMap<String, TubeStatus>>> probe = testKit.createTestProbe();
+        DistributedData.get(testKit.system()).replicator().tell(
+                new Replicator.Get<>(DateRangeReplicator.RANGES_KEY, Replicator.readLocal(), probe.ref()));
+        var response = probe.receiveMessage(Duration.ofSeconds(5));
+        if (response instanceof Replicator.GetSuccess<LWWMap<String, TubeStatus>> success) {
+            return success.get(DateRangeReplicator.RANGES_KEY).getEntries();
+        }
+        return Map.of();
+    }
+
+    private static void write(DateRangeKey key, TubeStatus status) {
+        TestProbe<Replicator.UpdateResponse<LWWMap<String, TubeStatus>>> probe = testKit.createTestProbe();
+        var self = SelfCluster.get(testKit.system()).selfUniqueAddress();
+        DistributedData.get(testKit.system()).replicator().tell(new Replicator.Update<>(
+                DateRangeReplicator.RANGES_KEY,
+                LWWMap.create(),
+                Replicator.writeLocal(),
+                probe.ref(),
+                map -> map.put(self, key.toString(), status)));
+        assertThat(probe.receiveMessage(Duration.ofSeconds(5))).isInstanceOf(Replicator.UpdateSuccess.class);
+    }
+
+    private static TubeStatus status(String lineId, Instant queriedAt) {
+        return new TubeStatus(
+                List.of(new TubeStatus.LineStatus(lineId, lineId, "Part Closure", "Part Closure",
+                        List.of(new TubeStatus.Disruption("PlannedWork", "Closed for engineering works", true)))),
+                queriedAt,
+                "other-node");
+    }
+}
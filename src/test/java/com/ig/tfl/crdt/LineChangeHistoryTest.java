@@ -0,0 +1,79 @@
+package com.ig.tfl.crdt;
+
+import com.ig.tfl.model.TubeStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for snapshot versions and per-line change history (delta queries).
+ */
+class LineChangeHistoryTest {
+
+    private static final Instant T0 = Instant.parse("2026-02-02T14:30:00Z");
+
+    private final StatusSnapshotHolder snapshots = new StatusSnapshotHolder(3);
+
+    @Test
+    void versionsIncreaseEvenWhenAnOlderStatusIsAdopted() {
+        snapshots.publish(status(T0.plusSeconds(30), "Good Service", "Good Service"));
+        long first = snapshots.snapshot().version();
+        snapshots.publish(status(T0, "Good Service", "Minor Delays"));
+
+        assertThat(first).isEqualTo(T0.plusSeconds(30).toEpochMilli());
+        assertThat(snapshots.snapshot().version()).isEqualTo(first + 1);
+    }
+
+    @Test
+    void changesSince_returnsOnlyLinesChangedAfterThatVersion() {
+        snapshots.publish(status(T0, "Good Service", "Good Service"));
+        long v1 = snapshots.snapshot().version();
+        snapshots.publish(status(T0.plusSeconds(30), "Good Service", "Minor Delays"));
+        long v2 = snapshots.snapshot().version();
+        snapshots.publish(status(T0.plusSeconds(60), "Severe Delays", "Minor Delays"));
+
+        LineChangeHistory.Changes sinceV1 = snapshots.changesSince(v1);
+        assertThat(sinceV1.full()).isFalse();
+        assertThat(sinceV1.lines()).extracting(TubeStatus.LineStatus::id).containsExactly("victoria", "central");
+
+        LineChangeHistory.Changes sinceV2 = snapshots.changesSince(v2);
+        assertThat(sinceV2.lines()).extracting(TubeStatus.LineStatus::id).containsExactly("victoria");
+
+        LineChangeHistory.Changes current = snapshots.changesSince(snapshots.snapshot().version());
+        assertThat(current.full()).isFalse();
+        assertThat(current.lines()).isEmpty();
+    }
+
+    @Test
+    void changesSince_unknownOrEvictedVersion_returnsFullSnapshot() {
+        snapshots.publish(status(T0, "Good Service", "Good Service"));
+        long evicted = snapshots.snapshot().version();
+        for (int i = 1; i <= 4; i++) {
+            String central = i % 2 == 0 ? "Good Service" : "Minor Delays";
+            snapshots.publish(status(T0.plusSeconds(30L * i), "Good Service", central));
+        }
+
+        assertThat(snapshots.changesSince(evicted).full()).isTrue();
+        assertThat(snapshots.changesSince(evicted).lines()).hasSize(2);
+        // A version this node never published (e.g. from another node)
+        assertThat(snapshots.changesSince(evicted + 1).full()).isTrue();
+        assertThat(snapshots.changesSince(-1).full()).isTrue();
+    }
+
+    @Test
+    void changesSince_beforeFirstSnapshot_isNull() {
+        assertThat(snapshots.changesSince(0)).isNull();
+    }
+
+    private static TubeStatus status(Instant queriedAt, String victoria, String central) {
+        return new TubeStatus(
+                List.of(
+                        new TubeStatus.LineStatus("victoria", "Victoria", victoria, victoria, List.of()),
+                        new TubeStatus.LineStatus("central", "Central", central, central, List.of())),
+                queriedAt,
+                "test-node");
+    }
+}
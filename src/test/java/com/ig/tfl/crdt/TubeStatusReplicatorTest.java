@@ -263,6 +263,37 @@ class TubeStatusReplicatorTest {
         assertThat(response.requestedMaxAgeMs()).isEqualTo(0L);
     }
 
+    @Test
+    void publishesAdoptedStatusToSnapshotHolder() {
+        var gateway = testKit.spawn(StubTflGateway.create(TubeStatusReplicatorTest::createSampleStatus));
+        var snapshots = new StatusSnapshotHolder();
+        var published = new AtomicInteger(0);
+        snapshots.subscribe(status -> published.incrementAndGet());
+
+        var replicator = testKit.spawn(
+                TubeStatusReplicator.create(
+                        gateway,
+                        "test-node",
+                        Duration.ofHours(1),  // Don't auto-refresh
+                        Duration.ofSeconds(30),
+                        Duration.ofSeconds(5),
+                        snapshots));
+
+        assertThat(snapshots.current()).isNull();
+        replicator.tell(new TubeStatusReplicator.TriggerBackgroundRefresh());
+
+        await().atMost(5, TimeUnit.SECONDS).untilAsserted(() -> {
+            assertThat(snapshots.current()).isNotNull();
+            assertThat(snapshots.current().lines()).hasSize(1);
+            assertThat(published.get()).isGreaterThanOrEqualTo(1);
+        });
+
+        // Only the first reader of a snapshot gets to trigger a background refresh
+        TubeStatus current = snapshots.current();
+        assertThat(snapshots.claimBackgroundRefresh(current)).isTrue();
+        assertThat(snapshots.claimBackgroundRefresh(current)).isFalse();
+    }
+
     private static TubeStatus createSampleStatus() {
         return new TubeStatus(
                 List.of(new TubeStatus.LineStatus(
@@ -5,7 +5,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ig.tfl.api.TubeStatusRoutes;
 import com.ig.tfl.client.TflApiClient;
 import com.ig.tfl.client.TflGateway;
+import com.ig.tfl.crdt.StatusSnapshotHolder;
 import com.ig.tfl.crdt.TubeStatusReplicator;
+import com.ig.tfl.observability.HealthSnapshot;
 import com.ig.tfl.observability.Metrics;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
@@ -129,20 +131,25 @@ class ServiceSmokeTest {
         tflGateway = testKit.spawn(TflGateway.create(tflApiClient), "tfl-gateway");
 
         // Create Replicator actor
+        StatusSnapshotHolder snapshots = new StatusSnapshotHolder();
         replicator = testKit.spawn(
                 TubeStatusReplicator.create(
                         tflGateway,
                         "smoke-test-node",
                         Duration.ofSeconds(60),
                         Duration.ofSeconds(30),
-                        Duration.ofSeconds(20)
+                        Duration.ofSeconds(20),
+                        snapshots
                 ),
                 "tube-status-replicator"
         );
 
         // Create and bind HTTP server
+        // Readiness sees the real client's circuit breaker, as in TflApplication
+        HealthSnapshot health = new HealthSnapshot(snapshots);
+        tflApiClient.addCircuitStateListener(health::circuit);
         TubeStatusRoutes routes = new TubeStatusRoutes(
-                testKit.system(), replicator, tflGateway, metrics);
+                testKit.system(), replicator, snapshots, tflGateway, metrics, health);
 
         http = Http.get(testKit.system());
         materializer = Materializer.createMaterializer(testKit.system());
@@ -0,0 +1,108 @@
+package com.ig.tfl.perf;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.ig.tfl.api.ApiResponse;
+import com.ig.tfl.model.TubeStatus;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark: ApiResponse as JSON vs CBOR, Smile and MessagePack.
+ *
+ * Measures what a JVM consumer pays per response - decode into ApiResponse -
+ * plus encode time (which the service pays once per snapshot, not per request)
+ * and wire size. Uses a full tube network (11 lines, a few with disruptions).
+ *
+ * Run with: ./gradlew perfTest --tests '*BinaryFormatBenchmarkTest'
+ */
+@Tag("perf")
+class BinaryFormatBenchmarkTest {
+
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int MEASURED_ITERATIONS = 100_000;
+
+    @Test
+    void encodeDecodeAndSize_perFormat() throws Exception {
+        ApiResponse response = sampleResponse();
+        Map<String, ObjectMapper> formats = Map.of(
+                "json", mapper(new JsonFactory()),
+                "cbor", mapper(new CBORFactory()),
+                "smile", mapper(new SmileFactory()),
+                "msgpack", mapper(new MessagePackFactory()));
+
+        System.out.printf("%n%-8s %10s %14s %14s%n", "format", "bytes", "encode(ns/op)", "decode(ns/op)");
+        for (String name : List.of("json", "cbor", "smile", "msgpack")) {
+            ObjectMapper mapper = formats.get(name);
+            byte[] encoded = mapper.writeValueAsBytes(response);
+            assertThat(mapper.readValue(encoded, ApiResponse.class)).isEqualTo(response);
+
+            measureEncode(mapper, response, WARMUP_ITERATIONS);
+            measureDecode(mapper, encoded, WARMUP_ITERATIONS);
+            long encodeNanos = measureEncode(mapper, response, MEASURED_ITERATIONS);
+            long decodeNanos = measureDecode(mapper, encoded, MEASURED_ITERATIONS);
+
+            System.out.printf("%-8s %10d %14d %14d%n", name, encoded.length,
+                    encodeNanos / MEASURED_ITERATIONS, decodeNanos / MEASURED_ITERATIONS);
+        }
+    }
+
+    private static long measureEncode(ObjectMapper mapper, ApiResponse response, int iterations) throws Exception {
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += mapper.writeValueAsBytes(response).length;
+        }
+        long elapsed = System.nanoTime() - start;
+        assertThat(sink).isPositive();
+        return elapsed;
+    }
+
+    private static long measureDecode(ObjectMapper mapper, byte[] encoded, int iterations) throws Exception {
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += mapper.readValue(encoded, ApiResponse.class).lines().size();
+        }
+        long elapsed = System.nanoTime() - start;
+        assertThat(sink).isPositive();
+        return elapsed;
+    }
+
+    /** Same settings as the service's JSON mapper; binary formats share field names and value formats. */
+    private static ObjectMapper mapper(JsonFactory factory) {
+        return new ObjectMapper(factory)
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private static ApiResponse sampleResponse() {
+        String[] ids = {"bakerloo", "central", "circle", "district", "hammersmith-city", "jubilee",
+                "metropolitan", "northern", "piccadilly", "victoria", "waterloo-city"};
+        List<TubeStatus.LineStatus> lines = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            List<TubeStatus.Disruption> disruptions = i % 4 == 1
+                    ? List.of(new TubeStatus.Disruption("RealTime",
+                            "Minor delays between Liverpool Street and Leytonstone due to an earlier "
+                                    + "signal failure at Stratford. Tickets are being accepted on local buses.",
+                            false))
+                    : List.of();
+            String status = disruptions.isEmpty() ? "Good Service" : "Minor Delays";
+            lines.add(new TubeStatus.LineStatus(ids[i], ids[i].toUpperCase(), status, status, disruptions));
+        }
+        Instant now = Instant.parse("2026-02-02T14:30:05.123Z");
+        return new ApiResponse(lines, new ApiResponse.Meta(now.minusSeconds(12), now));
+    }
+}
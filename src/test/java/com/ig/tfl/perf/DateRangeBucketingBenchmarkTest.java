@@ -0,0 +1,161 @@
+package com.ig.tfl.perf;
+
+import com.ig.tfl.cache.DateRangeKey;
+import com.ig.tfl.cache.DayBuckets;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark: TfL calls for a date-range query trace with exact-key caching
+ * (one entry per line:from:to) vs per-day buckets (DayBuckets: one entry per
+ * line and day, only missing runs fetched).
+ *
+ * Replays the trace against both strategies with the production lifetimes
+ * (ttl 5m, past-ttl 6h, ranges over 31 days cached by exact key) and counts
+ * TfL calls. Latency is not modelled: each miss is assumed answered before
+ * the next query.
+ *
+ * The trace is read from -DdateRangeTrace=path if given (one query per line:
+ * "secondsSinceStart,lineId,from,to", e.g. exported from access logs);
+ * otherwise a seeded synthetic trace is generated: weekend planned-works
+ * lookups dominate, with overlapping variants (Fri-Sun, Sat-Sun, Sat-Mon),
+ * plus trip-planning ranges over the next month and some past ranges.
+ *
+ * Run with: ./gradlew perfTest --tests '*DateRangeBucketingBenchmarkTest'
+ */
+@Tag("perf")
+class DateRangeBucketingBenchmarkTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 2, 10);
+    private static final Duration TTL = Duration.ofMinutes(5);
+    private static final Duration PAST_TTL = Duration.ofHours(6);
+    private static final int MAX_BUCKETED_DAYS = 31;
+
+    private static final int SYNTHETIC_QUERIES = 50_000;
+    private static final Duration SYNTHETIC_SPAN = Duration.ofHours(8);
+    private static final List<String> LINES = List.of(
+            "central", "northern", "victoria", "jubilee", "piccadilly", "district",
+            "bakerloo", "metropolitan", "elizabeth", "hammersmith-city", "circle");
+
+    record Query(long atSeconds, DateRangeKey range) {}
+
+    @Test
+    void tflCalls_exactKey_vsDayBuckets() throws IOException {
+        String tracePath = System.getProperty("dateRangeTrace");
+        List<Query> trace = tracePath != null ? load(Path.of(tracePath)) : synthetic(new Random(42));
+
+        long exact = exactKeyCalls(trace);
+        long bucketed = dayBucketCalls(trace);
+
+        System.out.printf("%n%-12s %10s %12s%n", "strategy", "queries", "tfl calls");
+        System.out.printf("%-12s %10d %12d%n", "exact-key", trace.size(), exact);
+        System.out.printf("%-12s %10d %12d%n", "day-buckets", trace.size(), bucketed);
+        System.out.printf("trace: %s, reduction: %.1f%%%n",
+                tracePath != null ? tracePath : "synthetic (seed 42)", 100.0 * (exact - bucketed) / exact);
+
+        if (tracePath == null) {
+            assertThat(bucketed).isLessThan(exact);
+        }
+    }
+
+    private static long exactKeyCalls(List<Query> trace) {
+        Map<DateRangeKey, Long> expiresAt = new HashMap<>();
+        long calls = 0;
+        for (Query query : trace) {
+            Long expiry = expiresAt.get(query.range());
+            if (expiry == null || expiry <= query.atSeconds()) {
+                calls++;
+                expiresAt.put(query.range(), query.atSeconds() + lifetime(query.range()));
+            }
+        }
+        return calls;
+    }
+
+    private static long dayBucketCalls(List<Query> trace) {
+        Map<DateRangeKey, Long> expiresAt = new HashMap<>();
+        long calls = 0;
+        for (Query query : trace) {
+            DateRangeKey range = query.range();
+            long now = query.atSeconds();
+            if (ChronoUnit.DAYS.between(range.from(), range.to()) >= MAX_BUCKETED_DAYS) {
+                Long expiry = expiresAt.get(range);
+                if (expiry == null || expiry <= now) {
+                    calls++;
+                    expiresAt.put(range, now + lifetime(range));
+                }
+                continue;
+            }
+            List<DateRangeKey> runs = DayBuckets.missingRuns(range.lineId(), range.from(), range.to(), day -> {
+                Long expiry = expiresAt.get(DayBuckets.day(range.lineId(), day));
+                return expiry != null && expiry > now;
+            });
+            calls += runs.size();
+            for (DateRangeKey run : runs) {
+                for (LocalDate day = run.from(); !day.isAfter(run.to()); day = day.plusDays(1)) {
+                    DateRangeKey key = DayBuckets.day(range.lineId(), day);
+                    expiresAt.put(key, now + lifetime(key));
+                }
+            }
+        }
+        return calls;
+    }
+
+    private static long lifetime(DateRangeKey key) {
+        return (key.isPast(TODAY) ? PAST_TTL : TTL).toSeconds();
+    }
+
+    private static List<Query> synthetic(Random random) {
+        LocalDate saturday = TODAY.with(TemporalAdjusters.next(DayOfWeek.SATURDAY));
+        List<Query> trace = new ArrayList<>(SYNTHETIC_QUERIES);
+        for (int i = 0; i < SYNTHETIC_QUERIES; i++) {
+            long at = SYNTHETIC_SPAN.toSeconds() * i / SYNTHETIC_QUERIES;
+            String line = LINES.get(Math.min((int) (-Math.log(random.nextDouble()) * 3), LINES.size() - 1));
+            double kind = random.nextDouble();
+            LocalDate from;
+            LocalDate to;
+            if (kind < 0.6) {
+                // This or next weekend, as Fri-Sun, Sat-Sun or Sat-Mon
+                LocalDate weekend = saturday.plusWeeks(random.nextInt(2));
+                from = random.nextBoolean() ? weekend : weekend.minusDays(1);
+                to = weekend.plusDays(1 + random.nextInt(2));
+            } else if (kind < 0.9) {
+                from = TODAY.plusDays(random.nextInt(30));
+                to = from.plusDays(random.nextInt(14));
+            } else {
+                from = TODAY.minusDays(1 + random.nextInt(60));
+                to = from.plusDays(random.nextInt(7));
+            }
+            trace.add(new Query(at, new DateRangeKey(line, from, to)));
+        }
+        return trace;
+    }
+
+    private static List<Query> load(Path path) throws IOException {
+        List<Query> trace = new ArrayList<>();
+        for (String row : Files.readAllLines(path)) {
+            if (row.isBlank() || row.startsWith("#")) {
+                continue;
+            }
+            String[] fields = row.split(",");
+            trace.add(new Query(Long.parseLong(fields[0].trim()), new DateRangeKey(fields[1].trim(),
+                    LocalDate.parse(fields[2].trim()), LocalDate.parse(fields[3].trim()))));
+        }
+        return trace;
+    }
+}
@@ -0,0 +1,258 @@
+package com.ig.tfl.perf;
+
+import com.ig.tfl.api.TubeStatusRoutes;
+import com.ig.tfl.client.TflGateway;
+import com.ig.tfl.crdt.StatusSnapshotHolder;
+import com.ig.tfl.crdt.TubeStatusReplicator;
+import com.ig.tfl.model.TubeStatus;
+import com.ig.tfl.observability.HealthSnapshot;
+import com.ig.tfl.observability.Metrics;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import org.apache.pekko.actor.testkit.typed.javadsl.ActorTestKit;
+import org.apache.pekko.actor.typed.ActorRef;
+import org.apache.pekko.actor.typed.javadsl.Behaviors;
+import org.apache.pekko.http.javadsl.ConnectionContext;
+import org.apache.pekko.http.javadsl.Http;
+import org.apache.pekko.http.javadsl.ServerBinding;
+import org.apache.pekko.http.javadsl.model.AttributeKeys;
+import org.apache.pekko.http.javadsl.server.Directives;
+import org.apache.pekko.http.javadsl.server.Route;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load test: HTTP/1.1 vs HTTP/2 at the same request rate, over TLS (ALPN).
+ *
+ * An open-loop client sends RATE requests/s to /api/v1/tube/status, first as
+ * HTTP/1.1 then as h2, and we report the connections the server saw (distinct
+ * client ports), latency percentiles measured from each request's scheduled send
+ * time, and process CPU. The JDK client opens a connection per in-flight
+ * HTTP/1.1 request but multiplexes h2 on one. Client and server share a JVM, so
+ * CPU covers both sides.
+ *
+ * Run with: ./gradlew perfTest --tests '*Http2LoadTest'
+ */
+@Tag("perf")
+class Http2LoadTest {
+
+    private static final int RATE = 2_000;
+    private static final Duration WARMUP = Duration.ofSeconds(3);
+    private static final Duration MEASURED = Duration.ofSeconds(10);
+    private static final String PASSWORD = "perf-test";
+
+    private static final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+    private static Path keystore;
+    private static ActorTestKit testKit;
+    private static ServerBinding binding;
+    private static SSLContext sslContext;
+    private static URI statusUri;
+
+    @BeforeAll
+    static void setupClass() throws Exception {
+        keystore = selfSignedKeystore();
+        sslContext = sslContext(keystore);
+
+        Config config = ConfigFactory.parseString("""
+                pekko {
+                    loglevel = "WARNING"
+                    http.server.enable-http2 = on
+                    http.server.remote-address-attribute = on
+                    http.server.max-connections = 10000
+                }
+                """).withFallback(ConfigFactory.load("application-test")).resolve();
+        testKit = ActorTestKit.create("http2-load-test", config);
+        StatusSnapshotHolder snapshots = new StatusSnapshotHolder();
+        snapshots.publish(status());
+
+        ActorRef<TubeStatusReplicator.Command> replicator = testKit.spawn(
+                Behaviors.receive(TubeStatusReplicator.Command.class)
+                        .onMessage(TubeStatusReplicator.Command.class, msg -> Behaviors.same())
+                        .build());
+        ActorRef<TflGateway.Command> gateway = testKit.<TflGateway.Command>createTestProbe().ref();
+        TubeStatusRoutes routes = new TubeStatusRoutes(testKit.system(), replicator, snapshots, gateway,
+                new Metrics(), Duration.ofSeconds(5), new HealthSnapshot(snapshots));
+
+        // One client port per connection, for both protocols
+        Route counted = Directives.extractRequest(request -> {
+            request.getAttribute(AttributeKeys.remoteAddress())
+                    .ifPresent(address -> clientPorts.add(address.getPort()));
+            return routes.routes();
+        });
+        binding = Http.get(testKit.system()).newServerAt("127.0.0.1", 0)
+                .enableHttps(ConnectionContext.httpsServer(sslContext))
+                .bind(counted)
+                .toCompletableFuture()
+                .get(10, TimeUnit.SECONDS);
+        statusUri = URI.create("https://localhost:" + binding.localAddress().getPort() + "/api/v1/tube/status");
+    }
+
+    @AfterAll
+    static void teardownClass() throws Exception {
+        if (binding != null) {
+            binding.unbind().toCompletableFuture().get(10, TimeUnit.SECONDS);
+        }
+        if (testKit != null) {
+            testKit.shutdownTestKit();
+        }
+        if (keystore != null) {
+            Files.deleteIfExists(keystore);
+        }
+    }
+
+    @Test
+    void http11VsHttp2_atEqualRate() throws Exception {
+        System.out.printf("%n%d req/s for %ds%n", RATE, MEASURED.toSeconds());
+        System.out.printf("%-9s %12s %10s %10s %10s %8s %7s%n",
+                "protocol", "connections", "p50(us)", "p99(us)", "max(us)", "cpu%", "errors");
+        for (HttpClient.Version version : List.of(HttpClient.Version.HTTP_1_1, HttpClient.Version.HTTP_2)) {
+            ExecutorService clientExecutor = Executors.newFixedThreadPool(4);
+            HttpClient client = HttpClient.newBuilder()
+                    .version(version)
+                    .sslContext(sslContext)
+                    .executor(clientExecutor)
+                    .build();
+            try {
+                run(client, version, WARMUP);
+                clientPorts.clear();
+                Result result = run(client, version, MEASURED);
+                System.out.printf("%-9s %12d %10d %10d %10d %8.1f %7d%n", version, clientPorts.size(),
+                        result.percentile(0.50), result.percentile(0.99), result.percentile(1.0),
+                        result.cpuPercent(), result.errors());
+                assertThat(result.errors()).isZero();
+            } finally {
+                clientExecutor.shutdownNow();
+            }
+        }
+    }
+
+    /** Latencies in microseconds (0 = not completed) and CPU over the run. */
+    private record Result(long[] latencies, int errors, double cpuPercent) {
+        long percentile(double p) {
+            long[] sorted = Arrays.stream(latencies).filter(l -> l > 0).sorted().toArray();
+            return sorted.length == 0 ? 0 : sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))];
+        }
+    }
+
+    private static Result run(HttpClient client, HttpClient.Version version, Duration duration)
+            throws Exception {
+        int total = (int) (RATE * duration.toSeconds());
+        AtomicLongArray latencies = new AtomicLongArray(total);
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        AtomicInteger sent = new AtomicInteger();
+        HttpRequest request = HttpRequest.newBuilder(statusUri).GET().build();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / RATE;
+
+        var cpu = (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        long cpuStart = cpu.getProcessCpuTime();
+        long start = System.nanoTime();
+
+        // Open loop: each request is due at start + i * interval, whatever happened to earlier ones
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler.scheduleAtFixedRate(() -> {
+            long now = System.nanoTime();
+            while (sent.get() < total && start + sent.get() * intervalNanos <= now) {
+                int index = sent.getAndIncrement();
+                long due = start + index * intervalNanos;
+                client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                        .whenComplete((response, error) -> {
+                            if (error != null || response.statusCode() != 200 || response.version() != version) {
+                                errors.incrementAndGet();
+                            } else {
+                                latencies.set(index, Math.max(1, (System.nanoTime() - due) / 1000));
+                            }
+                            completed.incrementAndGet();
+                        });
+            }
+        }, 0, 1, TimeUnit.MILLISECONDS);
+
+        long deadline = System.nanoTime() + duration.toNanos() + TimeUnit.SECONDS.toNanos(30);
+        while (completed.get() < total && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        scheduler.shutdownNow();
+        long wallNanos = System.nanoTime() - start;
+        double cpuPercent = 100.0 * (cpu.getProcessCpuTime() - cpuStart)
+                / wallNanos / Runtime.getRuntime().availableProcessors();
+
+        long[] result = new long[total];
+        for (int i = 0; i < total; i++) {
+            result[i] = latencies.get(i);
+        }
+        return new Result(result, errors.get() + (total - completed.get()), cpuPercent);
+    }
+
+    /** keytool-generated key for localhost, valid for the run. */
+    private static Path selfSignedKeystore() throws Exception {
+        Path file = Files.createTempFile("http2-load-test", ".p12");
+        Files.delete(file);
+        Path keytool = Path.of(System.getProperty("java.home"), "bin", "keytool");
+        Process process = new ProcessBuilder(keytool.toString(),
+                "-genkeypair", "-alias", "server", "-keyalg", "EC", "-groupname", "secp256r1",
+                "-dname", "CN=localhost", "-ext", "SAN=dns:localhost,ip:127.0.0.1",
+                "-validity", "1", "-storetype", "PKCS12",
+                "-keystore", file.toString(), "-storepass", PASSWORD)
+                .inheritIO()
+                .start();
+        assertThat(process.waitFor(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(process.exitValue()).isZero();
+        return file;
+    }
+
+    /** Same keystore as server key and client trust. */
+    private static SSLContext sslContext(Path file) throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream in = Files.newInputStream(file)) {
+            keyStore.load(in, PASSWORD.toCharArray());
+        }
+        KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagers.init(keyStore, PASSWORD.toCharArray());
+        TrustManagerFactory trustManagers = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagers.init(keyStore);
+        SSLContext context = SSLContext.getInstance("TLS");
+        context.init(keyManagers.getKeyManagers(), trustManagers.getTrustManagers(), null);
+        return context;
+    }
+
+    private static TubeStatus status() {
+        return new TubeStatus(
+                List.of(
+                        new TubeStatus.LineStatus("victoria", "Victoria", "Good Service",
+                                "Good Service", List.of()),
+                        new TubeStatus.LineStatus("central", "Central", "Minor Delays", "Minor Delays",
+                                List.of())),
+                Instant.now().minusSeconds(10),
+                "load-node");
+    }
+}
@@ -0,0 +1,184 @@
+package com.ig.tfl.perf;
+
+import com.ig.tfl.api.TubeStatusRoutes;
+import com.ig.tfl.client.TflGateway;
+import com.ig.tfl.crdt.StatusSnapshotHolder;
+import com.ig.tfl.crdt.TubeStatusReplicator;
+import com.ig.tfl.model.TubeStatus;
+import com.ig.tfl.observability.HealthSnapshot;
+import com.ig.tfl.observability.Metrics;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import org.apache.pekko.actor.testkit.typed.javadsl.ActorTestKit;
+import org.apache.pekko.actor.typed.ActorRef;
+import org.apache.pekko.actor.typed.javadsl.Behaviors;
+import org.apache.pekko.http.javadsl.model.HttpRequest;
+import org.apache.pekko.stream.Materializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Benchmark: GET /api/v1/tube/status via actor ask vs published snapshot.
+ *
+ * Drives the route handler in-process (no sockets) so the numbers isolate
+ * the read path itself. "ask" routes use a snapshot holder the replicator never
+ * publishes to, which forces every request through AskPattern.ask - the
+ * behaviour before the snapshot read path existed.
+ *
+ * Run with: ./gradlew perfTest --tests '*StatusReadPathBenchmarkTest'
+ */
+@Tag("perf")
+class StatusReadPathBenchmarkTest {
+
+    private static final int WARMUP_REQUESTS = 20_000;
+    private static final int MEASURED_REQUESTS = 200_000;
+    private static final int CONCURRENCY = 64;
+
+    private static ActorTestKit testKit;
+    private static Materializer materializer;
+    private static TubeStatusRoutes askRoutes;
+    private static TubeStatusRoutes snapshotRoutes;
+
+    @BeforeAll
+    static void setupClass() {
+        Config config = ConfigFactory.parseString("""
+                pekko {
+                    loglevel = "WARNING"
+                    actor {
+                        provider = "cluster"
+                        allow-java-serialization = on
+                    }
+                    remote.artery {
+                        canonical.hostname = "127.0.0.1"
+                        canonical.port = 0
+                    }
+                    cluster {
+                        seed-nodes = []
+                        downing-provider-class = "org.apache.pekko.cluster.sbr.SplitBrainResolverProvider"
+                    }
+                }
+                """).resolve();
+        testKit = ActorTestKit.create("read-path-benchmark", config);
+        org.apache.pekko.cluster.typed.Cluster.get(testKit.system()).manager()
+                .tell(org.apache.pekko.cluster.typed.Join.create(
+                        org.apache.pekko.cluster.typed.Cluster.get(testKit.system())
+                                .selfMember().address()));
+        materializer = Materializer.createMaterializer(testKit.system());
+
+        ActorRef<TflGateway.Command> gateway = testKit.spawn(Behaviors.receive(TflGateway.Command.class)
+                .onMessage(TflGateway.FetchAllLines.class, msg -> {
+                    msg.replyTo().tell(new TflGateway.FetchResponse(sampleStatus(), null));
+                    return Behaviors.same();
+                })
+                .build());
+
+        StatusSnapshotHolder snapshots = new StatusSnapshotHolder();
+        ActorRef<TubeStatusReplicator.Command> replicator = testKit.spawn(
+                TubeStatusReplicator.create(
+                        gateway,
+                        "bench-node",
+                        Duration.ofSeconds(1),
+                        Duration.ofSeconds(30),
+                        Duration.ofSeconds(30),
+                        snapshots));
+        await().atMost(10, TimeUnit.SECONDS).until(() -> snapshots.current() != null);
+
+        Metrics metrics = new Metrics();
+        Duration askTimeout = Duration.ofSeconds(5);
+        StatusSnapshotHolder empty = new StatusSnapshotHolder();
+        askRoutes = new TubeStatusRoutes(testKit.system(), replicator,
+                empty, gateway, metrics, askTimeout, new HealthSnapshot(empty));
+        snapshotRoutes = new TubeStatusRoutes(testKit.system(), replicator,
+                snapshots, gateway, metrics, askTimeout, new HealthSnapshot(snapshots));
+    }
+
+    @AfterAll
+    static void teardownClass() {
+        if (testKit != null) {
+            testKit.shutdownTestKit();
+        }
+    }
+
+    @Test
+    void snapshotReadPath_vsActorAsk() throws Exception {
+        run(askRoutes, WARMUP_REQUESTS);
+        run(snapshotRoutes, WARMUP_REQUESTS);
+
+        Result before = run(askRoutes, MEASURED_REQUESTS);
+        Result after = run(snapshotRoutes, MEASURED_REQUESTS);
+
+        System.out.printf("%n%-10s %12s %10s %10s%n", "path", "req/s", "p50(us)", "p99(us)");
+        System.out.printf("%-10s %12.0f %10d %10d%n", "ask", before.requestsPerSecond(),
+                before.p50Micros(), before.p99Micros());
+        System.out.printf("%-10s %12.0f %10d %10d%n", "snapshot", after.requestsPerSecond(),
+                after.p50Micros(), after.p99Micros());
+
+        assertThat(before.failures()).isZero();
+        assertThat(after.failures()).isZero();
+    }
+
+    private static Result run(TubeStatusRoutes routes, int requests) throws Exception {
+        var handler = routes.routes().handler(testKit.system());
+        long[] latencies = new long[requests];
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        CountDownLatch done = new CountDownLatch(requests);
+        AtomicInteger failures = new AtomicInteger();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            int index = i;
+            long sentAt = System.nanoTime();
+            handler.apply(HttpRequest.GET("/api/v1/tube/status")).whenComplete((response, error) -> {
+                latencies[index] = System.nanoTime() - sentAt;
+                if (error != null || response.status().intValue() != 200) {
+                    failures.incrementAndGet();
+                } else {
+                    response.discardEntityBytes(materializer);
+                }
+                inFlight.release();
+                done.countDown();
+            });
+        }
+        assertThat(done.await(2, TimeUnit.MINUTES)).isTrue();
+        long elapsedNanos = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        return new Result(
+                requests * 1_000_000_000.0 / elapsedNanos,
+                latencies[requests / 2] / 1000,
+                latencies[(int) (requests * 0.99)] / 1000,
+                failures.get());
+    }
+
+    private record Result(double requestsPerSecond, long p50Micros, long p99Micros, int failures) {}
+
+    private static TubeStatus sampleStatus() {
+        return new TubeStatus(
+                List.of(
+                        new TubeStatus.LineStatus("victoria", "Victoria", "Good Service",
+                                "Good Service", List.of()),
+                        new TubeStatus.LineStatus("central", "Central", "Minor Delays",
+                                "Minor Delays", List.of(new TubeStatus.Disruption(
+                                        "RealTime", "Minor delays due to signal failure at Bank", false))),
+                        new TubeStatus.LineStatus("northern", "Northern", "Good Service",
+                                "Good Service", List.of())
+                ),
+                Instant.now(),
+                "bench-node");
+    }
+}
@@ -0,0 +1,178 @@
+package com.ig.tfl.perf;
+
+import com.ig.tfl.api.TubeStatusRoutes;
+import com.ig.tfl.client.TflGateway;
+import com.ig.tfl.crdt.StatusSnapshotHolder;
+import com.ig.tfl.crdt.TubeStatusReplicator;
+import com.ig.tfl.model.TubeStatus;
+import com.ig.tfl.observability.HealthSnapshot;
+import com.ig.tfl.observability.Metrics;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import org.apache.pekko.Done;
+import org.apache.pekko.actor.testkit.typed.javadsl.ActorTestKit;
+import org.apache.pekko.actor.typed.ActorRef;
+import org.apache.pekko.actor.typed.javadsl.Behaviors;
+import org.apache.pekko.http.javadsl.Http;
+import org.apache.pekko.http.javadsl.ServerBinding;
+import org.apache.pekko.http.javadsl.model.ws.Message;
+import org.apache.pekko.http.javadsl.model.ws.TextMessage;
+import org.apache.pekko.http.javadsl.model.ws.WebSocketRequest;
+import org.apache.pekko.stream.Materializer;
+import org.apache.pekko.stream.javadsl.Flow;
+import org.apache.pekko.stream.javadsl.Keep;
+import org.apache.pekko.stream.javadsl.Sink;
+import org.apache.pekko.stream.javadsl.Source;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load test: 10k concurrent WebSocket subscribers on one node.
+ *
+ * Every socket subscribes to "central"; we then publish a snapshot that changes
+ * central and measure how long until every socket has received the delta, plus
+ * heap used per connected socket. Client and server share a JVM, so the numbers
+ * are an upper bound on server cost.
+ *
+ * Needs ~20k file descriptors (ulimit -n). Run with:
+ *   ./gradlew perfTest --tests '*WebSocketFanOutLoadTest'
+ */
+@Tag("perf")
+class WebSocketFanOutLoadTest {
+
+    private static final int SOCKETS = 10_000;
+    private static final int CONNECT_PARALLELISM = 256;
+
+    private static ActorTestKit testKit;
+    private static Materializer materializer;
+    private static StatusSnapshotHolder snapshots;
+    private static ServerBinding binding;
+    private static String wsUrl;
+
+    @BeforeAll
+    static void setupClass() throws Exception {
+        Config config = ConfigFactory.parseString("""
+                pekko {
+                    loglevel = "WARNING"
+                    http.server.max-connections = 20000
+                    http.server.idle-timeout = infinite
+                    http.client.idle-timeout = infinite
+                }
+                """).withFallback(ConfigFactory.load("application-test")).resolve();
+        testKit = ActorTestKit.create("websocket-load-test", config);
+        materializer = Materializer.createMaterializer(testKit.system());
+        snapshots = new StatusSnapshotHolder();
+        snapshots.publish(status("Good Service", Instant.now().minusSeconds(10)));
+
+        ActorRef<TubeStatusReplicator.Command> replicator = testKit.spawn(
+                Behaviors.receive(TubeStatusReplicator.Command.class)
+                        .onMessage(TubeStatusReplicator.Command.class, msg -> Behaviors.same())
+                        .build());
+        ActorRef<TflGateway.Command> gateway = testKit.<TflGateway.Command>createTestProbe().ref();
+        TubeStatusRoutes routes = new TubeStatusRoutes(testKit.system(), replicator, snapshots, gateway,
+                new Metrics(), Duration.ofSeconds(5), new HealthSnapshot(snapshots));
+
+        binding = Http.get(testKit.system()).newServerAt("127.0.0.1", 0)
+                .bind(routes.routes())
+                .toCompletableFuture()
+                .get(10, TimeUnit.SECONDS);
+        wsUrl = "ws://127.0.0.1:" + binding.localAddress().getPort() + "/api/v1/tube/status/ws";
+    }
+
+    @AfterAll
+    static void teardownClass() throws Exception {
+        if (binding != null) {
+            binding.unbind().toCompletableFuture().get(10, TimeUnit.SECONDS);
+        }
+        if (testKit != null) {
+            testKit.shutdownTestKit();
+        }
+    }
+
+    @Test
+    void tenThousandSockets_allReceiveDelta() throws Exception {
+        long heapBefore = usedHeap();
+        CountDownLatch subscribed = new CountDownLatch(SOCKETS);
+        CountDownLatch delivered = new CountDownLatch(SOCKETS);
+        long[] deliveredAt = new long[SOCKETS];
+        List<CompletableFuture<Optional<Message>>> closers = new ArrayList<>(SOCKETS);
+
+        long connectStart = System.nanoTime();
+        List<CompletionStage<?>> upgrades = new ArrayList<>();
+        for (int i = 0; i < SOCKETS; i++) {
+            int index = i;
+            Sink<Message, CompletionStage<Done>> sink = Sink.foreach(message -> {
+                String text = message.asTextMessage().getStrictText();
+                if (text.contains("Severe Delays")) {
+                    deliveredAt[index] = System.nanoTime();
+                    delivered.countDown();
+                } else {
+                    subscribed.countDown();
+                }
+            });
+            // Source.maybe keeps the client side open until we complete it
+            Source<Message, CompletableFuture<Optional<Message>>> source =
+                    Source.<Message>single(TextMessage.create("{\"op\":\"subscribe\",\"lines\":[\"central\"]}"))
+                            .concatMat(Source.maybe(), Keep.right());
+            var result = Http.get(testKit.system()).singleWebSocketRequest(
+                    WebSocketRequest.create(wsUrl),
+                    Flow.fromSinkAndSourceMat(sink, source, Keep.right()),
+                    materializer);
+            closers.add(result.second());
+            upgrades.add(result.first());
+            if (upgrades.size() == CONNECT_PARALLELISM) {
+                CompletableFuture.allOf(upgrades.stream()
+                        .map(CompletionStage::toCompletableFuture)
+                        .toArray(CompletableFuture[]::new)).get(60, TimeUnit.SECONDS);
+                upgrades.clear();
+            }
+        }
+        assertThat(subscribed.await(2, TimeUnit.MINUTES)).isTrue();
+        long connectMillis = (System.nanoTime() - connectStart) / 1_000_000;
+
+        System.gc();
+        long heapPerSocket = (usedHeap() - heapBefore) / SOCKETS;
+
+        long publishedAt = System.nanoTime();
+        snapshots.publish(status("Severe Delays", Instant.now()));
+        assertThat(delivered.await(1, TimeUnit.MINUTES)).isTrue();
+
+        long[] latencies = Arrays.stream(deliveredAt).map(t -> (t - publishedAt) / 1000).sorted().toArray();
+        System.out.printf("%n%d sockets connected+subscribed in %d ms, ~%d bytes heap/socket (client+server)%n",
+                SOCKETS, connectMillis, heapPerSocket);
+        System.out.printf("fan-out latency (us): p50=%d p99=%d max=%d%n",
+                latencies[SOCKETS / 2], latencies[(int) (SOCKETS * 0.99)], latencies[SOCKETS - 1]);
+
+        closers.forEach(closer -> closer.complete(Optional.empty()));
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static TubeStatus status(String central, Instant queriedAt) {
+        return new TubeStatus(
+                List.of(
+                        new TubeStatus.LineStatus("victoria", "Victoria", "Good Service",
+                                "Good Service", List.of()),
+                        new TubeStatus.LineStatus("central", "Central", central, central, List.of())),
+                queriedAt,
+                "load-node");
+    }
+}